@@ -0,0 +1,29 @@
+package ru.clevertec.product.cache;
+
+import ru.clevertec.product.data.InfoProductDto;
+
+@FunctionalInterface
+public interface AdmissionPolicy {
+
+    /**
+     * Пропускает все продукты
+     */
+    AdmissionPolicy ALWAYS = (infoProductDto, encodedSize) -> true;
+
+    /**
+     * Решает, попадёт ли загруженный продукт в кэш
+     *
+     * @param infoProductDto кандидат на кэширование
+     * @param encodedSize    размер продукта в байтах в дальнем уровне
+     * @return true если продукт нужно кэшировать
+     */
+    boolean admit(InfoProductDto infoProductDto, int encodedSize);
+
+    /**
+     * @param maxEncodedSize максимальный размер продукта в байтах
+     * @return политика, отсекающая слишком большие продукты
+     */
+    static AdmissionPolicy maxEncodedSize(int maxEncodedSize) {
+        return (infoProductDto, encodedSize) -> encodedSize <= maxEncodedSize;
+    }
+}
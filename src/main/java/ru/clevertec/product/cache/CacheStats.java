@@ -0,0 +1,52 @@
+package ru.clevertec.product.cache;
+
+public record CacheStats(
+
+        /**
+         * попадания в ближний (on-heap) уровень
+         */
+        long nearHits,
+
+        /**
+         * попадания в дальний (off-heap) уровень
+         */
+        long farHits,
+
+        /**
+         * промахи мимо обоих уровней
+         */
+        long misses,
+
+        /**
+         * продукты, вытесненные из дальнего уровня
+         */
+        long evictions,
+
+        /**
+         * количество продуктов в ближнем уровне
+         */
+        int nearSize,
+
+        /**
+         * количество продуктов в дальнем уровне
+         */
+        int farSize) {
+
+    /**
+     * @return доля запросов, обслуженных ближним уровнем
+     */
+    public double nearHitRatio() {
+        return ratio(nearHits, nearHits + farHits + misses);
+    }
+
+    /**
+     * @return доля запросов, дошедших до дальнего уровня и обслуженных им
+     */
+    public double farHitRatio() {
+        return ratio(farHits, farHits + misses);
+    }
+
+    private static double ratio(long hits, long requests) {
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
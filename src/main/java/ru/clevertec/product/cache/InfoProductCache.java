@@ -0,0 +1,59 @@
+package ru.clevertec.product.cache;
+
+import ru.clevertec.product.data.InfoProductDto;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface InfoProductCache {
+
+    /**
+     * ищет продукт в кэше по идентификатору
+     *
+     * @param uuid идентификатор продукта
+     * @return Optional<InfoProductDto> если найден, иначе Optional.empty()
+     */
+    Optional<InfoProductDto> get(UUID uuid);
+
+    /**
+     * Кладёт продукт в кэш, если его пропускает политика допуска
+     *
+     * @param infoProductDto информация о продукте
+     */
+    void put(InfoProductDto infoProductDto);
+
+    /**
+     * Номер версии продукта для {@link #putIfNotInvalidated}, меняется при каждом {@link #invalidate}.
+     * Может меняться и от инвалидации других продуктов - тогда загрузка просто не попадёт в кэш
+     *
+     * @param uuid идентификатор продукта
+     */
+    long generation(UUID uuid);
+
+    /**
+     * Кладёт продукт, только если его не инвалидировали с момента получения generation:
+     * загрузка, начатая до записи, не вернёт в кэш прежнее значение
+     *
+     * @param infoProductDto информация о продукте
+     * @param generation     результат {@link #generation} до чтения продукта
+     * @return false если продукт инвалидирован и не положен в кэш
+     */
+    boolean putIfNotInvalidated(InfoProductDto infoProductDto, long generation);
+
+    /**
+     * Удаляет продукт из всех уровней кэша
+     *
+     * @param uuid идентификатор продукта
+     */
+    void invalidate(UUID uuid);
+
+    /**
+     * Удаляет все продукты из кэша
+     */
+    void clear();
+
+    /**
+     * @return снимок метрик кэша
+     */
+    CacheStats stats();
+}
@@ -0,0 +1,223 @@
+package ru.clevertec.product.cache.impl;
+
+import ru.clevertec.product.cache.AdmissionPolicy;
+import ru.clevertec.product.cache.CacheStats;
+import ru.clevertec.product.cache.InfoProductCache;
+import ru.clevertec.product.codec.ProductCodec;
+import ru.clevertec.product.data.InfoProductDto;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Двухуровневый кэш: ближний уровень хранит объекты {@link InfoProductDto} в куче,
+ * дальний - сериализованные продукты в слотах фиксированного размера в direct-буферах.
+ * Вытесненные из ближнего уровня продукты опускаются в дальний,
+ * найденные в дальнем уровне - поднимаются в ближний. Оба уровня вытесняют по LRU
+ */
+public class TieredInfoProductCache implements InfoProductCache {
+
+    public static final int DEFAULT_SLOT_SIZE = 256;
+    private static final int SLOTS_PER_SLAB = 4096;
+    private static final int LENGTH_HEADER = Short.BYTES;
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final int nearCapacity;
+    private final int farCapacitySlots;
+    private final int slotSize;
+    private final AdmissionPolicy admissionPolicy;
+    private final ProductCodec codec = new ProductCodec();
+
+    private final Map<UUID, InfoProductDto> near = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<UUID, Integer> far = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final ByteBuffer scratch;
+
+    /**
+     * версии полос идентификаторов: хранить версию каждого продукта пришлось бы бесконечно
+     */
+    private final long[] generations = new long[GENERATION_STRIPES];
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private int allocatedSlots;
+
+    private long nearHits;
+    private long farHits;
+    private long misses;
+    private long evictions;
+
+    public TieredInfoProductCache(int nearCapacity, long farCapacityBytes) {
+        this(nearCapacity, farCapacityBytes, DEFAULT_SLOT_SIZE, AdmissionPolicy.ALWAYS);
+    }
+
+    public TieredInfoProductCache(int nearCapacity, long farCapacityBytes,
+                                  int slotSize, AdmissionPolicy admissionPolicy) {
+        if (nearCapacity < 0 || farCapacityBytes < 0) {
+            throw new IllegalArgumentException("Cache capacity can't be negative");
+        }
+        if (slotSize <= LENGTH_HEADER || slotSize > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Slot size must be in (2, 32767]: " + slotSize);
+        }
+        this.nearCapacity = nearCapacity;
+        this.farCapacitySlots = (int) Math.min(Integer.MAX_VALUE, farCapacityBytes / slotSize);
+        this.slotSize = slotSize;
+        this.admissionPolicy = admissionPolicy;
+        this.scratch = ByteBuffer.allocate(slotSize - LENGTH_HEADER);
+    }
+
+    @Override
+    public synchronized Optional<InfoProductDto> get(UUID uuid) {
+        InfoProductDto infoProductDto = near.get(uuid);
+        if (infoProductDto != null) {
+            nearHits++;
+            return Optional.of(infoProductDto);
+        }
+        Integer slot = far.remove(uuid);
+        if (slot == null) {
+            misses++;
+            return Optional.empty();
+        }
+        farHits++;
+        infoProductDto = read(slot);
+        releaseSlot(slot);
+        putNear(infoProductDto);
+        return Optional.of(infoProductDto);
+    }
+
+    @Override
+    public synchronized void put(InfoProductDto infoProductDto) {
+        int encodedSize = encode(infoProductDto);
+        if (!admissionPolicy.admit(infoProductDto, encodedSize < 0 ? Integer.MAX_VALUE : encodedSize)) {
+            return;
+        }
+        removeFar(infoProductDto.uuid());
+        putNear(infoProductDto);
+    }
+
+    @Override
+    public synchronized long generation(UUID uuid) {
+        return generations[generationStripe(uuid)];
+    }
+
+    @Override
+    public synchronized boolean putIfNotInvalidated(InfoProductDto infoProductDto, long generation) {
+        if (generations[generationStripe(infoProductDto.uuid())] != generation) {
+            return false;
+        }
+        put(infoProductDto);
+        return true;
+    }
+
+    @Override
+    public synchronized void invalidate(UUID uuid) {
+        generations[generationStripe(uuid)]++;
+        near.remove(uuid);
+        removeFar(uuid);
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int i = 0; i < generations.length; i++) {
+            generations[i]++;
+        }
+        near.clear();
+        far.values().forEach(this::releaseSlot);
+        far.clear();
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new CacheStats(nearHits, farHits, misses, evictions, near.size(), far.size());
+    }
+
+    private static int generationStripe(UUID uuid) {
+        int hash = uuid.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private void putNear(InfoProductDto infoProductDto) {
+        near.put(infoProductDto.uuid(), infoProductDto);
+        if (near.size() > nearCapacity) {
+            Iterator<InfoProductDto> eldest = near.values().iterator();
+            InfoProductDto demoted = eldest.next();
+            eldest.remove();
+            putFar(demoted);
+        }
+    }
+
+    private void putFar(InfoProductDto infoProductDto) {
+        int encodedSize = encode(infoProductDto);
+        if (encodedSize < 0 || farCapacitySlots == 0) {
+            return;
+        }
+        int slot = acquireSlot();
+        ByteBuffer slab = slabs.get(slot / SLOTS_PER_SLAB);
+        int offset = (slot % SLOTS_PER_SLAB) * slotSize;
+        slab.putShort(offset, (short) encodedSize);
+        slab.put(offset + LENGTH_HEADER, scratch, 0, encodedSize);
+        far.put(infoProductDto.uuid(), slot);
+    }
+
+    private void removeFar(UUID uuid) {
+        Integer slot = far.remove(uuid);
+        if (slot != null) {
+            releaseSlot(slot);
+        }
+    }
+
+    private int acquireSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (allocatedSlots < farCapacitySlots) {
+            if (allocatedSlots % SLOTS_PER_SLAB == 0) {
+                int slabSlots = Math.min(SLOTS_PER_SLAB, farCapacitySlots - allocatedSlots);
+                slabs.add(ByteBuffer.allocateDirect(slabSlots * slotSize));
+            }
+            return allocatedSlots++;
+        }
+        Iterator<Integer> eldest = far.values().iterator();
+        int slot = eldest.next();
+        eldest.remove();
+        evictions++;
+        return slot;
+    }
+
+    private void releaseSlot(int slot) {
+        if (freeSlotCount == freeSlots.length) {
+            int[] grown = new int[freeSlots.length * 2];
+            System.arraycopy(freeSlots, 0, grown, 0, freeSlotCount);
+            freeSlots = grown;
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private InfoProductDto read(int slot) {
+        ByteBuffer slab = slabs.get(slot / SLOTS_PER_SLAB);
+        int offset = (slot % SLOTS_PER_SLAB) * slotSize;
+        int length = slab.getShort(offset);
+        return codec.readInfoProductDto(slab.slice(offset + LENGTH_HEADER, length));
+    }
+
+    /**
+     * Сериализует продукт в рабочий буфер
+     *
+     * @return размер в байтах или -1 если продукт не помещается в слот
+     */
+    private int encode(InfoProductDto infoProductDto) {
+        scratch.clear();
+        try {
+            codec.writeInfoProductDto(scratch, infoProductDto);
+        } catch (BufferOverflowException e) {
+            return -1;
+        }
+        return scratch.position();
+    }
+}
@@ -0,0 +1,291 @@
+package ru.clevertec.product.codec;
+
+import lombok.NoArgsConstructor;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Бинарный формат продуктов и DTO, пишет напрямую в {@link ByteBuffer} и читает из него.
+ * Каждая запись начинается с байта версии формата. Идентификатор пишется двумя long,
+ * стоимость - масштабом и немасштабированным значением, дата создания - секундами и наносекундами
+ * от эпохи в UTC, строки - длиной в байтах и UTF-8. Порядок байт берётся из буфера
+ */
+@NoArgsConstructor
+public class ProductCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final byte ABSENT = 0;
+    private static final byte PRESENT = 1;
+    private static final byte PRICE_NULL = -1;
+    private static final byte PRICE_LONG = 0;
+    private static final byte PRICE_BIG = 1;
+    private static final int NULL_LENGTH = -1;
+
+    public void writeProduct(ByteBuffer buffer, Product product) {
+        buffer.put(VERSION);
+        writeNullableUuid(buffer, product.getUuid());
+        writeString(buffer, product.getName());
+        writeString(buffer, product.getDescription());
+        writePrice(buffer, product.getPrice());
+        writeCreated(buffer, product.getCreated());
+    }
+
+    public Product readProduct(ByteBuffer buffer) {
+        checkVersion(buffer);
+        return new Product(readNullableUuid(buffer), readString(buffer), readString(buffer),
+                readPrice(buffer), readCreated(buffer));
+    }
+
+    public int sizeOf(Product product) {
+        return Byte.BYTES + sizeOfNullableUuid(product.getUuid()) + sizeOf(product.getName())
+                + sizeOf(product.getDescription()) + sizeOf(product.getPrice()) + sizeOf(product.getCreated());
+    }
+
+    public void writeProductDto(ByteBuffer buffer, ProductDto productDto) {
+        buffer.put(VERSION);
+        writeString(buffer, productDto.name());
+        writeString(buffer, productDto.description());
+        writePrice(buffer, productDto.price());
+    }
+
+    public ProductDto readProductDto(ByteBuffer buffer) {
+        checkVersion(buffer);
+        return new ProductDto(readString(buffer), readString(buffer), readPrice(buffer));
+    }
+
+    public int sizeOf(ProductDto productDto) {
+        return Byte.BYTES + sizeOf(productDto.name()) + sizeOf(productDto.description()) + sizeOf(productDto.price());
+    }
+
+    public void writeInfoProductDto(ByteBuffer buffer, InfoProductDto infoProductDto) {
+        buffer.put(VERSION);
+        writeNullableUuid(buffer, infoProductDto.uuid());
+        writeString(buffer, infoProductDto.name());
+        writeString(buffer, infoProductDto.description());
+        writePrice(buffer, infoProductDto.price());
+    }
+
+    public InfoProductDto readInfoProductDto(ByteBuffer buffer) {
+        checkVersion(buffer);
+        return new InfoProductDto(readNullableUuid(buffer), readString(buffer), readString(buffer), readPrice(buffer));
+    }
+
+    public int sizeOf(InfoProductDto infoProductDto) {
+        return Byte.BYTES + sizeOfNullableUuid(infoProductDto.uuid()) + sizeOf(infoProductDto.name())
+                + sizeOf(infoProductDto.description()) + sizeOf(infoProductDto.price());
+    }
+
+    public void writeUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    public UUID readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Пишет строку как длину в байтах и UTF-8 без промежуточного массива, null пишется длиной -1
+     */
+    public void writeString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        buffer.putInt(utf8Length(value));
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char symbol = value.charAt(i);
+            if (symbol < 0x80) {
+                buffer.put((byte) symbol);
+            } else if (symbol < 0x800) {
+                buffer.put((byte) (0xC0 | symbol >> 6));
+                buffer.put((byte) (0x80 | symbol & 0x3F));
+            } else if (Character.isHighSurrogate(symbol) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(symbol, value.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                buffer.put((byte) (0xE0 | symbol >> 12));
+                buffer.put((byte) (0x80 | symbol >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | symbol & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Читает строку, записанную {@link #writeString}. Последовательность UTF-8, которая выходит
+     * за объявленную длину, считается обрывом данных
+     *
+     * @throws BufferUnderflowException если длина или последовательность выходят за пределы буфера
+     */
+    public String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        // каждый байт даёт не больше одного символа: четыре байта суррогатной пары дают два
+        char[] chars = new char[length];
+        int count = 0;
+        int end = buffer.position() + length;
+        while (buffer.position() < end) {
+            int first = buffer.get() & 0xFF;
+            if (buffer.position() + sequenceLength(first) - 1 > end) {
+                throw new BufferUnderflowException();
+            }
+            if (first < 0x80) {
+                chars[count++] = (char) first;
+            } else if (first < 0xE0) {
+                chars[count++] = (char) ((first & 0x1F) << 6 | buffer.get() & 0x3F);
+            } else if (first < 0xF0) {
+                chars[count++] = (char) ((first & 0x0F) << 12 | (buffer.get() & 0x3F) << 6 | buffer.get() & 0x3F);
+            } else {
+                int codePoint = (first & 0x07) << 18 | (buffer.get() & 0x3F) << 12
+                        | (buffer.get() & 0x3F) << 6 | buffer.get() & 0x3F;
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    public int sizeOf(String value) {
+        return Integer.BYTES + (value == null ? 0 : utf8Length(value));
+    }
+
+    public void writePrice(ByteBuffer buffer, BigDecimal price) {
+        if (price == null) {
+            buffer.put(PRICE_NULL);
+            return;
+        }
+        BigInteger unscaled = price.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            buffer.put(PRICE_LONG);
+            buffer.putInt(price.scale());
+            buffer.putLong(unscaled.longValue());
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            buffer.put(PRICE_BIG);
+            buffer.putInt(price.scale());
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    public BigDecimal readPrice(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        if (tag == PRICE_NULL) {
+            return null;
+        }
+        int scale = buffer.getInt();
+        if (tag == PRICE_LONG) {
+            return BigDecimal.valueOf(buffer.getLong(), scale);
+        }
+        int length = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new BigDecimal(new BigInteger(bytes), scale);
+    }
+
+    public int sizeOf(BigDecimal price) {
+        if (price == null) {
+            return Byte.BYTES;
+        }
+        int bitLength = price.unscaledValue().bitLength();
+        return bitLength < Long.SIZE
+                ? Byte.BYTES + Integer.BYTES + Long.BYTES
+                : Byte.BYTES + Integer.BYTES + Integer.BYTES + bitLength / 8 + 1;
+    }
+
+    public void writeCreated(ByteBuffer buffer, LocalDateTime created) {
+        if (created == null) {
+            buffer.put(ABSENT);
+            return;
+        }
+        buffer.put(PRESENT);
+        buffer.putLong(created.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(created.getNano());
+    }
+
+    public LocalDateTime readCreated(ByteBuffer buffer) {
+        if (buffer.get() == ABSENT) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    public int sizeOf(LocalDateTime created) {
+        return created == null ? Byte.BYTES : Byte.BYTES + Long.BYTES + Integer.BYTES;
+    }
+
+    private void writeNullableUuid(ByteBuffer buffer, UUID uuid) {
+        if (uuid == null) {
+            buffer.put(ABSENT);
+            return;
+        }
+        buffer.put(PRESENT);
+        writeUuid(buffer, uuid);
+    }
+
+    private UUID readNullableUuid(ByteBuffer buffer) {
+        return buffer.get() == ABSENT ? null : readUuid(buffer);
+    }
+
+    private static int sizeOfNullableUuid(UUID uuid) {
+        return uuid == null ? Byte.BYTES : Byte.BYTES + 2 * Long.BYTES;
+    }
+
+    private static int sequenceLength(int first) {
+        if (first < 0x80) {
+            return 1;
+        }
+        if (first < 0xE0) {
+            return 2;
+        }
+        return first < 0xF0 ? 3 : 4;
+    }
+
+    private static void checkVersion(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported codec version: " + version);
+        }
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char symbol = value.charAt(i);
+            if (symbol >= 0x800) {
+                bytes += 2;
+                if (Character.isHighSurrogate(symbol) && i + 1 < length
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    i++;
+                }
+            } else if (symbol >= 0x80) {
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+}
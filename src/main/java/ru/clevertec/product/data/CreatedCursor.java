@@ -0,0 +1,50 @@
+package ru.clevertec.product.data;
+
+import ru.clevertec.product.entity.Product;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+public record CreatedCursor(
+
+        /**
+         * время создания, не может быть null
+         */
+        LocalDateTime created,
+
+        /**
+         * идентификатор продукта, null - позиция перед всеми продуктами с этим временем создания
+         */
+        UUID uuid) implements Comparable<CreatedCursor> {
+
+    private static final Comparator<CreatedCursor> ORDER = Comparator.comparing(CreatedCursor::created)
+            .thenComparing(CreatedCursor::uuid, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    public CreatedCursor {
+        if (created == null) {
+            throw new IllegalArgumentException("Cursor created time can't be null");
+        }
+    }
+
+    /**
+     * @param created время создания
+     * @return позиция перед всеми продуктами, созданными в это время
+     */
+    public static CreatedCursor from(LocalDateTime created) {
+        return new CreatedCursor(created, null);
+    }
+
+    /**
+     * @param product продукт с заданным временем создания
+     * @return позиция продукта
+     */
+    public static CreatedCursor of(Product product) {
+        return new CreatedCursor(product.getCreated(), product.getUuid());
+    }
+
+    @Override
+    public int compareTo(CreatedCursor other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.clevertec.product.data;
+
+import java.util.List;
+
+public record CreatedPage(
+
+        /**
+         * продукты в порядке создания
+         */
+        List<InfoProductDto> products,
+
+        /**
+         * позиция последнего продукта страницы для запроса следующей, null если страница пустая
+         */
+        CreatedCursor next) {
+}
@@ -0,0 +1,212 @@
+package ru.clevertec.product.data;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Колоночное представление списка {@link InfoProductDto}:
+ * идентификатор хранится как две половины long, остальные поля - в параллельных массивах.
+ * Обход через {@link Cursor} не создаёт объектов на каждую строку
+ */
+public final class InfoProductColumns {
+
+    private long[] uuidMostSigBits;
+    private long[] uuidLeastSigBits;
+    private String[] names;
+    private String[] descriptions;
+    private BigDecimal[] prices;
+    private int size;
+
+    public InfoProductColumns(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity can't be negative: " + capacity);
+        }
+        uuidMostSigBits = new long[capacity];
+        uuidLeastSigBits = new long[capacity];
+        names = new String[capacity];
+        descriptions = new String[capacity];
+        prices = new BigDecimal[capacity];
+    }
+
+    /**
+     * Добавляет строку в конец представления
+     *
+     * @param uuid        идентификатор продукта
+     * @param name        имя продукта
+     * @param description описание продукта
+     * @param price       стоимость продукта
+     */
+    public void add(UUID uuid, String name, String description, BigDecimal price) {
+        if (size == names.length) {
+            grow();
+        }
+        uuidMostSigBits[size] = uuid.getMostSignificantBits();
+        uuidLeastSigBits[size] = uuid.getLeastSignificantBits();
+        names[size] = name;
+        descriptions[size] = description;
+        prices[size] = price;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long uuidMostSigBits(int row) {
+        return uuidMostSigBits[checkRow(row)];
+    }
+
+    public long uuidLeastSigBits(int row) {
+        return uuidLeastSigBits[checkRow(row)];
+    }
+
+    /**
+     * Собирает идентификатор строки, создаёт новый объект {@link UUID}
+     */
+    public UUID uuid(int row) {
+        return new UUID(uuidMostSigBits[checkRow(row)], uuidLeastSigBits[row]);
+    }
+
+    public String name(int row) {
+        return names[checkRow(row)];
+    }
+
+    public String description(int row) {
+        return descriptions[checkRow(row)];
+    }
+
+    public BigDecimal price(int row) {
+        return prices[checkRow(row)];
+    }
+
+    /**
+     * Материализует строку в отдельный DTO
+     *
+     * @param row номер строки
+     * @return новый {@link InfoProductDto}
+     */
+    public InfoProductDto toInfoProductDto(int row) {
+        return new InfoProductDto(uuid(row), names[row], descriptions[row], prices[row]);
+    }
+
+    /**
+     * Материализует все строки
+     *
+     * @return неизменяемый список DTO в порядке добавления
+     */
+    public List<InfoProductDto> toList() {
+        return IntStream.range(0, size)
+                .mapToObj(this::toInfoProductDto)
+                .toList();
+    }
+
+    /**
+     * Создаёт курсор, установленный перед первой строкой
+     *
+     * @return новый курсор
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Обходит все строки одним и тем же курсором
+     *
+     * @param action действие над текущей строкой, курсор нельзя сохранять за пределами вызова
+     */
+    public void forEach(Consumer<? super Cursor> action) {
+        Cursor cursor = new Cursor();
+        while (cursor.next()) {
+            action.accept(cursor);
+        }
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return row;
+    }
+
+    private void grow() {
+        int capacity = Math.max(8, names.length * 2);
+        uuidMostSigBits = Arrays.copyOf(uuidMostSigBits, capacity);
+        uuidLeastSigBits = Arrays.copyOf(uuidLeastSigBits, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+    }
+
+    /**
+     * Flyweight-доступ к строкам представления, переиспользуется при обходе
+     */
+    public final class Cursor {
+
+        private int row = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Переходит к следующей строке
+         *
+         * @return false если строки закончились
+         */
+        public boolean next() {
+            if (row + 1 >= size) {
+                row = size;
+                return false;
+            }
+            row++;
+            return true;
+        }
+
+        public int row() {
+            return checkPosition();
+        }
+
+        public long uuidMostSigBits() {
+            return uuidMostSigBits[checkPosition()];
+        }
+
+        public long uuidLeastSigBits() {
+            return uuidLeastSigBits[checkPosition()];
+        }
+
+        public String name() {
+            return names[checkPosition()];
+        }
+
+        public String description() {
+            return descriptions[checkPosition()];
+        }
+
+        public BigDecimal price() {
+            return prices[checkPosition()];
+        }
+
+        public UUID uuid() {
+            return InfoProductColumns.this.uuid(checkPosition());
+        }
+
+        public InfoProductDto toInfoProductDto() {
+            return InfoProductColumns.this.toInfoProductDto(checkPosition());
+        }
+
+        private int checkPosition() {
+            if (row < 0 || row >= size) {
+                throw new NoSuchElementException("Cursor isn't positioned on a row");
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.clevertec.product.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record PriceChange(
+
+        /**
+         * время, с которого действует стоимость
+         */
+        LocalDateTime time,
+
+        /**
+         * новая стоимость продукта
+         */
+        BigDecimal price) {
+}
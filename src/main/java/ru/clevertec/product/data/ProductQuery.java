@@ -0,0 +1,162 @@
+package ru.clevertec.product.data;
+
+import ru.clevertec.product.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Неизменяемый запрос продуктов: условия объединяются через И, незаданное условие (null) не проверяется.
+ * Запрос строится цепочкой вызовов, начиная с {@link #all()}
+ */
+public record ProductQuery(
+
+        /**
+         * точное совпадение имени
+         */
+        String name,
+
+        /**
+         * подстрока имени без учёта регистра
+         */
+        String nameContaining,
+
+        /**
+         * минимальная стоимость включительно
+         */
+        BigDecimal minPrice,
+
+        /**
+         * максимальная стоимость включительно
+         */
+        BigDecimal maxPrice,
+
+        /**
+         * начало интервала создания включительно
+         */
+        LocalDateTime createdFrom,
+
+        /**
+         * конец интервала создания не включительно
+         */
+        LocalDateTime createdTo,
+
+        /**
+         * поле сортировки, null - порядок, который даёт выбранный способ доступа
+         */
+        SortField sortField,
+
+        /**
+         * направление сортировки, не может быть null
+         */
+        SortDirection direction,
+
+        /**
+         * максимальное количество продуктов, {@link #UNLIMITED} - без ограничения
+         */
+        int limit) {
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final ProductQuery ALL = new ProductQuery(null, null, null, null, null, null, null,
+            SortDirection.ASC, UNLIMITED);
+
+    public ProductQuery {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit can't be negative: " + limit);
+        }
+        if (direction == null) {
+            throw new IllegalArgumentException("Sort direction can't be null");
+        }
+    }
+
+    /**
+     * @return запрос всех продуктов без сортировки и ограничения
+     */
+    public static ProductQuery all() {
+        return ALL;
+    }
+
+    public ProductQuery withName(String name) {
+        return new ProductQuery(name, nameContaining, minPrice, maxPrice, createdFrom, createdTo,
+                sortField, direction, limit);
+    }
+
+    public ProductQuery withNameContaining(String nameContaining) {
+        return new ProductQuery(name, nameContaining, minPrice, maxPrice, createdFrom, createdTo,
+                sortField, direction, limit);
+    }
+
+    /**
+     * @param minPrice минимальная стоимость включительно или null
+     * @param maxPrice максимальная стоимость включительно или null
+     */
+    public ProductQuery withPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return new ProductQuery(name, nameContaining, minPrice, maxPrice, createdFrom, createdTo,
+                sortField, direction, limit);
+    }
+
+    /**
+     * @param createdFrom начало интервала включительно или null
+     * @param createdTo   конец интервала не включительно или null
+     */
+    public ProductQuery withCreatedBetween(LocalDateTime createdFrom, LocalDateTime createdTo) {
+        return new ProductQuery(name, nameContaining, minPrice, maxPrice, createdFrom, createdTo,
+                sortField, direction, limit);
+    }
+
+    /**
+     * Продукты без значения поля сортировки не попадают в выборку
+     */
+    public ProductQuery orderBy(SortField sortField, SortDirection direction) {
+        return new ProductQuery(name, nameContaining, minPrice, maxPrice, createdFrom, createdTo,
+                sortField, direction, limit);
+    }
+
+    public ProductQuery withLimit(int limit) {
+        return new ProductQuery(name, nameContaining, minPrice, maxPrice, createdFrom, createdTo,
+                sortField, direction, limit);
+    }
+
+    /**
+     * Проверяет все условия запроса, включая наличие значения поля сортировки
+     *
+     * @return предикат, который можно применять к продуктам многократно
+     */
+    public Predicate<Product> toPredicate() {
+        String needle = nameContaining == null ? null : nameContaining.toLowerCase(Locale.ROOT);
+        return product -> (name == null || name.equals(product.getName()))
+                && (needle == null || product.getName() != null
+                && product.getName().toLowerCase(Locale.ROOT).contains(needle))
+                && (minPrice == null || product.getPrice() != null && product.getPrice().compareTo(minPrice) >= 0)
+                && (maxPrice == null || product.getPrice() != null && product.getPrice().compareTo(maxPrice) <= 0)
+                && (createdFrom == null || product.getCreated() != null
+                && !product.getCreated().isBefore(createdFrom))
+                && (createdTo == null || product.getCreated() != null && product.getCreated().isBefore(createdTo))
+                && (sortField != SortField.PRICE || product.getPrice() != null)
+                && (sortField != SortField.CREATED || product.getCreated() != null);
+    }
+
+    /**
+     * @return true если задано условие на имя или стоимость
+     */
+    public boolean hasNameOrPriceConditions() {
+        return name != null || nameContaining != null || minPrice != null || maxPrice != null;
+    }
+
+    public boolean hasCreatedRange() {
+        return createdFrom != null || createdTo != null;
+    }
+
+    public boolean isLimited() {
+        return limit != UNLIMITED;
+    }
+
+    public enum SortField {
+
+        PRICE,
+        CREATED
+    }
+}
@@ -0,0 +1,17 @@
+package ru.clevertec.product.data;
+
+import java.util.Comparator;
+
+public enum SortDirection {
+
+    ASC,
+    DESC;
+
+    /**
+     * @param comparator порядок по возрастанию
+     * @return порядок в этом направлении
+     */
+    public <T> Comparator<T> apply(Comparator<T> comparator) {
+        return this == ASC ? comparator : comparator.reversed();
+    }
+}
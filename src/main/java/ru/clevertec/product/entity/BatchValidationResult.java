@@ -0,0 +1,37 @@
+package ru.clevertec.product.entity;
+
+import java.util.BitSet;
+
+public record BatchValidationResult(
+
+        /**
+         * количество проверенных строк
+         */
+        int size,
+
+        /**
+         * установленный бит означает валидную строку
+         */
+        BitSet validRows,
+
+        /**
+         * битовая маска причин отказа для каждой строки, 0 для валидной строки
+         */
+        byte[] failureReasons) {
+
+    public static final byte NAME_INVALID = 1;
+    public static final byte DESCRIPTION_INVALID = 1 << 1;
+    public static final byte PRICE_INVALID = 1 << 2;
+
+    public boolean isValid(int row) {
+        return validRows.get(row);
+    }
+
+    public int failures(int row) {
+        return failureReasons[row];
+    }
+
+    public int validCount() {
+        return validRows.cardinality();
+    }
+}
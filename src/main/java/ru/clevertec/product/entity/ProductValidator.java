@@ -5,19 +5,20 @@ import ru.clevertec.product.data.ProductDto;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.BitSet;
 
 @NoArgsConstructor
 public class ProductValidator {
 
     public boolean checkName(String name) {
         return name != null && !name.isBlank()
-                && name.matches("[а-яА-ЯёЁ ]{5,10}");
+                && matchesRussianOrSpaces(name, 5, 10);
     }
 
     public boolean checkDescription(String description) {
         return description == null ||
                 description.isBlank() ||
-                description.matches("[а-яА-ЯёЁ ]{10,30}");
+                matchesRussianOrSpaces(description, 10, 30);
     }
 
     public boolean checkPrice(BigDecimal price) {
@@ -37,4 +38,50 @@ public class ProductValidator {
         return checkName(productDto.getName()) && checkDescription(productDto.getDescription())
                 && checkPrice(productDto.getPrice());
     }
+
+    /**
+     * Проверяет пачку DTO, переданную по колонкам
+     *
+     * @param names        имена продуктов
+     * @param descriptions описания продуктов
+     * @param prices       стоимости продуктов
+     * @return валидные строки и причины отказа для остальных
+     * @throws IllegalArgumentException если колонки разной длины
+     */
+    public BatchValidationResult checkValidation(String[] names, String[] descriptions, BigDecimal[] prices) {
+        int size = names.length;
+        if (descriptions.length != size || prices.length != size) {
+            throw new IllegalArgumentException("Columns must have the same length");
+        }
+        BitSet validRows = new BitSet(size);
+        byte[] failureReasons = new byte[size];
+        for (int row = 0; row < size; row++) {
+            int failures = (checkName(names[row]) ? 0 : BatchValidationResult.NAME_INVALID)
+                    | (checkDescription(descriptions[row]) ? 0 : BatchValidationResult.DESCRIPTION_INVALID)
+                    | (checkPrice(prices[row]) ? 0 : BatchValidationResult.PRICE_INVALID);
+            if (failures == 0) {
+                validRows.set(row);
+            } else {
+                failureReasons[row] = (byte) failures;
+            }
+        }
+        return new BatchValidationResult(size, validRows, failureReasons);
+    }
+
+    /**
+     * Проверяет строку на соответствие [а-яА-ЯёЁ ]{min,max} без регулярного выражения
+     */
+    private static boolean matchesRussianOrSpaces(String value, int minLength, int maxLength) {
+        int length = value.length();
+        if (length < minLength || length > maxLength) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char symbol = value.charAt(i);
+            if (symbol != ' ' && symbol != 'ё' && symbol != 'Ё' && (symbol < 'А' || symbol > 'я')) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
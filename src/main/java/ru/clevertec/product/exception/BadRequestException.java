@@ -0,0 +1,12 @@
+package ru.clevertec.product.exception;
+
+/**
+ * Запрос клиента разобрать не удалось: неизвестный путь, испорченный параметр или тело.
+ * В отличие от прочих {@link IllegalArgumentException} сообщение можно отдать клиенту
+ */
+public class BadRequestException extends IllegalArgumentException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
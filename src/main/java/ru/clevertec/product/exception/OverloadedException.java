@@ -0,0 +1,11 @@
+package ru.clevertec.product.exception;
+
+public class OverloadedException extends RuntimeException {
+
+    /**
+     * @param operation - операция, отклонённая из-за превышения лимита
+     */
+    public OverloadedException(String operation) {
+        super(String.format("Operation %s rejected: concurrency limit reached", operation));
+    }
+}
@@ -0,0 +1,13 @@
+package ru.clevertec.product.exception;
+
+import java.util.UUID;
+
+public class TransactionConflictException extends RuntimeException {
+
+    /**
+     * @param uuid - идентификатор продукта, изменённого другой транзакцией после чтения
+     */
+    public TransactionConflictException(UUID uuid) {
+        super(String.format("Transaction conflict on product with uuid: %s", uuid));
+    }
+}
@@ -0,0 +1,37 @@
+package ru.clevertec.product.history;
+
+import ru.clevertec.product.data.PriceChange;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface PriceHistoryStore {
+
+    /**
+     * Добавляет изменение стоимости продукта в конец его истории
+     *
+     * @param uuid  идентификатор продукта
+     * @param time  время, с которого действует стоимость
+     * @param price новая стоимость
+     */
+    void record(UUID uuid, LocalDateTime time, BigDecimal price);
+
+    /**
+     * ищет изменения стоимости продукта в полуинтервале [from, to) в порядке записи
+     *
+     * @param uuid идентификатор продукта
+     * @param from начало интервала включительно
+     * @param to   конец интервала не включительно
+     * @return изменения стоимости, пустой список если истории нет
+     */
+    List<PriceChange> findHistory(UUID uuid, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Удаляет историю удалённого продукта
+     *
+     * @param uuid идентификатор продукта
+     */
+    void remove(UUID uuid);
+}
@@ -0,0 +1,230 @@
+package ru.clevertec.product.history.impl;
+
+import ru.clevertec.product.data.PriceChange;
+import ru.clevertec.product.history.PriceHistoryStore;
+import ru.clevertec.product.repository.impl.UuidHashIndex;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * История стоимости в памяти: изменения каждого продукта лежат подряд в одном byte[].
+ * Запись хранит разницу с предыдущей записью того же продукта - время в миллисекундах UTC и
+ * немасштабированную стоимость - в zigzag varint, масштаб стоимости пишется только при его смене.
+ * Немасштабированная стоимость длиннее 60 бит пишется целиком байтами BigInteger, следующая запись
+ * отсчитывает разницу от нуля. Изменение раз в сутки на небольшую сумму занимает 5-6 байт
+ */
+public class DeltaPriceHistoryStore implements PriceHistoryStore {
+
+    private static final int INITIAL_SERIES_CAPACITY = 16;
+
+    /**
+     * разница немасштабированных стоимостей в zigzag и два флага должны поместиться в 64 бита
+     */
+    private static final int MAX_DELTA_UNSCALED_BITS = 60;
+    private static final long SCALE_CHANGED = 1;
+    private static final long BIG_UNSCALED = 2;
+    private static final int FLAG_BITS = 2;
+
+    private final UuidHashIndex<Series> series = new UuidHashIndex<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long changes;
+    private long encodedBytes;
+
+    @Override
+    public void record(UUID uuid, LocalDateTime time, BigDecimal price) {
+        long millis = time.toInstant(ZoneOffset.UTC).toEpochMilli();
+        lock.writeLock().lock();
+        try {
+            Series productSeries = series.get(uuid);
+            if (productSeries == null) {
+                productSeries = new Series();
+                series.put(uuid, productSeries);
+            }
+            encodedBytes += productSeries.append(millis, price.unscaledValue(), price.scale());
+            changes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(UUID uuid) {
+        lock.writeLock().lock();
+        try {
+            Series productSeries = series.remove(uuid);
+            if (productSeries != null) {
+                encodedBytes -= productSeries.size;
+                changes -= productSeries.count;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PriceChange> findHistory(UUID uuid, LocalDateTime from, LocalDateTime to) {
+        long fromMillis = from.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long toMillis = to.toInstant(ZoneOffset.UTC).toEpochMilli();
+        lock.readLock().lock();
+        try {
+            Series productSeries = series.get(uuid);
+            return productSeries == null ? List.of() : productSeries.decode(fromMillis, toMillis);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return количество хранимых изменений, история удалённых продуктов не учитывается
+     */
+    public long getChangeCount() {
+        lock.readLock().lock();
+        try {
+            return changes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return сколько байт занимают закодированные изменения без учёта запаса в буферах
+     */
+    public long getEncodedBytes() {
+        lock.readLock().lock();
+        try {
+            return encodedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return количество продуктов с историей
+     */
+    public int getProductCount() {
+        lock.readLock().lock();
+        try {
+            return series.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Изменения одного продукта: буфер и последнее значение каждого поля для следующей разницы
+     */
+    private static final class Series {
+
+        private byte[] data = new byte[INITIAL_SERIES_CAPACITY];
+        private int size;
+        private int count;
+        private long lastMillis;
+        private long lastUnscaled;
+        private int lastScale;
+
+        /**
+         * @return сколько байт заняла запись
+         */
+        private int append(long millis, BigInteger unscaled, int scale) {
+            int start = size;
+            boolean scaleChanged = scale != lastScale;
+            long flags = scaleChanged ? SCALE_CHANGED : 0;
+            writeVarLong(zigzag(millis - lastMillis));
+            if (unscaled.bitLength() > MAX_DELTA_UNSCALED_BITS) {
+                byte[] bytes = unscaled.toByteArray();
+                writeVarLong(flags | BIG_UNSCALED);
+                writeVarLong(bytes.length);
+                writeBytes(bytes);
+                lastUnscaled = 0;
+            } else {
+                long value = unscaled.longValue();
+                writeVarLong(zigzag(value - lastUnscaled) << FLAG_BITS | flags);
+                lastUnscaled = value;
+            }
+            if (scaleChanged) {
+                writeVarLong(zigzag(scale));
+            }
+            lastMillis = millis;
+            lastScale = scale;
+            count++;
+            return size - start;
+        }
+
+        private List<PriceChange> decode(long fromMillis, long toMillis) {
+            List<PriceChange> history = new ArrayList<>();
+            int[] position = {0};
+            long millis = 0;
+            long unscaled = 0;
+            int scale = 0;
+            while (position[0] < size) {
+                millis += unzigzag(readVarLong(position));
+                long header = readVarLong(position);
+                BigInteger big = null;
+                if ((header & BIG_UNSCALED) != 0) {
+                    int length = (int) readVarLong(position);
+                    big = new BigInteger(Arrays.copyOfRange(data, position[0], position[0] + length));
+                    position[0] += length;
+                    unscaled = 0;
+                } else {
+                    unscaled += unzigzag(header >>> FLAG_BITS);
+                }
+                if ((header & SCALE_CHANGED) != 0) {
+                    scale = (int) unzigzag(readVarLong(position));
+                }
+                if (millis >= fromMillis && millis < toMillis) {
+                    history.add(new PriceChange(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC),
+                            big == null ? BigDecimal.valueOf(unscaled, scale) : new BigDecimal(big, scale)));
+                }
+            }
+            return history;
+        }
+
+        private void writeBytes(byte[] bytes) {
+            if (data.length - size < bytes.length) {
+                data = Arrays.copyOf(data, Math.max(data.length + (data.length >> 1), size + bytes.length));
+            }
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void writeVarLong(long value) {
+            if (data.length - size < Long.BYTES + 2) {
+                data = Arrays.copyOf(data, data.length + (data.length >> 1) + Long.BYTES + 2);
+            }
+            while ((value & ~0x7FL) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        private long readVarLong(int[] position) {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = data[position[0]++];
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+            return value;
+        }
+    }
+}
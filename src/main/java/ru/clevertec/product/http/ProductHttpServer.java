@@ -0,0 +1,289 @@
+package ru.clevertec.product.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.CreatedPage;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.ProductValidator;
+import ru.clevertec.product.exception.BadRequestException;
+import ru.clevertec.product.exception.NotValidException;
+import ru.clevertec.product.exception.OverloadedException;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.service.ProductService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * HTTP API поверх {@link ProductService}:
+ * <pre>
+ * GET    /products?page=0&size=20
+ * GET    /products?cursor={X-Next-Cursor}&size=20
+ * GET    /products/{uuid}
+ * POST   /products
+ * PUT    /products/{uuid}
+ * DELETE /products/{uuid}
+ * </pre>
+ * Обработчики выполняются на виртуальных потоках, если их поддерживает JVM, иначе на пуле потоков
+ */
+public class ProductHttpServer implements AutoCloseable {
+
+    public static final String PATH = "/products";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_OFFSET = 10_000;
+    private static final String CURSOR_SEPARATOR = "~";
+    private static final CreatedCursor FIRST_CURSOR = CreatedCursor.from(LocalDateTime.MIN);
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private final ProductService productService;
+    private final ProductJson json = new ProductJson();
+    private final ProductValidator productValidator = new ProductValidator();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ProductHttpServer(ProductService productService, InetSocketAddress address) throws IOException {
+        this(productService, address, newHandlerExecutor());
+    }
+
+    public ProductHttpServer(ProductService productService, InetSocketAddress address,
+                             ExecutorService executor) throws IOException {
+        this.productService = productService;
+        this.executor = executor;
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return адрес, на котором слушает сервер (с реальным портом, если передан порт 0)
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                route(exchange);
+            } catch (ProductNotFoundException e) {
+                sendError(exchange, 404, e.getMessage());
+            } catch (NotValidException | BadRequestException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (OverloadedException e) {
+                sendError(exchange, 503, e.getMessage());
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, "Internal error");
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String id = pathId(exchange.getRequestURI());
+        if (id == null) {
+            switch (method) {
+                case "GET" -> getPage(exchange);
+                case "POST" -> create(exchange);
+                default -> sendError(exchange, 405, "Method not allowed");
+            }
+            return;
+        }
+        UUID uuid = parseUuid(id);
+        switch (method) {
+            case "GET" -> get(exchange, uuid);
+            case "PUT" -> update(exchange, uuid);
+            case "DELETE" -> delete(exchange, uuid);
+            default -> sendError(exchange, 405, "Method not allowed");
+        }
+    }
+
+    private void get(HttpExchange exchange, UUID uuid) throws IOException {
+        InfoProductDto infoProductDto = productService.get(uuid);
+        try (Writer writer = startJson(exchange, 200)) {
+            json.writeInfoProductDto(writer, infoProductDto);
+        }
+    }
+
+    /**
+     * Страница читается из индекса времени создания через {@link ProductService#getCreatedSince},
+     * а не из полной выборки. Обход продолжается параметром cursor из заголовка {@link #NEXT_CURSOR_HEADER}
+     * за время, не зависящее от номера страницы. Параметр page без cursor пропускает page * size продуктов
+     * и поэтому ограничен MAX_OFFSET продуктами
+     */
+    private void getPage(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI());
+        int size = Math.min(intParameter(query, "size", DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+        if (size <= 0) {
+            throw new BadRequestException("Size must be > 0");
+        }
+        String cursor = query.get("cursor");
+        List<InfoProductDto> products;
+        CreatedCursor next;
+        if (cursor != null) {
+            CreatedPage page = productService.getCreatedSince(parseCursor(cursor), size);
+            products = page.products();
+            next = page.next();
+        } else {
+            int page = intParameter(query, "page", 0);
+            long offset = (long) page * size;
+            if (page < 0 || offset > MAX_OFFSET) {
+                throw new BadRequestException("Page must be >= 0 and skip at most " + MAX_OFFSET
+                        + " products, continue deeper pages with cursor");
+            }
+            CreatedPage prefix = productService.getCreatedSince(FIRST_CURSOR, (int) offset + size);
+            products = prefix.products().subList((int) Math.min(offset, prefix.products().size()),
+                    prefix.products().size());
+            next = prefix.next();
+        }
+        if (products.size() == size && next != null) {
+            exchange.getResponseHeaders().set(NEXT_CURSOR_HEADER, next.created() + CURSOR_SEPARATOR + next.uuid());
+        }
+        try (Writer writer = startJson(exchange, 200)) {
+            json.writeInfoProductDtos(writer, products);
+        }
+    }
+
+    private void create(HttpExchange exchange) throws IOException {
+        ProductDto productDto = readProductDto(exchange);
+        UUID uuid = productService.create(productDto);
+        exchange.getResponseHeaders().set("Location", PATH + "/" + uuid);
+        try (Writer writer = startJson(exchange, 201)) {
+            json.writeField(writer, "uuid", uuid.toString());
+        }
+    }
+
+    /**
+     * Сервис отвечает false и на невалидное DTO, и на обновление без изменений,
+     * поэтому невалидное DTO отсекается до него, чтобы клиент получил 400
+     */
+    private void update(HttpExchange exchange, UUID uuid) throws IOException {
+        ProductDto productDto = readProductDto(exchange);
+        if (!productValidator.checkValidation(productDto)) {
+            throw new NotValidException();
+        }
+        boolean updated = productService.update(uuid, productDto);
+        try (Writer writer = startJson(exchange, 200)) {
+            json.writeField(writer, "updated", updated);
+        }
+    }
+
+    private void delete(HttpExchange exchange, UUID uuid) throws IOException {
+        productService.delete(uuid);
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private ProductDto readProductDto(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return json.readProductDto(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private Writer startJson(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        try (Writer writer = startJson(exchange, status)) {
+            json.writeField(writer, "error", message);
+        }
+    }
+
+    private static String pathId(URI uri) {
+        String path = uri.getPath();
+        if (path.equals(PATH) || path.equals(PATH + "/")) {
+            return null;
+        }
+        if (!path.startsWith(PATH + "/")) {
+            throw new BadRequestException("Unknown path: " + path);
+        }
+        String id = path.substring(PATH.length() + 1);
+        if (id.isEmpty() || id.contains("/")) {
+            throw new BadRequestException("Unknown path: " + path);
+        }
+        return id;
+    }
+
+    private static CreatedCursor parseCursor(String cursor) {
+        int separator = cursor.indexOf(CURSOR_SEPARATOR);
+        try {
+            return new CreatedCursor(LocalDateTime.parse(cursor.substring(0, separator)),
+                    UUID.fromString(cursor.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static UUID parseUuid(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid product id: " + id);
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        String query = uri.getQuery();
+        if (query == null || query.isEmpty()) {
+            return Map.of();
+        }
+        return Arrays.stream(query.split("&"))
+                .map(parameter -> parameter.split("=", 2))
+                .collect(Collectors.toMap(pair -> pair[0], pair -> pair.length > 1 ? pair[1] : "",
+                        (first, second) -> second));
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Parameter " + name + " must be an integer");
+        }
+    }
+
+    /**
+     * Виртуальные потоки появились в Java 21, проект собирается под Java 17,
+     * поэтому фабрика ищется через reflection
+     */
+    private static ExecutorService newHandlerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
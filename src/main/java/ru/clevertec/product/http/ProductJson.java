@@ -0,0 +1,257 @@
+package ru.clevertec.product.http;
+
+import lombok.NoArgsConstructor;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.BadRequestException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Минимальный JSON для HTTP API: пишет DTO напрямую в {@link Writer}
+ * и читает плоский объект {@link ProductDto}
+ */
+@NoArgsConstructor
+public class ProductJson {
+
+    public void writeInfoProductDto(Writer writer, InfoProductDto infoProductDto) throws IOException {
+        writeInfoProduct(writer, infoProductDto.uuid().toString(), infoProductDto.name(),
+                infoProductDto.description(), infoProductDto.price());
+    }
+
+    /**
+     * Пишет продукты как JSON-массив
+     */
+    public void writeInfoProductDtos(Writer writer, List<InfoProductDto> infoProductDtos) throws IOException {
+        writer.write('[');
+        for (int i = 0; i < infoProductDtos.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeInfoProductDto(writer, infoProductDtos.get(i));
+        }
+        writer.write(']');
+    }
+
+    public void writeField(Writer writer, String name, String value) throws IOException {
+        writer.write('{');
+        writeString(writer, name);
+        writer.write(':');
+        writeString(writer, value);
+        writer.write('}');
+    }
+
+    public void writeField(Writer writer, String name, boolean value) throws IOException {
+        writer.write('{');
+        writeString(writer, name);
+        writer.write(':');
+        writer.write(Boolean.toString(value));
+        writer.write('}');
+    }
+
+    /**
+     * Читает DTO из JSON-объекта, неизвестные поля пропускаются
+     *
+     * @param json тело запроса
+     * @return DTO с прочитанными полями, отсутствующие поля null
+     * @throws BadRequestException если тело не является плоским JSON-объектом
+     */
+    public ProductDto readProductDto(String json) {
+        Parser parser = new Parser(json);
+        String name = null;
+        String description = null;
+        BigDecimal price = null;
+        parser.expect('{');
+        if (!parser.consume('}')) {
+            do {
+                String field = parser.readString();
+                parser.expect(':');
+                switch (field) {
+                    case "name" -> name = parser.readNullableString();
+                    case "description" -> description = parser.readNullableString();
+                    case "price" -> price = parser.readNullableNumber();
+                    default -> parser.skipValue();
+                }
+            } while (parser.consume(','));
+            parser.expect('}');
+        }
+        parser.expectEnd();
+        return new ProductDto(name, description, price);
+    }
+
+    private void writeInfoProduct(Writer writer, String uuid, String name,
+                                  String description, BigDecimal price) throws IOException {
+        writer.write("{\"uuid\":\"");
+        writer.write(uuid);
+        writer.write("\",\"name\":");
+        writeString(writer, name);
+        writer.write(",\"description\":");
+        writeString(writer, description);
+        writer.write(",\"price\":");
+        writer.write(price == null ? "null" : price.toPlainString());
+        writer.write('}');
+    }
+
+    private void writeString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char symbol = value.charAt(i);
+            switch (symbol) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (symbol < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) symbol));
+                    } else {
+                        writer.write(symbol);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static final class Parser {
+
+        private final String json;
+        private int position;
+
+        private Parser(String json) {
+            this.json = json;
+        }
+
+        private void expect(char expected) {
+            if (!consume(expected)) {
+                throw error("'" + expected + "' expected");
+            }
+        }
+
+        private boolean consume(char expected) {
+            skipWhitespace();
+            if (position < json.length() && json.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expectEnd() {
+            skipWhitespace();
+            if (position != json.length()) {
+                throw error("end of input expected");
+            }
+        }
+
+        private String readNullableString() {
+            return consumeLiteral("null") ? null : readString();
+        }
+
+        private BigDecimal readNullableNumber() {
+            if (consumeLiteral("null")) {
+                return null;
+            }
+            skipWhitespace();
+            if (position < json.length() && json.charAt(position) == '"') {
+                return parseNumber(readString());
+            }
+            int start = position;
+            while (position < json.length() && "+-0123456789.eE".indexOf(json.charAt(position)) >= 0) {
+                position++;
+            }
+            return parseNumber(json.substring(start, position));
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder builder = new StringBuilder();
+            while (position < json.length()) {
+                char symbol = json.charAt(position++);
+                if (symbol == '"') {
+                    return builder.toString();
+                }
+                if (symbol != '\\') {
+                    builder.append(symbol);
+                    continue;
+                }
+                if (position >= json.length()) {
+                    break;
+                }
+                char escaped = json.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> builder.append(escaped);
+                    case 'b' -> builder.append('\b');
+                    case 'f' -> builder.append('\f');
+                    case 'n' -> builder.append('\n');
+                    case 'r' -> builder.append('\r');
+                    case 't' -> builder.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > json.length()) {
+                            throw error("bad unicode escape");
+                        }
+                        int code = 0;
+                        for (int end = position + 4; position < end; position++) {
+                            int digit = Character.digit(json.charAt(position), 16);
+                            if (digit < 0) {
+                                throw error("bad unicode escape");
+                            }
+                            code = code << 4 | digit;
+                        }
+                        builder.append((char) code);
+                    }
+                    default -> throw error("bad escape");
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private void skipValue() {
+            skipWhitespace();
+            if (position >= json.length()) {
+                throw error("value expected");
+            }
+            char symbol = json.charAt(position);
+            if (symbol == '"') {
+                readString();
+            } else if (!consumeLiteral("null") && !consumeLiteral("true") && !consumeLiteral("false")) {
+                readNullableNumber();
+            }
+        }
+
+        private boolean consumeLiteral(String literal) {
+            skipWhitespace();
+            if (json.startsWith(literal, position)) {
+                position += literal.length();
+                return true;
+            }
+            return false;
+        }
+
+        private BigDecimal parseNumber(String number) {
+            try {
+                return new BigDecimal(number);
+            } catch (NumberFormatException e) {
+                throw error("number expected");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+
+        private BadRequestException error(String message) {
+            return new BadRequestException("Malformed JSON at " + position + ": " + message);
+        }
+    }
+}
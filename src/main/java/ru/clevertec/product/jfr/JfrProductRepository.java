@@ -0,0 +1,118 @@
+package ru.clevertec.product.jfr;
+
+import lombok.RequiredArgsConstructor;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductIndex;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Пишет {@link ProductRepositoryEvent} на каждый вызов репозитория.
+ * Пока событие не включено в записи JFR, вызов передаётся напрямую
+ */
+@RequiredArgsConstructor
+public class JfrProductRepository implements ProductRepository {
+
+    private static final String OK = "OK";
+
+    private final ProductRepository productRepository;
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        return record("findById", uuid, () -> productRepository.findById(uuid),
+                product -> product.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return record("findAll", null, productRepository::findAll, List::size);
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return record("streamAll", null, productRepository::streamAll, stream -> 0);
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return record("findCreatedBetween", null,
+                () -> productRepository.findCreatedBetween(from, to, limit), List::size);
+    }
+
+    @Override
+    public List<Product> findCreatedSince(CreatedCursor cursor, int limit) {
+        return record("findCreatedSince", cursor.uuid(),
+                () -> productRepository.findCreatedSince(cursor, limit), List::size);
+    }
+
+    @Override
+    public List<Product> findTopByPrice(int k, SortDirection direction) {
+        return record("findTopByPrice", null, () -> productRepository.findTopByPrice(k, direction), List::size);
+    }
+
+    @Override
+    public List<Product> findTopByCreated(int k) {
+        return record("findTopByCreated", null, () -> productRepository.findTopByCreated(k), List::size);
+    }
+
+    @Override
+    public Set<ProductIndex> getIndexes() {
+        return productRepository.getIndexes();
+    }
+
+    @Override
+    public Product save(Product product) {
+        return record("save", product.getUuid(), () -> productRepository.save(product), saved -> 1);
+    }
+
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+        return record("saveAll", null, () -> productRepository.saveAll(products), List::size);
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        record("delete", uuid, () -> {
+            productRepository.delete(uuid);
+            return null;
+        }, nothing -> 0);
+    }
+
+    private <T> T record(String operation, UUID uuid, Supplier<T> action, ToIntFunction<T> resultSize) {
+        ProductRepositoryEvent event = new ProductRepositoryEvent();
+        if (!event.isEnabled()) {
+            return action.get();
+        }
+        event.begin();
+        String outcome = OK;
+        T result = null;
+        try {
+            result = action.get();
+            return result;
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.repository = productRepository.getClass().getSimpleName();
+                event.uuid = uuid == null ? null : uuid.toString();
+                event.resultSize = OK.equals(outcome) ? resultSize.applyAsInt(result) : 0;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ru.clevertec.product.jfr;
+
+import lombok.RequiredArgsConstructor;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.CreatedPage;
+import ru.clevertec.product.data.InfoProductColumns;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.PriceChange;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.exception.NotValidException;
+import ru.clevertec.product.service.ProductService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Пишет {@link ProductServiceEvent} на каждый вызов сервиса.
+ * Пока событие не включено в записи JFR, вызов передаётся напрямую
+ */
+@RequiredArgsConstructor
+public class JfrProductService implements ProductService {
+
+    private static final String OK = "OK";
+
+    private final ProductService productService;
+
+    @Override
+    public InfoProductDto get(UUID uuid) {
+        return record("get", uuid, () -> productService.get(uuid), infoProductDto -> 1);
+    }
+
+    @Override
+    public List<InfoProductDto> getAll() {
+        return record("getAll", null, productService::getAll, List::size);
+    }
+
+    @Override
+    public InfoProductColumns getAllColumns() {
+        return record("getAllColumns", null, productService::getAllColumns, InfoProductColumns::size);
+    }
+
+    @Override
+    public List<InfoProductDto> getCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return record("getCreatedBetween", null,
+                () -> productService.getCreatedBetween(from, to, limit), List::size);
+    }
+
+    @Override
+    public CreatedPage getCreatedSince(CreatedCursor cursor, int limit) {
+        return record("getCreatedSince", cursor == null ? null : cursor.uuid(),
+                () -> productService.getCreatedSince(cursor, limit), page -> page.products().size());
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByPrice(int k, SortDirection direction) {
+        return record("getTopByPrice", null, () -> productService.getTopByPrice(k, direction), List::size);
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByCreated(int k) {
+        return record("getTopByCreated", null, () -> productService.getTopByCreated(k), List::size);
+    }
+
+    @Override
+    public List<InfoProductDto> query(ProductQuery query) {
+        return record("query", null, () -> productService.query(query), List::size);
+    }
+
+    @Override
+    public String explain(ProductQuery query) {
+        return productService.explain(query);
+    }
+
+    @Override
+    public List<PriceChange> getPriceHistory(UUID uuid, LocalDateTime from, LocalDateTime to) {
+        return record("getPriceHistory", uuid, () -> productService.getPriceHistory(uuid, from, to), List::size);
+    }
+
+    @Override
+    public UUID create(ProductDto productDto) {
+        return record("create", null, () -> productService.create(productDto), uuid -> 1);
+    }
+
+    @Override
+    public boolean update(UUID uuid, ProductDto productDto) {
+        return record("update", uuid, () -> productService.update(uuid, productDto),
+                updated -> updated ? 1 : 0);
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        record("delete", uuid, () -> {
+            productService.delete(uuid);
+            return null;
+        }, nothing -> 0);
+    }
+
+    private <T> T record(String operation, UUID uuid, Supplier<T> action, ToIntFunction<T> resultSize) {
+        ProductServiceEvent event = new ProductServiceEvent();
+        if (!event.isEnabled()) {
+            return action.get();
+        }
+        event.begin();
+        String outcome = OK;
+        boolean valid = true;
+        T result = null;
+        try {
+            result = action.get();
+            return result;
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            valid = !(e instanceof NotValidException);
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.uuid = uuid == null ? null : uuid.toString();
+                event.resultSize = OK.equals(outcome) ? resultSize.applyAsInt(result) : 0;
+                event.valid = valid;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+}
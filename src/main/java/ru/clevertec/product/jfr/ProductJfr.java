@@ -0,0 +1,52 @@
+package ru.clevertec.product.jfr;
+
+import jdk.jfr.Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Профиль настроек JFR, включающий события продуктов. Сам по себе профиль включает только их,
+ * поэтому, чтобы сопоставить задержки сервиса со сборкой мусора, safepoint и блокировками,
+ * его накладывают на стандартный профиль: -XX:StartFlightRecording:settings=default,settings=product.jfc
+ * или {@code new Recording(ProductJfr.settings())}
+ */
+public final class ProductJfr {
+
+    public static final String SETTINGS = "product.jfc";
+
+    private ProductJfr() {
+    }
+
+    /**
+     * @return конфигурация из профиля {@value #SETTINGS}
+     * @throws IOException    если профиль не найден или не читается
+     * @throws ParseException если профиль повреждён
+     */
+    public static Configuration configuration() throws IOException, ParseException {
+        InputStream settings = ProductJfr.class.getResourceAsStream(SETTINGS);
+        if (settings == null) {
+            throw new IOException("JFR settings not found: " + SETTINGS);
+        }
+        try (Reader reader = new InputStreamReader(settings, StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+
+    /**
+     * @return настройки стандартного профиля JFR с наложенными на них настройками {@value #SETTINGS}
+     * @throws IOException    если профиль не найден или не читается
+     * @throws ParseException если профиль повреждён
+     */
+    public static Map<String, String> settings() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        settings.putAll(configuration().getSettings());
+        return settings;
+    }
+}
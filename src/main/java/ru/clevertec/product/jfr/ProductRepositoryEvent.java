@@ -0,0 +1,35 @@
+package ru.clevertec.product.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(ProductRepositoryEvent.NAME)
+@Label("Product Repository Operation")
+@Description("Вызов операции ProductRepository")
+@Category({"Clevertec", "Product"})
+@Enabled(false)
+@StackTrace(false)
+public class ProductRepositoryEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "ru.clevertec.product.RepositoryOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Repository")
+    String repository;
+
+    @Label("UUID")
+    String uuid;
+
+    @Label("Result Size")
+    int resultSize;
+
+    @Label("Outcome")
+    @Description("OK или простое имя выброшенного исключения")
+    String outcome;
+}
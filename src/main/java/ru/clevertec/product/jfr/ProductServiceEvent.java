@@ -0,0 +1,37 @@
+package ru.clevertec.product.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(ProductServiceEvent.NAME)
+@Label("Product Service Operation")
+@Description("Вызов операции ProductService")
+@Category({"Clevertec", "Product"})
+@Enabled(false)
+@StackTrace(false)
+public class ProductServiceEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "ru.clevertec.product.ServiceOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("UUID")
+    String uuid;
+
+    @Label("Result Size")
+    int resultSize;
+
+    @Label("Valid")
+    @Description("false если сервис отклонил DTO исключением NotValidException; update отвечает на невалидное DTO "
+            + "результатом 0 без исключения")
+    boolean valid;
+
+    @Label("Outcome")
+    @Description("OK или простое имя выброшенного исключения")
+    String outcome;
+}
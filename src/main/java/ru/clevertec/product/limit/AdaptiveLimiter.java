@@ -0,0 +1,103 @@
+package ru.clevertec.product.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Лимит одновременных вызовов с AIMD-подстройкой:
+ * пока задержка ниже целевой, лимит растёт на 1 за каждое "окно" из limit вызовов,
+ * при превышении задержки лимит умножается на коэффициент отката - но не чаще раза за окно:
+ * вызовы, которые выполнялись в момент отката, уже учтены им и повторно лимит не уменьшают.
+ * Вызов сверх лимита не ждёт, а сразу отклоняется
+ */
+public class AdaptiveLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private long completions;
+
+    /**
+     * номер завершения, начиная с которого медленный вызов снова уменьшает лимит
+     */
+    private long nextBackoffAt;
+
+    /**
+     * @param initialLimit  начальный лимит
+     * @param minLimit      минимальный лимит
+     * @param maxLimit      максимальный лимит
+     * @param latencyTarget целевая задержка вызова
+     * @param unit          единица измерения целевой задержки
+     */
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, long latencyTarget, TimeUnit unit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = unit.toNanos(latencyTarget);
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Лимит, который не подстраивается
+     */
+    public static AdaptiveLimiter fixed(int limit) {
+        return new AdaptiveLimiter(limit, limit, limit, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Занимает место под вызов, не блокируясь
+     *
+     * @return false если лимит исчерпан
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Освобождает место и подстраивает лимит по задержке завершённого вызова
+     *
+     * @param latencyNanos задержка вызова в наносекундах
+     */
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            completions++;
+            if (latencyNanos > latencyTargetNanos) {
+                if (completions >= nextBackoffAt) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    nextBackoffAt = completions + current;
+                }
+            } else if (current * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
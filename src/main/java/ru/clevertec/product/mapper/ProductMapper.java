@@ -3,10 +3,13 @@ package ru.clevertec.product.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import ru.clevertec.product.data.InfoProductColumns;
 import ru.clevertec.product.data.InfoProductDto;
 import ru.clevertec.product.data.ProductDto;
 import ru.clevertec.product.entity.Product;
 
+import java.util.List;
+
 @Mapper
 public interface ProductMapper {
 
@@ -28,6 +31,19 @@ public interface ProductMapper {
      */
     InfoProductDto toInfoProductDto(Product product);
 
+    /**
+     * Маппит список продуктов в колоночное представление без создания DTO на каждый продукт
+     *
+     * @param products существующие продукты
+     * @return колонки с информацией о продуктах в том же порядке
+     */
+    default InfoProductColumns toInfoProductColumns(List<Product> products) {
+        InfoProductColumns columns = new InfoProductColumns(products.size());
+        products.forEach(product -> columns.add(product.getUuid(), product.getName(),
+                product.getDescription(), product.getPrice()));
+        return columns;
+    }
+
     /**
      * Сливает существующий продукт с информацией из DTO
      * не меняет дату создания и идентификатор
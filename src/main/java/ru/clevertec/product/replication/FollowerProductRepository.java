@@ -0,0 +1,328 @@
+package ru.clevertec.product.replication;
+
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductIndex;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Репозиторий-ведомый: только для чтения, держит копию продуктов лидера {@link ReplicatingProductRepository}
+ * в памяти и применяет его операции пачками - всё, что пришло одним чтением из сокета, применяется
+ * под одной блокировкой записи. При подключении сообщает лидеру последнюю применённую операцию,
+ * лидер досылает недостающие операции или снимок. После обрыва соединения переподключается
+ */
+public class FollowerProductRepository implements ProductRepository, Closeable {
+
+    public static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofMillis(200);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final InetSocketAddress leader;
+    private final long reconnectDelayMillis;
+    private final ReplicationCodec codec = new ReplicationCodec();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Thread replicator;
+    private InMemoryProductRepository products = new InMemoryProductRepository();
+    private InMemoryProductRepository snapshot;
+    private volatile SocketChannel channel;
+    private volatile boolean running = true;
+    private volatile UUID leaderId;
+
+    /**
+     * лидер из последнего HELLO, становится leaderId только после первого применённого кадра:
+     * пока снимок нового лидера не загружен, данные и appliedSequence остаются от прежнего
+     */
+    private UUID connectedLeaderId;
+    private volatile long appliedSequence;
+    private volatile long leaderSequence;
+    private volatile long lastAppliedTimestampMillis;
+    private volatile long snapshotsLoaded;
+    private volatile long appliedBatches;
+
+    public FollowerProductRepository(InetSocketAddress leader) {
+        this(leader, DEFAULT_RECONNECT_DELAY);
+    }
+
+    /**
+     * @param leader         адрес лидера
+     * @param reconnectDelay пауза перед повторным подключением
+     */
+    public FollowerProductRepository(InetSocketAddress leader, Duration reconnectDelay) {
+        this.leader = leader;
+        this.reconnectDelayMillis = reconnectDelay.toMillis();
+        this.replicator = new Thread(this::replicate, "product-replication-follower");
+        replicator.setDaemon(true);
+        replicator.start();
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        return read(() -> products.findById(uuid));
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return read(products::findAll);
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return read(() -> products.findCreatedBetween(from, to, limit));
+    }
+
+    @Override
+    public List<Product> findCreatedSince(CreatedCursor cursor, int limit) {
+        return read(() -> products.findCreatedSince(cursor, limit));
+    }
+
+    @Override
+    public List<Product> findTopByPrice(int k, SortDirection direction) {
+        return read(() -> products.findTopByPrice(k, direction));
+    }
+
+    @Override
+    public List<Product> findTopByCreated(int k) {
+        return read(() -> products.findTopByCreated(k));
+    }
+
+    @Override
+    public Set<ProductIndex> getIndexes() {
+        return Set.of(ProductIndex.CREATED);
+    }
+
+    /**
+     * @throws UnsupportedOperationException ведомый только читает, писать нужно в лидера
+     */
+    @Override
+    public Product save(Product product) {
+        throw new UnsupportedOperationException("Follower is read-only, write to the leader");
+    }
+
+    /**
+     * @throws UnsupportedOperationException ведомый только читает, писать нужно в лидера
+     */
+    @Override
+    public void delete(UUID uuid) {
+        throw new UnsupportedOperationException("Follower is read-only, write to the leader");
+    }
+
+    /**
+     * @return идентификатор лидера, чьи операции применены, null до первого подключения
+     */
+    public UUID getLeaderId() {
+        return leaderId;
+    }
+
+    /**
+     * @return номер последней применённой операции лидера
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return номер последней операции, о которой сообщил лидер
+     */
+    public long getLeaderSequence() {
+        return leaderSequence;
+    }
+
+    /**
+     * @return на сколько операций ведомый отстаёт от лидера по последним полученным данным
+     */
+    public long getLagOperations() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+
+    /**
+     * @return сколько миллисекунд назад лидер записал последнюю применённую операцию, 0 если ведомый догнал лидера
+     */
+    public long getLagMillis() {
+        if (getLagOperations() == 0) {
+            return 0;
+        }
+        return Math.max(0, System.currentTimeMillis() - lastAppliedTimestampMillis);
+    }
+
+    public long getSnapshotsLoaded() {
+        return snapshotsLoaded;
+    }
+
+    public long getAppliedBatches() {
+        return appliedBatches;
+    }
+
+    public boolean isConnected() {
+        SocketChannel current = channel;
+        return current != null && current.isConnected();
+    }
+
+    /**
+     * Ждёт, пока ведомый применит операцию лидера, например чтобы прочитать свою запись
+     *
+     * @param sequence номер операции лидера
+     * @param timeout  максимальное время ожидания
+     * @return true если операция применена
+     */
+    public boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (appliedSequence < sequence) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        replicator.interrupt();
+        SocketChannel current = channel;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void replicate() {
+        while (running) {
+            try (SocketChannel connected = SocketChannel.open(leader)) {
+                channel = connected;
+                send(ReplicationFrame.Type.HELLO);
+                ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+                while (running && connected.read(buffer) >= 0) {
+                    buffer = applyAvailable(buffer);
+                }
+            } catch (IOException | RuntimeException e) {
+                // лидер недоступен, соединение оборвалось или поток повреждён - переподключаемся,
+                // а после переподключения лидер пришлёт снимок или продолжит с последней применённой операции
+            }
+            snapshot = null;
+            connectedLeaderId = null;
+            if (running) {
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Применяет все пришедшие целиком кадры одной пачкой и подтверждает их лидеру
+     *
+     * @return буфер для следующего чтения, увеличенный, если в него не помещается очередной кадр
+     */
+    private ByteBuffer applyAvailable(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        List<ReplicationFrame> frames = new ArrayList<>();
+        ReplicationFrame frame;
+        while ((frame = codec.decode(buffer)) != null) {
+            frames.add(frame);
+        }
+        long before = appliedSequence;
+        if (!frames.isEmpty()) {
+            apply(frames);
+        }
+        ByteBuffer next = buffer;
+        if (buffer.remaining() >= ReplicationCodec.LENGTH_HEADER) {
+            int frameSize = ReplicationCodec.LENGTH_HEADER + buffer.getInt(buffer.position());
+            if (frameSize > buffer.capacity()) {
+                next = ByteBuffer.allocate(Math.max(frameSize, buffer.capacity() * 2));
+                next.put(buffer);
+                return acknowledge(before, next);
+            }
+        }
+        next.compact();
+        return acknowledge(before, next);
+    }
+
+    private ByteBuffer acknowledge(long before, ByteBuffer next) throws IOException {
+        if (appliedSequence != before) {
+            send(ReplicationFrame.Type.ACK);
+        }
+        return next;
+    }
+
+    private void apply(List<ReplicationFrame> frames) {
+        lock.writeLock().lock();
+        try {
+            for (ReplicationFrame frame : frames) {
+                switch (frame.type()) {
+                    case SAVE -> {
+                        products.save(frame.product());
+                        applied(frame);
+                    }
+                    case DELETE -> {
+                        products.delete(frame.uuid());
+                        applied(frame);
+                    }
+                    case SNAPSHOT_BEGIN -> snapshot = new InMemoryProductRepository();
+                    case SNAPSHOT_PRODUCT -> snapshot.save(frame.product());
+                    case SNAPSHOT_END -> {
+                        products = snapshot;
+                        snapshot = null;
+                        snapshotsLoaded++;
+                        applied(frame);
+                    }
+                    case HELLO -> {
+                        connectedLeaderId = frame.uuid();
+                        leaderSequence = frame.sequence();
+                    }
+                    case HEARTBEAT -> leaderSequence = Math.max(leaderSequence, frame.sequence());
+                    case ACK -> {
+                    }
+                }
+            }
+            appliedBatches++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applied(ReplicationFrame frame) {
+        appliedSequence = frame.sequence();
+        if (connectedLeaderId != null) {
+            leaderId = connectedLeaderId;
+        }
+        lastAppliedTimestampMillis = frame.timestampMillis();
+        leaderSequence = Math.max(leaderSequence, frame.sequence());
+    }
+
+    private void send(ReplicationFrame.Type type) throws IOException {
+        ByteBuffer frame = codec.encode(new ReplicationFrame(type, appliedSequence, System.currentTimeMillis(), null,
+                type == ReplicationFrame.Type.HELLO ? leaderId : null));
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package ru.clevertec.product.replication;
+
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductIndex;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Репозиторий-лидер: применяет save и delete к обёрнутому репозиторию, нумерует их
+ * и рассылает по TCP ведомым {@link FollowerProductRepository} в порядке номеров.
+ * Последние maxLogEntries операций хранятся в журнале, ведомый, отставший сильнее, получает снимок всех продуктов.
+ * Снимок получает и ведомый, который ещё не синхронизировался с этим лидером, если журнал не описывает
+ * всё содержимое репозитория: репозиторий был не пуст при создании лидера или ведомый пришёл от другого лидера.
+ * Каждому ведомому отдаётся отдельный поток отправки и поток чтения подтверждений
+ */
+public class ReplicatingProductRepository implements ProductRepository, Closeable {
+
+    public static final int DEFAULT_MAX_LOG_ENTRIES = 100_000;
+    public static final Duration DEFAULT_HEARTBEAT_INTERVAL = Duration.ofSeconds(1);
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    private final ProductRepository productRepository;
+    private final int maxLogEntries;
+    private final long heartbeatNanos;
+    private final ReplicationCodec codec = new ReplicationCodec();
+    private final UUID id = UUID.randomUUID();
+    private final ServerSocketChannel server;
+    private final Thread acceptor;
+    private final List<Replica> replicas = new CopyOnWriteArrayList<>();
+
+    /**
+     * журнал с первой операции описывает всё содержимое репозитория, только если тот был пуст при создании лидера
+     */
+    private final boolean startedEmpty;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final List<ByteBuffer> log = new ArrayList<>();
+    private long logStartSequence = 1;
+    private long sequence;
+    private volatile boolean running = true;
+
+    public ReplicatingProductRepository(ProductRepository productRepository, InetSocketAddress address) {
+        this(productRepository, address, DEFAULT_MAX_LOG_ENTRIES, DEFAULT_HEARTBEAT_INTERVAL);
+    }
+
+    /**
+     * @param productRepository репозиторий лидера
+     * @param address           адрес для подключения ведомых, порт 0 - любой свободный
+     * @param maxLogEntries     сколько последних операций хранить для догоняющих ведомых
+     * @param heartbeatInterval как часто напоминать ведомым о себе при отсутствии записей
+     */
+    public ReplicatingProductRepository(ProductRepository productRepository, InetSocketAddress address,
+                                        int maxLogEntries, Duration heartbeatInterval) {
+        if (maxLogEntries < 1) {
+            throw new IllegalArgumentException("Log must keep at least one entry: " + maxLogEntries);
+        }
+        this.productRepository = productRepository;
+        this.maxLogEntries = maxLogEntries;
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        try (Stream<Product> products = productRepository.streamAll()) {
+            this.startedEmpty = products.findAny().isEmpty();
+        }
+        try {
+            this.server = ServerSocketChannel.open()
+                    .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                    .bind(address);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.acceptor = new Thread(this::accept, "product-replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return адрес, к которому подключаются ведомые
+     */
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) server.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return идентификатор лидера, номера операций имеют смысл только вместе с ним
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @return номер последней записанной операции
+     */
+    public long getSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return состояние подключённых ведомых
+     */
+    public List<ReplicaStatus> getReplicas() {
+        long current = getSequence();
+        return replicas.stream()
+                .map(replica -> new ReplicaStatus(replica.address, replica.acknowledged,
+                        current - replica.acknowledged))
+                .toList();
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        return productRepository.findById(uuid);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return productRepository.findAll();
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return productRepository.streamAll();
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return productRepository.findCreatedBetween(from, to, limit);
+    }
+
+    @Override
+    public List<Product> findCreatedSince(CreatedCursor cursor, int limit) {
+        return productRepository.findCreatedSince(cursor, limit);
+    }
+
+    @Override
+    public List<Product> findTopByPrice(int k, SortDirection direction) {
+        return productRepository.findTopByPrice(k, direction);
+    }
+
+    @Override
+    public List<Product> findTopByCreated(int k) {
+        return productRepository.findTopByCreated(k);
+    }
+
+    @Override
+    public Set<ProductIndex> getIndexes() {
+        return productRepository.getIndexes();
+    }
+
+    @Override
+    public Product save(Product product) {
+        lock.lock();
+        try {
+            Product saved = productRepository.save(product);
+            append(new ReplicationFrame(ReplicationFrame.Type.SAVE, sequence + 1,
+                    System.currentTimeMillis(), saved, null));
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        if (uuid == null) {
+            // продукта без идентификатора нет, записывать в журнал нечего
+            return;
+        }
+        lock.lock();
+        try {
+            productRepository.delete(uuid);
+            append(new ReplicationFrame(ReplicationFrame.Type.DELETE, sequence + 1,
+                    System.currentTimeMillis(), null, uuid));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        server.close();
+        try {
+            // сокет освобождается, только когда поток выйдет из accept, иначе порт нельзя занять повторно
+            acceptor.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Replica replica : replicas) {
+            replica.channel.close();
+        }
+        lock.lock();
+        try {
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(ReplicationFrame frame) {
+        log.add(codec.encode(frame));
+        sequence++;
+        if (log.size() > maxLogEntries) {
+            int dropped = log.size() - maxLogEntries / 2;
+            log.subList(0, dropped).clear();
+            logStartSequence += dropped;
+        }
+        appended.signalAll();
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                SocketChannel channel = server.accept();
+                Replica replica = new Replica(channel);
+                replicas.add(replica);
+                replica.start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!running) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public record ReplicaStatus(
+
+            /**
+             * адрес ведомого
+             */
+            SocketAddress address,
+
+            /**
+             * последняя операция, применение которой подтвердил ведомый
+             */
+            long acknowledgedSequence,
+
+            /**
+             * на сколько операций ведомый отстаёт от лидера
+             */
+            long lagOperations) {
+    }
+
+    private final class Replica {
+
+        private final SocketChannel channel;
+        private final SocketAddress address;
+        private volatile long acknowledged;
+        private long sent;
+        private boolean snapshotRequired;
+
+        private Replica(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.address = channel.getRemoteAddress();
+        }
+
+        private void start() {
+            Thread sender = new Thread(this::send, "product-replication-sender-" + address);
+            sender.setDaemon(true);
+            sender.start();
+        }
+
+        private void send() {
+            try {
+                ReplicationFrame hello = readFrame();
+                if (hello == null || hello.type() != ReplicationFrame.Type.HELLO) {
+                    return;
+                }
+                sent = hello.sequence();
+                acknowledged = sent;
+                snapshotRequired = !id.equals(hello.uuid()) && !(hello.uuid() == null && sent == 0 && startedEmpty);
+                write(new ByteBuffer[]{codec.encode(new ReplicationFrame(ReplicationFrame.Type.HELLO, getSequence(),
+                        System.currentTimeMillis(), null, id))});
+                Thread acknowledgements = new Thread(this::readAcknowledgements,
+                        "product-replication-acks-" + address);
+                acknowledgements.setDaemon(true);
+                acknowledgements.start();
+                while (running && channel.isOpen()) {
+                    write(nextFrames());
+                }
+            } catch (IOException e) {
+                // ведомый отключился, при переподключении он продолжит со своей последней операции
+            } finally {
+                replicas.remove(this);
+                closeQuietly();
+            }
+        }
+
+        /**
+         * Ждёт новых операций не дольше интервала heartbeat
+         *
+         * @return кадры для отправки: операции из журнала, снимок если журнал уже обрезан, или heartbeat
+         */
+        private ByteBuffer[] nextFrames() {
+            lock.lock();
+            try {
+                long remaining = heartbeatNanos;
+                while (running && !snapshotRequired && sent == sequence && remaining > 0) {
+                    try {
+                        remaining = appended.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        closeQuietly();
+                        return new ByteBuffer[0];
+                    }
+                }
+                if (snapshotRequired || sent < logStartSequence - 1 || sent > sequence) {
+                    return snapshot();
+                }
+                if (sent == sequence) {
+                    return new ByteBuffer[]{codec.encode(ReplicationFrame.control(ReplicationFrame.Type.HEARTBEAT,
+                            sequence, System.currentTimeMillis()))};
+                }
+                int from = (int) (sent + 1 - logStartSequence);
+                ByteBuffer[] frames = log.subList(from, log.size()).stream()
+                        .map(ByteBuffer::duplicate)
+                        .toArray(ByteBuffer[]::new);
+                sent = sequence;
+                return frames;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Снимок снимается под блокировкой записи, поэтому совпадает с состоянием на операции sequence
+         */
+        private ByteBuffer[] snapshot() {
+            long now = System.currentTimeMillis();
+            List<ByteBuffer> frames = new ArrayList<>();
+            frames.add(codec.encode(ReplicationFrame.control(ReplicationFrame.Type.SNAPSHOT_BEGIN, sequence, now)));
+            try (Stream<Product> products = productRepository.streamAll()) {
+                products.forEach(product -> frames.add(codec.encode(new ReplicationFrame(
+                        ReplicationFrame.Type.SNAPSHOT_PRODUCT, sequence, now, product, null))));
+            }
+            frames.add(codec.encode(ReplicationFrame.control(ReplicationFrame.Type.SNAPSHOT_END, sequence, now)));
+            sent = sequence;
+            snapshotRequired = false;
+            return frames.toArray(ByteBuffer[]::new);
+        }
+
+        private void write(ByteBuffer[] frames) throws IOException {
+            long remaining = 0;
+            for (ByteBuffer frame : frames) {
+                remaining += frame.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(frames);
+            }
+        }
+
+        private void readAcknowledgements() {
+            try {
+                ReplicationFrame frame;
+                while ((frame = readFrame()) != null) {
+                    if (frame.type() == ReplicationFrame.Type.ACK) {
+                        acknowledged = frame.sequence();
+                    }
+                }
+            } catch (IOException e) {
+                // соединение закрыто, поток отправки тоже завершится
+            } finally {
+                closeQuietly();
+            }
+        }
+
+        private ReplicationFrame readFrame() throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(ReplicationCodec.LENGTH_HEADER);
+            if (!readFully(header)) {
+                return null;
+            }
+            ByteBuffer frame = ByteBuffer.allocate(ReplicationCodec.LENGTH_HEADER
+                    + ReplicationCodec.checkBodySize(header.getInt(0)));
+            frame.put(header.flip());
+            return readFully(frame) ? codec.decode(frame.flip()) : null;
+        }
+
+        private boolean readFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void closeQuietly() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // закрываем при отключении, ошибка закрытия ничего не меняет
+            }
+            lock.lock();
+            try {
+                appended.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.clevertec.product.replication;
+
+import lombok.NoArgsConstructor;
+import ru.clevertec.product.codec.ProductCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Кадры репликации: длина кадра без заголовка длины, тип, номер операции, время лидера и данные операции
+ */
+@NoArgsConstructor
+public class ReplicationCodec {
+
+    public static final int LENGTH_HEADER = Integer.BYTES;
+
+    /**
+     * кадр больше этого размера считается ошибкой протокола, соединение закрывается
+     */
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+    private static final int HEADER_SIZE = Byte.BYTES + 2 * Long.BYTES;
+    private static final ReplicationFrame.Type[] TYPES = ReplicationFrame.Type.values();
+
+    private final ProductCodec codec = new ProductCodec();
+
+    /**
+     * @return кадр целиком, включая заголовок длины, готовый к записи в канал
+     */
+    public ByteBuffer encode(ReplicationFrame frame) {
+        int bodySize = HEADER_SIZE;
+        if (frame.product() != null) {
+            bodySize += codec.sizeOf(frame.product());
+        } else if (frame.uuid() != null) {
+            bodySize += 2 * Long.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_HEADER + bodySize);
+        buffer.putInt(bodySize);
+        buffer.put((byte) frame.type().ordinal());
+        buffer.putLong(frame.sequence());
+        buffer.putLong(frame.timestampMillis());
+        if (frame.product() != null) {
+            codec.writeProduct(buffer, frame.product());
+        } else if (frame.uuid() != null) {
+            codec.writeUuid(buffer, frame.uuid());
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Читает следующий кадр, если он пришёл целиком. Данные операции разбираются только в пределах
+     * объявленной длины кадра и должны занимать её целиком
+     *
+     * @param buffer буфер в режиме чтения, позиция сдвигается только при успешном чтении
+     * @return кадр или null если кадр пришёл не полностью
+     * @throws IOException если кадр повреждён: продолжать чтение потока после него нельзя
+     */
+    public ReplicationFrame decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < LENGTH_HEADER) {
+            return null;
+        }
+        int bodySize = checkBodySize(buffer.getInt(buffer.position()));
+        if (buffer.remaining() < LENGTH_HEADER + bodySize) {
+            return null;
+        }
+        int bodyStart = buffer.position() + LENGTH_HEADER;
+        ByteBuffer body = buffer.slice(bodyStart, bodySize).order(buffer.order());
+        ReplicationFrame frame;
+        try {
+            frame = decodeBody(body);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed replication frame: " + e, e);
+        }
+        if (body.hasRemaining()) {
+            throw new IOException("Replication frame has " + body.remaining() + " unread bytes");
+        }
+        buffer.position(bodyStart + bodySize);
+        return frame;
+    }
+
+    /**
+     * @return длина кадра без заголовка длины
+     * @throws IOException если длина не может принадлежать кадру репликации
+     */
+    public static int checkBodySize(int bodySize) throws IOException {
+        if (bodySize < HEADER_SIZE || bodySize > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid replication frame size: " + bodySize);
+        }
+        return bodySize;
+    }
+
+    private ReplicationFrame decodeBody(ByteBuffer body) throws IOException {
+        byte code = body.get();
+        if (code < 0 || code >= TYPES.length) {
+            throw new IOException("Unknown replication frame type: " + code);
+        }
+        ReplicationFrame.Type type = TYPES[code];
+        long sequence = body.getLong();
+        long timestampMillis = body.getLong();
+        return switch (type) {
+            case SAVE, SNAPSHOT_PRODUCT -> new ReplicationFrame(type, sequence, timestampMillis,
+                    codec.readProduct(body), null);
+            case DELETE -> new ReplicationFrame(type, sequence, timestampMillis, null, codec.readUuid(body));
+            case HELLO -> new ReplicationFrame(type, sequence, timestampMillis, null,
+                    body.hasRemaining() ? codec.readUuid(body) : null);
+            case ACK, SNAPSHOT_BEGIN, SNAPSHOT_END, HEARTBEAT ->
+                    ReplicationFrame.control(type, sequence, timestampMillis);
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package ru.clevertec.product.replication;
+
+import ru.clevertec.product.entity.Product;
+
+import java.util.UUID;
+
+public record ReplicationFrame(
+
+        /**
+         * тип кадра
+         */
+        Type type,
+
+        /**
+         * номер операции лидера: для SAVE и DELETE - номер самой операции,
+         * для HELLO и ACK - последняя применённая ведомым операция, для остальных - последняя операция лидера
+         */
+        long sequence,
+
+        /**
+         * время лидера в миллисекундах от эпохи, когда операция была записана или кадр отправлен
+         */
+        long timestampMillis,
+
+        /**
+         * продукт для SAVE и SNAPSHOT_PRODUCT, иначе null
+         */
+        Product product,
+
+        /**
+         * идентификатор продукта для DELETE, идентификатор лидера для HELLO, иначе null
+         */
+        UUID uuid) {
+
+    public enum Type {
+
+        /**
+         * ведомый сообщает, с какой операции и какого лидера продолжить, лидер отвечает своим идентификатором
+         */
+        HELLO,
+
+        /**
+         * ведомый подтверждает применённые операции
+         */
+        ACK,
+        SAVE,
+        DELETE,
+
+        /**
+         * начало снимка, sequence - операция, на которой снят снимок
+         */
+        SNAPSHOT_BEGIN,
+        SNAPSHOT_PRODUCT,
+        SNAPSHOT_END,
+
+        /**
+         * лидер жив, новых операций нет
+         */
+        HEARTBEAT
+    }
+
+    public static ReplicationFrame control(Type type, long sequence, long timestampMillis) {
+        return new ReplicationFrame(type, sequence, timestampMillis, null, null);
+    }
+}
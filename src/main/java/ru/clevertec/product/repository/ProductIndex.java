@@ -0,0 +1,12 @@
+package ru.clevertec.product.repository;
+
+/**
+ * Индексы, которыми репозиторий отвечает на запросы без просмотра всех продуктов
+ */
+public enum ProductIndex {
+
+    /**
+     * упорядоченный индекс по времени создания, используется в findCreatedSince и findCreatedBetween
+     */
+    CREATED
+}
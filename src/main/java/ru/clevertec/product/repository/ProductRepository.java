@@ -1,13 +1,32 @@
 package ru.clevertec.product.repository;
 
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
 import ru.clevertec.product.entity.Product;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ProductRepository {
 
+    /**
+     * Порядок продуктов по времени создания, при равном времени - по идентификатору
+     */
+    Comparator<Product> CREATED_ORDER = Comparator.comparing(CreatedCursor::of);
+
+    /**
+     * Порядок продуктов по стоимости, при равной стоимости - по идентификатору
+     */
+    Comparator<Product> PRICE_ORDER = Comparator.comparing(Product::getPrice)
+            .thenComparing(Product::getUuid);
+
     /**
      * ищет в памяти продукт по идентификатору
      *
@@ -23,6 +42,114 @@ public interface ProductRepository {
      */
     List<Product> findAll();
 
+    /**
+     * Обходит все продукты, не собирая их в список.
+     * Поток может читать данные лениво, его нужно закрыть после использования
+     *
+     * @return поток продуктов
+     */
+    default Stream<Product> streamAll() {
+        return findAll().stream();
+    }
+
+    /**
+     * ищет продукты, созданные в полуинтервале [from, to), в порядке создания.
+     * Реализация по умолчанию просматривает все продукты
+     *
+     * @param from  начало интервала включительно
+     * @param to    конец интервала не включительно
+     * @param limit максимальное количество продуктов
+     * @return найденные продукты, продукты без времени создания не попадают в выборку
+     */
+    default List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        try (Stream<Product> products = streamAll()) {
+            return products
+                    .filter(product -> product.getCreated() != null
+                            && !product.getCreated().isBefore(from) && product.getCreated().isBefore(to))
+                    .sorted(CREATED_ORDER)
+                    .limit(limit)
+                    .toList();
+        }
+    }
+
+    /**
+     * ищет продукты, созданные после позиции курсора, в порядке создания.
+     * Реализация по умолчанию просматривает все продукты
+     *
+     * @param cursor позиция, с которой продолжается обход (не включительно)
+     * @param limit  максимальное количество продуктов
+     * @return найденные продукты, продукты без времени создания не попадают в выборку
+     */
+    default List<Product> findCreatedSince(CreatedCursor cursor, int limit) {
+        try (Stream<Product> products = streamAll()) {
+            return products
+                    .filter(product -> product.getCreated() != null && CreatedCursor.of(product).compareTo(cursor) > 0)
+                    .sorted(CREATED_ORDER)
+                    .limit(limit)
+                    .toList();
+        }
+    }
+
+    /**
+     * ищет k продуктов с наименьшей или наибольшей стоимостью без полной сортировки.
+     * Реализация по умолчанию просматривает все продукты и держит кучу из k элементов
+     *
+     * @param k         максимальное количество продуктов
+     * @param direction ASC - сначала самые дешёвые, DESC - сначала самые дорогие
+     * @return найденные продукты, продукты без стоимости не попадают в выборку
+     */
+    default List<Product> findTopByPrice(int k, SortDirection direction) {
+        try (Stream<Product> products = streamAll()) {
+            return TopK.select(products
+                    .filter(product -> product.getPrice() != null)
+                    .iterator(), k, direction.apply(PRICE_ORDER));
+        }
+    }
+
+    /**
+     * ищет k последних созданных продуктов, начиная с самого нового.
+     * Реализация по умолчанию просматривает все продукты и держит кучу из k элементов
+     *
+     * @param k максимальное количество продуктов
+     * @return найденные продукты, продукты без времени создания не попадают в выборку
+     */
+    default List<Product> findTopByCreated(int k) {
+        try (Stream<Product> products = streamAll()) {
+            return TopK.select(products
+                    .filter(product -> product.getCreated() != null)
+                    .iterator(), k, CREATED_ORDER.reversed());
+        }
+    }
+
+    /**
+     * Индексы, которые учитывает {@link QueryPlanner}.
+     * Реализация по умолчанию индексов не имеет
+     *
+     * @return индексы репозитория
+     */
+    default Set<ProductIndex> getIndexes() {
+        return Set.of();
+    }
+
+    /**
+     * ищет продукты по запросу по плану {@link #plan(ProductQuery)}.
+     * Поток может читать данные лениво, его нужно закрыть после использования
+     *
+     * @param query условия, сортировка и ограничение
+     * @return поток найденных продуктов
+     */
+    default Stream<Product> query(ProductQuery query) {
+        return plan(query).execute(this);
+    }
+
+    /**
+     * @param query условия, сортировка и ограничение
+     * @return план, по которому будет выполнен запрос
+     */
+    default QueryPlan plan(ProductQuery query) {
+        return QueryPlanner.plan(query, getIndexes());
+    }
+
     /**
      * Сохраняет или обновляет продукт в памяти
      *
@@ -32,6 +159,19 @@ public interface ProductRepository {
      */
     Product save(Product product);
 
+    /**
+     * Сохраняет или обновляет несколько продуктов.
+     * Реализация по умолчанию сохраняет продукты по одному
+     *
+     * @param products сохраняемые продукты
+     * @return сохранённые продукты в том же порядке
+     */
+    default List<Product> saveAll(Collection<Product> products) {
+        return products.stream()
+                .map(this::save)
+                .toList();
+    }
+
     /**
      * Удаляет продукт из памяти по идентификатору
      *
@@ -0,0 +1,60 @@
+package ru.clevertec.product.repository;
+
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.exception.TransactionConflictException;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Транзакция над продуктами {@link TransactionalProductRepository}.
+ * Используется одним потоком, после commit или rollback любые операции запрещены
+ */
+public interface ProductTransaction extends AutoCloseable {
+
+    /**
+     * ищет продукт с учётом изменений этой транзакции
+     *
+     * @param uuid идентификатор продукта
+     * @return Optional<Product> если найден, иначе Optional.empty()
+     * @throws IllegalStateException если транзакция завершена
+     */
+    Optional<Product> findById(UUID uuid);
+
+    /**
+     * Запоминает сохранение продукта до фиксации
+     *
+     * @param product сохраняемый продукт, без идентификатора получает новый
+     * @return продукт с идентификатором
+     * @throws IllegalStateException если транзакция завершена
+     */
+    Product save(Product product);
+
+    /**
+     * Запоминает удаление продукта до фиксации
+     *
+     * @param uuid идентификатор продукта
+     * @throws IllegalStateException если транзакция завершена
+     */
+    void delete(UUID uuid);
+
+    /**
+     * Фиксирует все изменения транзакции
+     *
+     * @throws TransactionConflictException если прочитанный или изменяемый продукт изменила
+     *                                      другая транзакция, изменения при этом отменяются
+     * @throws IllegalStateException        если транзакция завершена
+     */
+    void commit();
+
+    /**
+     * Отменяет все изменения транзакции
+     */
+    void rollback();
+
+    /**
+     * Отменяет незафиксированные изменения
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,219 @@
+package ru.clevertec.product.repository;
+
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.entity.Product;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * План выполнения {@link ProductQuery}, выбранный {@link QueryPlanner}: способ доступа к продуктам,
+ * оставшиеся условия, способ упорядочивания и размер страницы при обходе индекса
+ */
+public record QueryPlan(
+
+        /**
+         * исходный запрос
+         */
+        ProductQuery query,
+
+        /**
+         * откуда берутся продукты
+         */
+        Access access,
+
+        /**
+         * условия, которые проверяются после чтения, в виде для explain, пустой список - фильтра нет
+         */
+        List<String> filters,
+
+        /**
+         * как результат приводится к порядку запроса
+         */
+        Ordering ordering,
+
+        /**
+         * сколько продуктов читается из индекса за одно обращение, 0 если индекс не используется
+         */
+        int pageSize) {
+
+    /**
+     * Выполняет план. Поток может читать данные лениво, его нужно закрыть после использования
+     *
+     * @param repository репозиторий, для индексов которого построен план
+     * @return поток продуктов в порядке запроса, не длиннее limit
+     */
+    public Stream<Product> execute(ProductRepository repository) {
+        Stream<Product> products = switch (access) {
+            case FULL_SCAN -> repository.streamAll();
+            case CREATED_INDEX -> scanCreated(repository);
+            case TOP_BY_PRICE -> repository.findTopByPrice(query.limit(), query.direction()).stream();
+            case TOP_BY_CREATED -> repository.findTopByCreated(query.limit()).stream();
+        };
+        if (!filters.isEmpty()) {
+            products = products.filter(query.toPredicate());
+        }
+        return switch (ordering) {
+            case SOURCE -> products.limit(query.limit());
+            case SORT -> products.sorted(comparator()).limit(query.limit());
+            case TOP_K -> {
+                try (Stream<Product> source = products) {
+                    yield TopK.select(source.iterator(), query.limit(), comparator()).stream();
+                }
+            }
+        };
+    }
+
+    /**
+     * Описывает план деревом шагов, от последнего шага к чтению, как EXPLAIN в базах данных
+     *
+     * @return текст плана, шаги разделены переводом строки
+     */
+    public String explain() {
+        Deque<String> steps = new ArrayDeque<>();
+        steps.add(switch (access) {
+            case FULL_SCAN -> "FullScan";
+            case CREATED_INDEX -> "CreatedIndexScan(from=" + query.createdFrom() + ", to=" + query.createdTo()
+                    + ", page=" + pageSize + ")";
+            case TOP_BY_PRICE -> "TopByPrice(k=" + query.limit() + ", " + query.direction() + ")";
+            case TOP_BY_CREATED -> "TopByCreated(k=" + query.limit() + ")";
+        });
+        if (!filters.isEmpty()) {
+            steps.push("Filter(" + String.join(" AND ", filters) + ")");
+        }
+        switch (ordering) {
+            case SORT -> steps.push("Sort(" + sortKey() + ")");
+            case TOP_K -> steps.push("TopK(k=" + query.limit() + ", " + sortKey() + ")");
+            case SOURCE -> {
+            }
+        }
+        if (query.isLimited() && ordering != Ordering.TOP_K
+                && access != Access.TOP_BY_PRICE && access != Access.TOP_BY_CREATED) {
+            steps.push("Limit(" + query.limit() + ")");
+        }
+        StringBuilder text = new StringBuilder();
+        String indent = "";
+        for (String step : steps) {
+            if (!text.isEmpty()) {
+                text.append('\n');
+            }
+            text.append(indent).append(step);
+            indent += "  ";
+        }
+        return text.toString();
+    }
+
+    private String sortKey() {
+        return query.sortField().name().toLowerCase(Locale.ROOT) + " " + query.direction();
+    }
+
+    private Comparator<Product> comparator() {
+        return query.direction().apply(switch (query.sortField()) {
+            case PRICE -> ProductRepository.PRICE_ORDER;
+            case CREATED -> ProductRepository.CREATED_ORDER;
+        });
+    }
+
+    /**
+     * Обходит индекс страницами через findCreatedSince, следующая страница запрашивается,
+     * только когда поток дочитал предыдущую
+     */
+    private Stream<Product> scanCreated(ProductRepository repository) {
+        LocalDateTime from = query.createdFrom() == null ? LocalDateTime.MIN : query.createdFrom();
+        Iterator<Product> pages = new CreatedPages(repository, CreatedCursor.from(from), pageSize);
+        Stream<Product> products = StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+        LocalDateTime to = query.createdTo();
+        return to == null ? products : products.takeWhile(product -> product.getCreated().isBefore(to));
+    }
+
+    public enum Access {
+
+        /**
+         * просмотр всех продуктов через streamAll
+         */
+        FULL_SCAN,
+
+        /**
+         * обход индекса по времени создания с начала интервала
+         */
+        CREATED_INDEX,
+
+        /**
+         * findTopByPrice репозитория, limit передаётся как k
+         */
+        TOP_BY_PRICE,
+
+        /**
+         * findTopByCreated репозитория, limit передаётся как k
+         */
+        TOP_BY_CREATED
+    }
+
+    public enum Ordering {
+
+        /**
+         * порядок способа доступа уже совпадает с порядком запроса или запрос его не задаёт
+         */
+        SOURCE,
+
+        /**
+         * полная сортировка, запрос без ограничения
+         */
+        SORT,
+
+        /**
+         * куча из limit элементов вместо полной сортировки
+         */
+        TOP_K
+    }
+
+    private static final class CreatedPages implements Iterator<Product> {
+
+        private final ProductRepository repository;
+        private final int pageSize;
+        private CreatedCursor cursor;
+        private Iterator<Product> page = Collections.emptyIterator();
+        private boolean lastPage;
+
+        private CreatedPages(ProductRepository repository, CreatedCursor start, int pageSize) {
+            this.repository = repository;
+            this.cursor = start;
+            this.pageSize = pageSize;
+            this.lastPage = pageSize == 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!page.hasNext() && !lastPage) {
+                List<Product> products = repository.findCreatedSince(cursor, pageSize);
+                lastPage = products.size() < pageSize;
+                if (!products.isEmpty()) {
+                    cursor = CreatedCursor.of(products.get(products.size() - 1));
+                }
+                page = products.iterator();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public Product next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.clevertec.product.repository;
+
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Выбирает план для {@link ProductQuery} по индексам репозитория:
+ * запрос первых k по стоимости или времени создания без условий отдаётся top-запросам репозитория,
+ * интервал создания или порядок по возрастанию времени создания читается из индекса,
+ * остальное - просмотр всех продуктов. Ограничение передаётся в индекс как размер страницы,
+ * если после индекса нет фильтра, а сортировка с ограничением заменяется кучей из limit элементов
+ */
+public final class QueryPlanner {
+
+    /**
+     * сколько продуктов читается из индекса за одно обращение, если нельзя опереться на limit
+     */
+    public static final int INDEX_PAGE_SIZE = 256;
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * @param query   запрос
+     * @param indexes индексы репозитория, на котором план будет выполнен
+     * @return выбранный план
+     */
+    public static QueryPlan plan(ProductQuery query, Set<ProductIndex> indexes) {
+        ProductQuery.SortField sortField = query.sortField();
+        boolean onlyTop = query.isLimited() && !query.hasNameOrPriceConditions() && !query.hasCreatedRange();
+        if (onlyTop && sortField == ProductQuery.SortField.PRICE) {
+            return new QueryPlan(query, QueryPlan.Access.TOP_BY_PRICE, List.of(), QueryPlan.Ordering.SOURCE, 0);
+        }
+        if (onlyTop && sortField == ProductQuery.SortField.CREATED && query.direction() == SortDirection.DESC) {
+            return new QueryPlan(query, QueryPlan.Access.TOP_BY_CREATED, List.of(), QueryPlan.Ordering.SOURCE, 0);
+        }
+
+        boolean createdAscending = sortField == ProductQuery.SortField.CREATED
+                && query.direction() == SortDirection.ASC;
+        boolean useIndex = indexes.contains(ProductIndex.CREATED) && (query.hasCreatedRange() || createdAscending);
+        List<String> filters = filters(query, useIndex);
+
+        QueryPlan.Ordering ordering;
+        if (sortField == null || useIndex && createdAscending) {
+            ordering = QueryPlan.Ordering.SOURCE;
+        } else {
+            ordering = query.isLimited() ? QueryPlan.Ordering.TOP_K : QueryPlan.Ordering.SORT;
+        }
+
+        if (!useIndex) {
+            return new QueryPlan(query, QueryPlan.Access.FULL_SCAN, filters, ordering, 0);
+        }
+        int pageSize = filters.isEmpty() && ordering == QueryPlan.Ordering.SOURCE
+                ? Math.min(query.limit(), INDEX_PAGE_SIZE)
+                : INDEX_PAGE_SIZE;
+        return new QueryPlan(query, QueryPlan.Access.CREATED_INDEX, filters, ordering, pageSize);
+    }
+
+    /**
+     * Индекс по времени создания сам отсекает интервал и продукты без времени создания
+     */
+    private static List<String> filters(ProductQuery query, boolean useIndex) {
+        List<String> filters = new ArrayList<>();
+        if (query.name() != null) {
+            filters.add("name = '" + query.name() + "'");
+        }
+        if (query.nameContaining() != null) {
+            filters.add("name contains '" + query.nameContaining() + "'");
+        }
+        if (query.minPrice() != null) {
+            filters.add("price >= " + query.minPrice());
+        }
+        if (query.maxPrice() != null) {
+            filters.add("price <= " + query.maxPrice());
+        }
+        if (query.sortField() == ProductQuery.SortField.PRICE && query.minPrice() == null
+                && query.maxPrice() == null) {
+            filters.add("price is not null");
+        }
+        if (!useIndex) {
+            if (query.createdFrom() != null) {
+                filters.add("created >= " + query.createdFrom());
+            }
+            if (query.createdTo() != null) {
+                filters.add("created < " + query.createdTo());
+            }
+            if (query.sortField() == ProductQuery.SortField.CREATED && !query.hasCreatedRange()) {
+                filters.add("created is not null");
+            }
+        }
+        return List.copyOf(filters);
+    }
+}
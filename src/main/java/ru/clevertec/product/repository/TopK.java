@@ -0,0 +1,45 @@
+package ru.clevertec.product.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Выбор первых k элементов за O(n log k) через кучу ограниченного размера вместо полной сортировки
+ */
+public final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * @param elements   элементы, обходятся один раз
+     * @param k          максимальное количество элементов результата
+     * @param comparator порядок результата
+     * @return первые k элементов в порядке comparator
+     */
+    public static <T> List<T> select(Iterator<T> elements, int k, Comparator<? super T> comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k can't be negative: " + k);
+        }
+        if (k == 0) {
+            return List.of();
+        }
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, 1024) + 1, Collections.reverseOrder(comparator));
+        while (elements.hasNext()) {
+            T element = elements.next();
+            if (heap.size() < k) {
+                heap.add(element);
+            } else if (comparator.compare(element, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(element);
+            }
+        }
+        List<T> top = new ArrayList<>(heap);
+        top.sort(comparator);
+        return Collections.unmodifiableList(top);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.clevertec.product.repository;
+
+public interface TransactionalProductRepository extends ProductRepository {
+
+    /**
+     * Начинает транзакцию. Изменения транзакции не видны другим, пока она не зафиксирована,
+     * и фиксируются все вместе или не фиксируются совсем
+     *
+     * @return новая активная транзакция
+     */
+    ProductTransaction begin();
+}
@@ -0,0 +1,30 @@
+package ru.clevertec.product.repository;
+
+import ru.clevertec.product.entity.Product;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface VersionedProductRepository extends ProductRepository {
+
+    /**
+     * ищет продукт в том виде, в котором он был в заданный момент
+     *
+     * @param uuid идентификатор продукта
+     * @param asOf момент времени
+     * @return Optional<Product> если продукт существовал в этот момент, иначе Optional.empty()
+     * @throws IllegalArgumentException если история на этот момент уже удалена сборщиком версий
+     */
+    Optional<Product> findById(UUID uuid, Instant asOf);
+
+    /**
+     * ищет все продукты, существовавшие в заданный момент
+     *
+     * @param asOf момент времени
+     * @return список продуктов в том виде, в котором они были в этот момент
+     * @throws IllegalArgumentException если история на этот момент уже удалена сборщиком версий
+     */
+    List<Product> findAll(Instant asOf);
+}
@@ -0,0 +1,265 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductIndex;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Отвечает на поиск заведомо отсутствующих продуктов без обращения к обёрнутому репозиторию.
+ * Фильтр перестраивается, когда удаления или наблюдаемая доля ложноположительных ответов
+ * превышают допустимые значения. Перестройка по этим признакам выполняется в фоне: поиск продолжает
+ * работать со старым фильтром, изменения ждут только снятия снимка содержимого,
+ * а сохранения во время заполнения нового фильтра попадают в оба фильтра
+ */
+public class BloomFilterProductRepository implements ProductRepository {
+
+    private static final int MIN_EXPECTED_INSERTIONS = 1024;
+    private static final long MIN_PROBES_FOR_REBUILD = 1000;
+    private static final long MIN_DELETIONS_FOR_REBUILD = 1000;
+
+    private final ProductRepository productRepository;
+    private final double falsePositiveRate;
+    private final double maxStaleRatio;
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final Executor rebuildExecutor;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Object rebuildLock = new Object();
+    private volatile UuidBloomFilter filter;
+    private UuidBloomFilter building;
+    private long expectedInsertions;
+    private long insertions;
+    private long deletions;
+    private long rebuilds;
+
+    public BloomFilterProductRepository(ProductRepository productRepository) {
+        this(productRepository, MIN_EXPECTED_INSERTIONS, 0.01, 0.5);
+    }
+
+    /**
+     * @param productRepository  обёрнутый репозиторий
+     * @param expectedInsertions ожидаемое количество продуктов
+     * @param falsePositiveRate  допустимая доля ложноположительных ответов
+     * @param maxStaleRatio      доля удалённых продуктов от вставленных, после которой фильтр перестраивается
+     */
+    public BloomFilterProductRepository(ProductRepository productRepository, long expectedInsertions,
+                                        double falsePositiveRate, double maxStaleRatio) {
+        this(productRepository, expectedInsertions, falsePositiveRate, maxStaleRatio,
+                BloomFilterProductRepository::startRebuildThread);
+    }
+
+    /**
+     * @param rebuildExecutor исполнитель фоновых перестроек фильтра
+     */
+    public BloomFilterProductRepository(ProductRepository productRepository, long expectedInsertions,
+                                        double falsePositiveRate, double maxStaleRatio, Executor rebuildExecutor) {
+        this.productRepository = productRepository;
+        this.rebuildExecutor = rebuildExecutor;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxStaleRatio = maxStaleRatio;
+        this.expectedInsertions = Math.max(MIN_EXPECTED_INSERTIONS, expectedInsertions);
+        rebuild();
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        if (!filter.mightContain(uuid)) {
+            definiteMisses.increment();
+            return Optional.empty();
+        }
+        Optional<Product> product = productRepository.findById(uuid);
+        if (product.isEmpty()) {
+            falsePositives.increment();
+            rebuildIfDegraded();
+        }
+        return product;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return productRepository.findAll();
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return productRepository.streamAll();
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return productRepository.findCreatedBetween(from, to, limit);
+    }
+
+    @Override
+    public List<Product> findCreatedSince(CreatedCursor cursor, int limit) {
+        return productRepository.findCreatedSince(cursor, limit);
+    }
+
+    @Override
+    public List<Product> findTopByPrice(int k, SortDirection direction) {
+        return productRepository.findTopByPrice(k, direction);
+    }
+
+    @Override
+    public List<Product> findTopByCreated(int k) {
+        return productRepository.findTopByCreated(k);
+    }
+
+    @Override
+    public Set<ProductIndex> getIndexes() {
+        return productRepository.getIndexes();
+    }
+
+    @Override
+    public synchronized Product save(Product product) {
+        UUID uuid = product.getUuid();
+        boolean known = uuid != null && filter.mightContain(uuid);
+        if (uuid != null) {
+            put(uuid);
+        }
+        Product saved = productRepository.save(product);
+        put(saved.getUuid());
+        if (!known && ++insertions > expectedInsertions) {
+            expectedInsertions *= 2;
+            scheduleRebuild();
+        }
+        return saved;
+    }
+
+    @Override
+    public synchronized List<Product> saveAll(Collection<Product> products) {
+        long unknown = products.stream()
+                .filter(product -> product.getUuid() == null || !filter.mightContain(product.getUuid()))
+                .count();
+        products.stream()
+                .filter(product -> product.getUuid() != null)
+                .forEach(product -> put(product.getUuid()));
+        List<Product> saved = productRepository.saveAll(products);
+        saved.forEach(product -> put(product.getUuid()));
+        insertions += unknown;
+        if (insertions > expectedInsertions) {
+            expectedInsertions = Math.max(expectedInsertions * 2, insertions);
+            scheduleRebuild();
+        }
+        return saved;
+    }
+
+    @Override
+    public synchronized void delete(UUID uuid) {
+        productRepository.delete(uuid);
+        deletions++;
+        if (deletions >= MIN_DELETIONS_FOR_REBUILD && deletions > insertions * maxStaleRatio) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Перестраивает фильтр по текущему содержимому обёрнутого репозитория в вызывающем потоке.
+     * Снимок содержимого снимается под той же блокировкой, что и изменения, поэтому обёрнутый репозиторий
+     * не обязан быть потокобезопасным; заполнение фильтра по снимку идёт уже без блокировки
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            UuidBloomFilter rebuilt;
+            List<Product> products;
+            long insertionsBefore;
+            synchronized (this) {
+                products = productRepository.findAll();
+                expectedInsertions = Math.max(expectedInsertions, products.size() * 2L);
+                rebuilt = new UuidBloomFilter(expectedInsertions, falsePositiveRate);
+                building = rebuilt;
+                insertionsBefore = insertions;
+            }
+            products.forEach(product -> rebuilt.put(product.getUuid()));
+            synchronized (this) {
+                filter = rebuilt;
+                building = null;
+                insertions = products.size() + insertions - insertionsBefore;
+                deletions = 0;
+                definiteMisses.reset();
+                falsePositives.reset();
+                rebuilds++;
+            }
+        }
+    }
+
+    /**
+     * @return доля отсутствующих продуктов, которые фильтр не отсёк, с момента последней перестройки
+     */
+    public double getObservedFalsePositiveRate() {
+        long positives = falsePositives.sum();
+        long probes = positives + definiteMisses.sum();
+        return probes == 0 ? 0 : (double) positives / probes;
+    }
+
+    /**
+     * @return ожидаемая доля ложноположительных ответов для текущего заполнения фильтра
+     */
+    public synchronized double getExpectedFalsePositiveRate() {
+        return filter.expectedFalsePositiveRate(insertions);
+    }
+
+    public long getDefiniteMisses() {
+        return definiteMisses.sum();
+    }
+
+    public synchronized long getRebuilds() {
+        return rebuilds;
+    }
+
+    private void rebuildIfDegraded() {
+        long positives = falsePositives.sum();
+        long probes = positives + definiteMisses.sum();
+        if (probes >= MIN_PROBES_FOR_REBUILD && (double) positives / probes > falsePositiveRate * 2) {
+            scheduleRebuild();
+        }
+    }
+
+    private void put(UUID uuid) {
+        filter.put(uuid);
+        if (building != null) {
+            building.put(uuid);
+        }
+    }
+
+    /**
+     * Запускает перестройку в фоне, если она ещё не запущена. После перестройки фильтр может
+     * снова оказаться переполненным вставками, сделанными во время неё, - тогда она запускается повторно
+     */
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        rebuildExecutor.execute(() -> {
+            try {
+                rebuild();
+            } finally {
+                rebuildScheduled.set(false);
+            }
+            synchronized (this) {
+                if (insertions > expectedInsertions) {
+                    scheduleRebuild();
+                }
+            }
+        });
+    }
+
+    private static void startRebuildThread(Runnable rebuild) {
+        Thread thread = new Thread(rebuild, "bloom-filter-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -1,17 +1,22 @@
 package ru.clevertec.product.repository.impl;
 
+import ru.clevertec.product.data.CreatedCursor;
 import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductIndex;
 import ru.clevertec.product.repository.ProductRepository;
 
-import java.util.LinkedHashMap;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 
 public class InMemoryProductRepository implements ProductRepository {
 
-    private final Map<UUID, Product> productMap = new LinkedHashMap<>();
+    private final UuidHashIndex<Product> productMap = new UuidHashIndex<>();
+    private final NavigableMap<CreatedCursor, Product> createdIndex = new TreeMap<>();
 
     @Override
     public Optional<Product> findById(UUID uuid) {
@@ -20,21 +25,67 @@ public class InMemoryProductRepository implements ProductRepository {
 
     @Override
     public List<Product> findAll() {
-        return productMap.values().stream()
+        return productMap.values();
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        return createdIndex.subMap(CreatedCursor.from(from), true, CreatedCursor.from(to), false)
+                .values().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<Product> findCreatedSince(CreatedCursor cursor, int limit) {
+        return createdIndex.tailMap(cursor, false)
+                .values().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Берёт последние продукты из индекса по времени создания за O(log n + k)
+     */
+    @Override
+    public List<Product> findTopByCreated(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k can't be negative: " + k);
+        }
+        return createdIndex.descendingMap()
+                .values().stream()
+                .limit(k)
                 .toList();
     }
 
+    @Override
+    public Set<ProductIndex> getIndexes() {
+        return Set.of(ProductIndex.CREATED);
+    }
+
     @Override
     public Product save(Product product) {
         UUID uuid;
         uuid = (product.getUuid() == null) ? UUID.randomUUID() : product.getUuid();
         product.setUuid(uuid);
-        productMap.put(uuid, product);
+        unindex(productMap.put(uuid, product));
+        if (product.getCreated() != null) {
+            createdIndex.put(CreatedCursor.of(product), product);
+        }
         return product;
     }
 
     @Override
     public void delete(UUID uuid) {
-        productMap.remove(uuid);
+        unindex(productMap.remove(uuid));
+    }
+
+    private void unindex(Product product) {
+        if (product != null && product.getCreated() != null) {
+            createdIndex.remove(CreatedCursor.of(product));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,408 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductIndex;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.impl.SimpleConnectionPool.PooledConnection;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Репозиторий во встроенной базе H2 (или другой базе с MERGE ... KEY).
+ * Идентификатор хранится двумя BIGINT, чтобы порядок в базе совпадал с {@link UUID#compareTo(UUID)},
+ * стоимость - строкой, чтобы сохранить масштаб {@link BigDecimal}, и числом для индекса по стоимости,
+ * время создания - секундами и наносекундами, как в {@link ru.clevertec.product.codec.ProductCodec}.
+ * Порядок {@link #findAll()} - порядок первого сохранения, как у {@link InMemoryProductRepository}
+ */
+public class JdbcProductRepository implements ProductRepository, AutoCloseable {
+
+    public static final int DEFAULT_POOL_SIZE = 4;
+    public static final int DEFAULT_FETCH_SIZE = 256;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long BORROW_TIMEOUT_MILLIS = 5_000;
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS product (
+                seq BIGINT GENERATED BY DEFAULT AS IDENTITY,
+                uuid_msb BIGINT NOT NULL,
+                uuid_lsb BIGINT NOT NULL,
+                name VARCHAR(255),
+                description VARCHAR(1024),
+                price VARCHAR(128),
+                price_value DECFLOAT,
+                created_seconds BIGINT,
+                created_nanos INT,
+                PRIMARY KEY (uuid_msb, uuid_lsb)
+            )""";
+    private static final String CREATE_SEQ_INDEX =
+            "CREATE INDEX IF NOT EXISTS product_seq ON product (seq)";
+    private static final String CREATE_CREATED_INDEX =
+            "CREATE INDEX IF NOT EXISTS product_created ON product (created_seconds, created_nanos, uuid_msb, uuid_lsb)";
+    /**
+     * H2 обходит индекс в обратном порядке только для убывающего индекса, поэтому для первых k
+     * по убыванию заведены отдельные убывающие индексы
+     */
+    private static final String CREATE_CREATED_DESC_INDEX = "CREATE INDEX IF NOT EXISTS product_created_desc"
+            + " ON product (created_seconds DESC, created_nanos DESC, uuid_msb DESC, uuid_lsb DESC)";
+    private static final String ADD_PRICE_VALUE = "ALTER TABLE product ADD COLUMN IF NOT EXISTS price_value DECFLOAT";
+    private static final String FILL_PRICE_VALUE = "UPDATE product SET price_value = CAST(price AS DECFLOAT)"
+            + " WHERE price IS NOT NULL AND price_value IS NULL";
+    private static final String CREATE_PRICE_INDEX =
+            "CREATE INDEX IF NOT EXISTS product_price ON product (price_value, uuid_msb, uuid_lsb)";
+    private static final String CREATE_PRICE_DESC_INDEX = "CREATE INDEX IF NOT EXISTS product_price_desc"
+            + " ON product (price_value DESC, uuid_msb DESC, uuid_lsb DESC)";
+    private static final String COLUMNS = "uuid_msb, uuid_lsb, name, description, price, created_seconds, created_nanos";
+    private static final String CREATED_ORDER = " ORDER BY created_seconds, created_nanos, uuid_msb, uuid_lsb";
+    private static final String FIND_BY_ID =
+            "SELECT " + COLUMNS + " FROM product WHERE uuid_msb = ? AND uuid_lsb = ?";
+    private static final String FIND_ALL = "SELECT " + COLUMNS + " FROM product ORDER BY seq";
+    private static final String FIND_CREATED_BETWEEN = "SELECT " + COLUMNS + " FROM product"
+            + " WHERE (created_seconds, created_nanos) >= (?, ?) AND (created_seconds, created_nanos) < (?, ?)"
+            + CREATED_ORDER + " LIMIT ?";
+    private static final String FIND_CREATED_SINCE = "SELECT " + COLUMNS + " FROM product"
+            + " WHERE (created_seconds, created_nanos, uuid_msb, uuid_lsb) > (?, ?, ?, ?)"
+            + CREATED_ORDER + " LIMIT ?";
+    private static final String FIND_CREATED_AT_OR_AFTER = "SELECT " + COLUMNS + " FROM product"
+            + " WHERE (created_seconds, created_nanos) >= (?, ?)"
+            + CREATED_ORDER + " LIMIT ?";
+    private static final String FIND_TOP_BY_CREATED = "SELECT " + COLUMNS + " FROM product"
+            + " WHERE created_seconds IS NOT NULL"
+            + " ORDER BY created_seconds DESC, created_nanos DESC, uuid_msb DESC, uuid_lsb DESC LIMIT ?";
+    private static final String FIND_TOP_BY_PRICE_ASC = "SELECT " + COLUMNS + " FROM product"
+            + " WHERE price_value IS NOT NULL ORDER BY price_value, uuid_msb, uuid_lsb LIMIT ?";
+    private static final String FIND_TOP_BY_PRICE_DESC = "SELECT " + COLUMNS + " FROM product"
+            + " WHERE price_value IS NOT NULL ORDER BY price_value DESC, uuid_msb DESC, uuid_lsb DESC LIMIT ?";
+    private static final String MERGE = "MERGE INTO product (" + COLUMNS + ", price_value) KEY (uuid_msb, uuid_lsb)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM product WHERE uuid_msb = ? AND uuid_lsb = ?";
+
+    private final SimpleConnectionPool pool;
+    private final int fetchSize;
+    private final int batchSize;
+
+    /**
+     * @param url JDBC URL базы, например {@code jdbc:h2:./products} или {@code jdbc:h2:mem:products;DB_CLOSE_DELAY=-1}
+     */
+    public JdbcProductRepository(String url) {
+        this(url, DEFAULT_POOL_SIZE, DEFAULT_FETCH_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param url       JDBC URL базы
+     * @param poolSize  максимальное количество соединений
+     * @param fetchSize сколько строк читать из базы за раз при обходе
+     * @param batchSize сколько продуктов отправлять одним пакетом в {@link #saveAll(Collection)}
+     */
+    public JdbcProductRepository(String url, int poolSize, int fetchSize, int batchSize) {
+        if (fetchSize < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Fetch and batch sizes must be positive");
+        }
+        this.pool = new SimpleConnectionPool(url, poolSize, BORROW_TIMEOUT_MILLIS);
+        this.fetchSize = fetchSize;
+        this.batchSize = batchSize;
+        try (PooledConnection connection = pool.borrow();
+             Statement statement = connection.connection().createStatement()) {
+            statement.execute(CREATE_TABLE);
+            statement.execute(CREATE_SEQ_INDEX);
+            statement.execute(CREATE_CREATED_INDEX);
+            statement.execute(CREATE_CREATED_DESC_INDEX);
+            statement.execute(ADD_PRICE_VALUE);
+            statement.execute(FILL_PRICE_VALUE);
+            statement.execute(CREATE_PRICE_INDEX);
+            statement.execute(CREATE_PRICE_DESC_INDEX);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Can't initialize product table", e);
+        }
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        if (uuid == null) {
+            return Optional.empty();
+        }
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepare(FIND_BY_ID);
+            statement.setLong(1, uuid.getMostSignificantBits());
+            statement.setLong(2, uuid.getLeastSignificantBits());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.of(read(resultSet)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw failure("findById", e);
+        }
+    }
+
+    @Override
+    public List<Product> findAll() {
+        try (Stream<Product> products = streamAll()) {
+            return products.toList();
+        }
+    }
+
+    /**
+     * Читает продукты порциями по fetchSize строк. Пока поток не закрыт, он держит соединение из пула
+     */
+    @Override
+    public Stream<Product> streamAll() {
+        PooledConnection connection = null;
+        try {
+            connection = pool.borrow();
+            PreparedStatement statement = connection.prepare(FIND_ALL);
+            statement.setFetchSize(fetchSize);
+            ResultSet resultSet = statement.executeQuery();
+            PooledConnection owner = connection;
+            return StreamSupport.stream(new ResultSetSpliterator(resultSet), false)
+                    .onClose(() -> {
+                        try (owner; resultSet) {
+                            // закрывает курсор и возвращает соединение в пул
+                        } catch (SQLException e) {
+                            throw failure("streamAll", e);
+                        }
+                    });
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw failure("streamAll", e);
+        }
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        return query("findCreatedBetween", FIND_CREATED_BETWEEN, statement -> {
+            setCreated(statement, 1, from);
+            setCreated(statement, 3, to);
+            statement.setInt(5, limit);
+        });
+    }
+
+    @Override
+    public List<Product> findCreatedSince(CreatedCursor cursor, int limit) {
+        if (cursor.uuid() == null) {
+            return query("findCreatedSince", FIND_CREATED_AT_OR_AFTER, statement -> {
+                setCreated(statement, 1, cursor.created());
+                statement.setInt(3, limit);
+            });
+        }
+        return query("findCreatedSince", FIND_CREATED_SINCE, statement -> {
+            setCreated(statement, 1, cursor.created());
+            statement.setLong(3, cursor.uuid().getMostSignificantBits());
+            statement.setLong(4, cursor.uuid().getLeastSignificantBits());
+            statement.setInt(5, limit);
+        });
+    }
+
+    /**
+     * Берёт крайние продукты по индексу стоимости в нужном направлении
+     */
+    @Override
+    public List<Product> findTopByPrice(int k, SortDirection direction) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k can't be negative: " + k);
+        }
+        return query("findTopByPrice", direction == SortDirection.ASC ? FIND_TOP_BY_PRICE_ASC : FIND_TOP_BY_PRICE_DESC,
+                statement -> statement.setInt(1, k));
+    }
+
+    /**
+     * Берёт последние продукты по убывающему индексу времени создания
+     */
+    @Override
+    public List<Product> findTopByCreated(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k can't be negative: " + k);
+        }
+        return query("findTopByCreated", FIND_TOP_BY_CREATED, statement -> statement.setInt(1, k));
+    }
+
+    /**
+     * Интервалы и порядок по времени создания читаются по индексу product_created
+     */
+    @Override
+    public Set<ProductIndex> getIndexes() {
+        return Set.of(ProductIndex.CREATED);
+    }
+
+    @Override
+    public Product save(Product product) {
+        assignUuid(product);
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepare(MERGE);
+            bind(statement, product);
+            statement.executeUpdate();
+            return product;
+        } catch (SQLException e) {
+            throw failure("save", e);
+        }
+    }
+
+    /**
+     * Сохраняет продукты пакетами по batchSize в одной транзакции
+     */
+    @Override
+    public List<Product> saveAll(Collection<Product> products) {
+        products.forEach(JdbcProductRepository::assignUuid);
+        try (PooledConnection connection = pool.borrow()) {
+            connection.connection().setAutoCommit(false);
+            PreparedStatement statement = connection.prepare(MERGE);
+            int pending = 0;
+            for (Product product : products) {
+                bind(statement, product);
+                statement.addBatch();
+                if (++pending == batchSize) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+            connection.connection().commit();
+            return List.copyOf(products);
+        } catch (SQLException e) {
+            throw failure("saveAll", e);
+        }
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        if (uuid == null) {
+            return;
+        }
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepare(DELETE);
+            statement.setLong(1, uuid.getMostSignificantBits());
+            statement.setLong(2, uuid.getLeastSignificantBits());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw failure("delete", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            pool.close();
+        } catch (SQLException e) {
+            throw failure("close", e);
+        }
+    }
+
+    private List<Product> query(String operation, String sql, StatementBinder binder) {
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepare(sql);
+            binder.bind(statement);
+            List<Product> products = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    products.add(read(resultSet));
+                }
+            }
+            return products;
+        } catch (SQLException e) {
+            throw failure(operation, e);
+        }
+    }
+
+    private static void assignUuid(Product product) {
+        if (product.getUuid() == null) {
+            product.setUuid(UUID.randomUUID());
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Product product) throws SQLException {
+        statement.setLong(1, product.getUuid().getMostSignificantBits());
+        statement.setLong(2, product.getUuid().getLeastSignificantBits());
+        statement.setString(3, product.getName());
+        statement.setString(4, product.getDescription());
+        statement.setString(5, product.getPrice() == null ? null : product.getPrice().toString());
+        statement.setBigDecimal(8, product.getPrice());
+        if (product.getCreated() == null) {
+            statement.setNull(6, Types.BIGINT);
+            statement.setNull(7, Types.INTEGER);
+        } else {
+            setCreated(statement, 6, product.getCreated());
+        }
+    }
+
+    private static void setCreated(PreparedStatement statement, int index, LocalDateTime created)
+            throws SQLException {
+        statement.setLong(index, created.toEpochSecond(ZoneOffset.UTC));
+        statement.setInt(index + 1, created.getNano());
+    }
+
+    private static Product read(ResultSet resultSet) throws SQLException {
+        String price = resultSet.getString(5);
+        long seconds = resultSet.getLong(6);
+        LocalDateTime created = resultSet.wasNull()
+                ? null
+                : LocalDateTime.ofEpochSecond(seconds, resultSet.getInt(7), ZoneOffset.UTC);
+        return new Product(new UUID(resultSet.getLong(1), resultSet.getLong(2)), resultSet.getString(3),
+                resultSet.getString(4), price == null ? null : new BigDecimal(price), created);
+    }
+
+    private static void closeQuietly(PooledConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // соединение уже не вернуть, исходная ошибка важнее
+        }
+    }
+
+    private static IllegalStateException failure(String operation, SQLException e) {
+        return new IllegalStateException("Product repository " + operation + " failed", e);
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder {
+
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    private static final class ResultSetSpliterator extends Spliterators.AbstractSpliterator<Product> {
+
+        private final ResultSet resultSet;
+
+        private ResultSetSpliterator(ResultSet resultSet) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Product> action) {
+            try {
+                if (!resultSet.next()) {
+                    return false;
+                }
+                action.accept(read(resultSet));
+                return true;
+            } catch (SQLException e) {
+                throw failure("streamAll", e);
+            }
+        }
+    }
+}
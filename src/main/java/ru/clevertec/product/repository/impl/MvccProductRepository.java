@@ -0,0 +1,230 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.VersionedProductRepository;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Репозиторий, хранящий цепочку версий каждого продукта.
+ * Запись добавляет новую версию в голову цепочки, чтение проходит цепочку без блокировок.
+ * Сборщик версий удаляет версии, которые не видны ни в один момент позже срока хранения
+ */
+public class MvccProductRepository implements VersionedProductRepository, Closeable {
+
+    private final Map<UUID, Version> heads = new ConcurrentHashMap<>();
+    private final AtomicLong insertionOrder = new AtomicLong();
+    private final Clock clock;
+    private final Duration retention;
+    private volatile Instant horizon = Instant.MIN;
+    private ScheduledExecutorService collector;
+
+    public MvccProductRepository(Duration retention) {
+        this(Clock.systemUTC(), retention);
+    }
+
+    public MvccProductRepository(Clock clock, Duration retention) {
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("Retention can't be negative: " + retention);
+        }
+        this.clock = clock;
+        this.retention = retention;
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        return Optional.ofNullable(heads.get(uuid))
+                .map(Version::product)
+                .map(MvccProductRepository::copy);
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid, Instant asOf) {
+        checkHorizon(asOf);
+        return Optional.ofNullable(heads.get(uuid))
+                .map(head -> head.visibleAt(asOf))
+                .map(Version::product)
+                .map(MvccProductRepository::copy);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return heads.values().stream()
+                .filter(head -> head.product() != null)
+                .sorted(Comparator.comparingLong(Version::order))
+                .map(head -> copy(head.product()))
+                .toList();
+    }
+
+    @Override
+    public List<Product> findAll(Instant asOf) {
+        checkHorizon(asOf);
+        return heads.values().stream()
+                .map(head -> head.visibleAt(asOf))
+                .filter(version -> version != null && version.product() != null)
+                .sorted(Comparator.comparingLong(Version::order))
+                .map(version -> copy(version.product()))
+                .toList();
+    }
+
+    @Override
+    public Product save(Product product) {
+        UUID uuid;
+        uuid = (product.getUuid() == null) ? UUID.randomUUID() : product.getUuid();
+        product.setUuid(uuid);
+        Product snapshot = copy(product);
+        heads.compute(uuid, (key, head) -> {
+            long order = (head == null || head.product() == null) ? insertionOrder.incrementAndGet() : head.order();
+            return new Version(snapshot, timestamp(head), order, head);
+        });
+        return product;
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        heads.computeIfPresent(uuid, (key, head) -> head.product() == null
+                ? head
+                : new Version(null, timestamp(head), head.order(), head));
+    }
+
+    /**
+     * Удаляет версии, невидимые ни в один момент позже now - retention
+     *
+     * @return количество удалённых версий
+     */
+    public int collectGarbage() {
+        Instant newHorizon = clock.instant().minus(retention);
+        horizon = newHorizon;
+        return heads.keySet().stream()
+                .mapToInt(uuid -> prune(uuid, newHorizon))
+                .sum();
+    }
+
+    /**
+     * Запускает сборщик версий в фоновом потоке
+     *
+     * @param period период между запусками
+     */
+    public synchronized void startGarbageCollector(Duration period) {
+        if (collector != null) {
+            throw new IllegalStateException("Garbage collector is already running");
+        }
+        collector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mvcc-product-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+        collector.scheduleWithFixedDelay(this::collectGarbage, period.toMillis(), period.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (collector != null) {
+            collector.shutdownNow();
+            collector = null;
+        }
+    }
+
+    /**
+     * @return количество хранимых версий всех продуктов, включая удаления
+     */
+    public long getVersionCount() {
+        return heads.values().stream()
+                .mapToLong(Version::chainLength)
+                .sum();
+    }
+
+    private int prune(UUID uuid, Instant newHorizon) {
+        int[] pruned = new int[1];
+        heads.computeIfPresent(uuid, (key, head) -> {
+            Version visible = head.visibleAt(newHorizon);
+            if (visible == null) {
+                return head;
+            }
+            pruned[0] = visible.chainLength() - 1;
+            visible.previous = null;
+            if (visible == head && head.product() == null) {
+                pruned[0]++;
+                return null;
+            }
+            return head;
+        });
+        return pruned[0];
+    }
+
+    private Instant timestamp(Version head) {
+        Instant now = clock.instant();
+        return head == null || now.isAfter(head.timestamp()) ? now : head.timestamp();
+    }
+
+    private void checkHorizon(Instant asOf) {
+        if (asOf.isBefore(horizon)) {
+            throw new IllegalArgumentException("History before " + horizon + " was garbage collected");
+        }
+    }
+
+    private static Product copy(Product product) {
+        return new Product(product.getUuid(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getCreated());
+    }
+
+    private static final class Version {
+
+        private final Product product;
+        private final Instant timestamp;
+        private final long order;
+        private volatile Version previous;
+
+        private Version(Product product, Instant timestamp, long order, Version previous) {
+            this.product = product;
+            this.timestamp = timestamp;
+            this.order = order;
+            this.previous = previous;
+        }
+
+        private Product product() {
+            return product;
+        }
+
+        private Instant timestamp() {
+            return timestamp;
+        }
+
+        private long order() {
+            return order;
+        }
+
+        /**
+         * @return версия, действовавшая в момент asOf, или null если продукта ещё не было
+         */
+        private Version visibleAt(Instant asOf) {
+            Version version = this;
+            while (version != null && version.timestamp.isAfter(asOf)) {
+                version = version.previous;
+            }
+            return version;
+        }
+
+        private int chainLength() {
+            int length = 0;
+            for (Version version = this; version != null; version = version.previous) {
+                length++;
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.exception.TransactionConflictException;
+import ru.clevertec.product.repository.ProductTransaction;
+import ru.clevertec.product.repository.TransactionalProductRepository;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Репозиторий с оптимистичными транзакциями. Транзакция читает без блокировок и запоминает,
+ * какую запись каждого продукта она видела, изменения копит у себя. При фиксации блокируются только
+ * полосы идентификаторов, которых касалась транзакция, в порядке номеров полос, проверяется, что
+ * прочитанные и изменяемые продукты никто не изменил, и изменения применяются. Транзакции над
+ * разными продуктами фиксируются параллельно, над одним продуктом - выигрывает первая фиксация.
+ * Одиночные save и delete репозитория работают как транзакция из одной операции
+ */
+public class OptimisticProductRepository implements TransactionalProductRepository {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong insertionOrder = new AtomicLong();
+    private final ReentrantLock[] stripes;
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public OptimisticProductRepository() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripes количество полос блокировок, степень двойки
+     */
+    public OptimisticProductRepository(int stripes) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripes must be a positive power of two: " + stripes);
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        if (uuid == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entries.get(uuid))
+                .map(entry -> copy(entry.product()));
+    }
+
+    /**
+     * Видит каждый продукт в зафиксированном состоянии, но не обязательно все продукты одной транзакции
+     * в одном состоянии: согласованное чтение нескольких продуктов - через {@link #begin()}
+     */
+    @Override
+    public List<Product> findAll() {
+        return entries.values().stream()
+                .sorted(Comparator.comparingLong(Entry::order))
+                .map(entry -> copy(entry.product()))
+                .toList();
+    }
+
+    @Override
+    public Product save(Product product) {
+        Transaction transaction = new Transaction();
+        Product saved = transaction.save(product);
+        transaction.commit(false);
+        return saved;
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        if (uuid == null) {
+            return;
+        }
+        Transaction transaction = new Transaction();
+        transaction.delete(uuid);
+        transaction.commit(false);
+    }
+
+    @Override
+    public ProductTransaction begin() {
+        return new Transaction();
+    }
+
+    /**
+     * @return количество зафиксированных транзакций, включая одиночные save и delete
+     */
+    public long getCommittedTransactions() {
+        return committed.sum();
+    }
+
+    /**
+     * @return количество транзакций, отменённых из-за конфликта
+     */
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    private int stripe(UUID uuid) {
+        int hash = uuid.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    private static Product copy(Product product) {
+        return new Product(product.getUuid(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getCreated());
+    }
+
+    /**
+     * Зафиксированное состояние продукта. Каждая запись создаёт новый объект,
+     * поэтому совпадение ссылки означает, что продукт не менялся
+     */
+    private record Entry(Product product, long order) {
+    }
+
+    private final class Transaction implements ProductTransaction {
+
+        /**
+         * записи, которые транзакция видела при первом обращении к продукту, null - продукта не было
+         */
+        private final Map<UUID, Entry> observed = new HashMap<>();
+
+        /**
+         * изменения транзакции, null - удаление
+         */
+        private final Map<UUID, Product> writes = new LinkedHashMap<>();
+        private boolean active = true;
+
+        @Override
+        public Optional<Product> findById(UUID uuid) {
+            checkActive();
+            if (uuid == null) {
+                return Optional.empty();
+            }
+            if (writes.containsKey(uuid)) {
+                return Optional.ofNullable(writes.get(uuid)).map(OptimisticProductRepository::copy);
+            }
+            return Optional.ofNullable(observe(uuid)).map(entry -> copy(entry.product()));
+        }
+
+        @Override
+        public Product save(Product product) {
+            checkActive();
+            if (product.getUuid() == null) {
+                product.setUuid(UUID.randomUUID());
+            }
+            observe(product.getUuid());
+            writes.put(product.getUuid(), copy(product));
+            return product;
+        }
+
+        @Override
+        public void delete(UUID uuid) {
+            checkActive();
+            if (uuid == null) {
+                return;
+            }
+            observe(uuid);
+            writes.put(uuid, null);
+        }
+
+        @Override
+        public void commit() {
+            commit(true);
+        }
+
+        /**
+         * Полосы блокируются по возрастанию номеров, поэтому фиксации не могут ждать друг друга по кругу
+         *
+         * @param validate false - записать изменения поверх чужих, для одиночных save и delete
+         */
+        private void commit(boolean validate) {
+            checkActive();
+            active = false;
+            int[] locked = observed.keySet().stream()
+                    .mapToInt(OptimisticProductRepository.this::stripe)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            for (int stripe : locked) {
+                stripes[stripe].lock();
+            }
+            try {
+                if (validate) {
+                    validate();
+                }
+                writes.forEach(this::apply);
+                committed.increment();
+            } finally {
+                for (int i = locked.length - 1; i >= 0; i--) {
+                    stripes[locked[i]].unlock();
+                }
+            }
+        }
+
+        @Override
+        public void rollback() {
+            active = false;
+            writes.clear();
+            observed.clear();
+        }
+
+        @Override
+        public void close() {
+            if (active) {
+                rollback();
+            }
+        }
+
+        private void validate() {
+            for (Map.Entry<UUID, Entry> read : observed.entrySet()) {
+                if (entries.get(read.getKey()) != read.getValue()) {
+                    conflicts.increment();
+                    throw new TransactionConflictException(read.getKey());
+                }
+            }
+        }
+
+        /**
+         * Изменяемые продукты тоже запоминаются, поэтому observed содержит все продукты транзакции
+         */
+        private Entry observe(UUID uuid) {
+            if (observed.containsKey(uuid)) {
+                return observed.get(uuid);
+            }
+            Entry entry = entries.get(uuid);
+            observed.put(uuid, entry);
+            return entry;
+        }
+
+        private void apply(UUID uuid, Product product) {
+            if (product == null) {
+                entries.remove(uuid);
+                return;
+            }
+            Entry current = entries.get(uuid);
+            long order = current == null ? insertionOrder.incrementAndGet() : current.order();
+            entries.put(uuid, new Entry(product, order));
+        }
+
+        private void checkActive() {
+            if (!active) {
+                throw new IllegalStateException("Transaction is already finished");
+            }
+        }
+    }
+}
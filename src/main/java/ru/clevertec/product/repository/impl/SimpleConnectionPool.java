@@ -0,0 +1,144 @@
+package ru.clevertec.product.repository.impl;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пул соединений фиксированного размера. Соединения открываются по мере надобности,
+ * у каждого соединения свой кэш подготовленных запросов
+ */
+public class SimpleConnectionPool implements AutoCloseable {
+
+    private final String url;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final BlockingQueue<PooledConnection> idle;
+    private int opened;
+    private boolean closed;
+
+    /**
+     * @param url                 JDBC URL базы данных
+     * @param maxSize             максимальное количество соединений
+     * @param borrowTimeoutMillis сколько ждать свободного соединения
+     */
+    public SimpleConnectionPool(String url, int maxSize, long borrowTimeoutMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxSize);
+        }
+        this.url = url;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+    }
+
+    /**
+     * Выдаёт свободное соединение, его нужно вернуть через {@link PooledConnection#close()}
+     *
+     * @throws SQLException если соединение не освободилось за время ожидания или не открылось
+     */
+    public PooledConnection borrow() throws SQLException {
+        PooledConnection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        if (reserve()) {
+            try {
+                return new PooledConnection(DriverManager.getConnection(url));
+            } catch (SQLException e) {
+                release();
+                throw e;
+            }
+        }
+        try {
+            connection = idle.poll(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        if (connection == null) {
+            throw new SQLException("No free connection in " + borrowTimeoutMillis + " ms");
+        }
+        return connection;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        synchronized (this) {
+            closed = true;
+        }
+        PooledConnection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.connection.close();
+        }
+    }
+
+    private synchronized boolean reserve() throws SQLException {
+        if (closed) {
+            throw new SQLException("Pool is closed");
+        }
+        if (opened == maxSize) {
+            return false;
+        }
+        opened++;
+        return true;
+    }
+
+    private synchronized void release() {
+        opened--;
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Соединение из пула, {@link #close()} возвращает его в пул
+     */
+    public final class PooledConnection implements AutoCloseable {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        /**
+         * @param sql текст запроса
+         * @return подготовленный запрос из кэша соединения, закрывать его не нужно
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (isClosed() || connection.isClosed()) {
+                release();
+                connection.close();
+                return;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            idle.add(this);
+        }
+    }
+}
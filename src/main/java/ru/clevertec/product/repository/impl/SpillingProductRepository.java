@@ -0,0 +1,292 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.codec.ProductCodec;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Репозиторий, держащий в памяти не больше заданного числа продуктов и байт.
+ * Редко запрашиваемые продукты вытесняются в файл сегмента и поднимаются обратно при {@link #findById(UUID)}.
+ * {@link #streamAll()} читает вытесненные продукты из файла по одному.
+ * Порядок обхода: сначала продукты в памяти, затем вытесненные
+ */
+public class SpillingProductRepository implements ProductRepository, Closeable {
+
+    private static final double LOW_WATERMARK = 0.9;
+    private static final long MIN_GARBAGE_FOR_COMPACTION = 1 << 20;
+
+    private final Path segment;
+    private final int maxHotEntries;
+    private final long maxHotBytes;
+    private final ProductCodec codec = new ProductCodec();
+    private final Map<UUID, HotEntry> hot = new HashMap<>();
+    private final Map<UUID, Long> cold = new HashMap<>();
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+    private long hotBytes;
+    private long fileEnd;
+    private long garbageBytes;
+
+    /**
+     * @param segment       файл для вытесненных продуктов, перезаписывается
+     * @param maxHotEntries максимум продуктов в памяти
+     * @param maxHotBytes   максимум байт продуктов в памяти (по размеру в бинарном формате)
+     */
+    public SpillingProductRepository(Path segment, int maxHotEntries, long maxHotBytes) {
+        if (maxHotEntries < 1 || maxHotBytes < 1) {
+            throw new IllegalArgumentException("Hot tier limits must be positive");
+        }
+        this.segment = segment;
+        this.maxHotEntries = maxHotEntries;
+        this.maxHotBytes = maxHotBytes;
+        this.channel = open(segment, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public synchronized Optional<Product> findById(UUID uuid) {
+        HotEntry entry = hot.get(uuid);
+        if (entry != null) {
+            entry.frequency++;
+            return Optional.of(entry.product);
+        }
+        Long offset = cold.remove(uuid);
+        if (offset == null) {
+            return Optional.empty();
+        }
+        Product product = read(offset);
+        garbageBytes += Integer.BYTES + codec.sizeOf(product);
+        putHot(product);
+        return Optional.of(product);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        try (Stream<Product> products = streamAll()) {
+            return products.toList();
+        }
+    }
+
+    /**
+     * Поток читает вытесненные продукты по одному, продукты, удалённые после начала обхода, пропускаются
+     */
+    @Override
+    public synchronized Stream<Product> streamAll() {
+        List<Product> hotProducts = hot.values().stream()
+                .map(entry -> entry.product)
+                .toList();
+        List<UUID> coldUuids = List.copyOf(cold.keySet());
+        return Stream.concat(hotProducts.stream(), coldUuids.stream()
+                .map(this::readIfPresent)
+                .filter(Objects::nonNull));
+    }
+
+    @Override
+    public synchronized Product save(Product product) {
+        UUID uuid;
+        uuid = (product.getUuid() == null) ? UUID.randomUUID() : product.getUuid();
+        product.setUuid(uuid);
+        removeCold(uuid);
+        HotEntry previous = hot.remove(uuid);
+        if (previous != null) {
+            hotBytes -= previous.size;
+        }
+        putHot(product);
+        return product;
+    }
+
+    @Override
+    public synchronized void delete(UUID uuid) {
+        HotEntry entry = hot.remove(uuid);
+        if (entry != null) {
+            hotBytes -= entry.size;
+        }
+        removeCold(uuid);
+    }
+
+    public synchronized int getHotSize() {
+        return hot.size();
+    }
+
+    public synchronized int getColdSize() {
+        return cold.size();
+    }
+
+    /**
+     * Переписывает файл сегмента, оставляя только текущие вытесненные продукты.
+     * Новые смещения применяются только после замены файла: при ошибке продукты читаются из старого сегмента
+     */
+    public synchronized void compact() {
+        Path compacted = segment.resolveSibling(segment.getFileName() + ".compact");
+        Map<UUID, Long> offsets = new HashMap<>(cold.size());
+        long position = 0;
+        try {
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Map.Entry<UUID, Long> entry : cold.entrySet()) {
+                    int length = readLength(entry.getValue());
+                    ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length);
+                    readFully(record, entry.getValue());
+                    record.flip();
+                    offsets.put(entry.getKey(), position);
+                    position += writeFully(target, record, position);
+                }
+                target.force(false);
+            }
+            channel.close();
+            try {
+                Files.move(compacted, segment, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                channel = open(segment, StandardOpenOption.CREATE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cold.putAll(offsets);
+        fileEnd = position;
+        garbageBytes = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(segment);
+    }
+
+    private void putHot(Product product) {
+        int size = codec.sizeOf(product);
+        hot.put(product.getUuid(), new HotEntry(product, size));
+        hotBytes += size;
+        if (hot.size() > maxHotEntries || hotBytes > maxHotBytes) {
+            spillColdest(product.getUuid());
+        }
+    }
+
+    /**
+     * Вытесняет наименее запрашиваемые продукты до нижней границы и старит счётчики оставшихся
+     */
+    private void spillColdest(UUID justAdded) {
+        long targetEntries = (long) (maxHotEntries * LOW_WATERMARK);
+        long targetBytes = (long) (maxHotBytes * LOW_WATERMARK);
+        List<HotEntry> candidates = hot.values().stream()
+                .filter(entry -> !entry.product.getUuid().equals(justAdded))
+                .sorted(Comparator.comparingInt(entry -> entry.frequency))
+                .toList();
+        for (HotEntry entry : candidates) {
+            if (hot.size() <= targetEntries && hotBytes <= targetBytes) {
+                break;
+            }
+            hot.remove(entry.product.getUuid());
+            hotBytes -= entry.size;
+            cold.put(entry.product.getUuid(), append(entry.product));
+        }
+        hot.values().forEach(entry -> entry.frequency >>= 1);
+        if (garbageBytes > MIN_GARBAGE_FOR_COMPACTION && garbageBytes * 2 > fileEnd) {
+            compact();
+        }
+    }
+
+    private void removeCold(UUID uuid) {
+        Long offset = cold.remove(uuid);
+        if (offset != null) {
+            garbageBytes += Integer.BYTES + readLength(offset);
+        }
+    }
+
+    private long append(Product product) {
+        int length = codec.sizeOf(product);
+        if (buffer.capacity() < Integer.BYTES + length) {
+            buffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, Integer.BYTES + length));
+        }
+        buffer.clear();
+        buffer.putInt(length);
+        codec.writeProduct(buffer, product);
+        buffer.flip();
+        long offset = fileEnd;
+        try {
+            fileEnd += writeFully(channel, buffer, offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return offset;
+    }
+
+    private synchronized Product readIfPresent(UUID uuid) {
+        Long offset = cold.get(uuid);
+        if (offset != null) {
+            return read(offset);
+        }
+        HotEntry entry = hot.get(uuid);
+        return entry == null ? null : entry.product;
+    }
+
+    private Product read(long offset) {
+        ByteBuffer record = ByteBuffer.allocate(readLength(offset));
+        readFully(record, offset + Integer.BYTES);
+        return codec.readProduct(record.flip());
+    }
+
+    private int readLength(long offset) {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(length, offset);
+        return length.getInt(0);
+    }
+
+    private void readFully(ByteBuffer target, long position) {
+        try {
+            while (target.hasRemaining()) {
+                if (channel.read(target, position + target.position()) < 0) {
+                    throw new IOException("Unexpected end of segment " + segment);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int writeFully(FileChannel target, ByteBuffer source, long position) throws IOException {
+        int written = 0;
+        while (source.hasRemaining()) {
+            written += target.write(source, position + written);
+        }
+        return written;
+    }
+
+    private static FileChannel open(Path segment, StandardOpenOption mode) {
+        try {
+            return FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, mode);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class HotEntry {
+
+        private final Product product;
+        private final int size;
+        private int frequency = 1;
+
+        private HotEntry(Product product, int size) {
+            this.product = product;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ru.clevertec.product.repository.impl;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума по идентификаторам продуктов.
+ * Ложноотрицательных ответов не бывает, доля ложноположительных задаётся при создании
+ */
+public class UuidBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public UuidBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate)
+                / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(UUID uuid) {
+        long hash1 = firstHash(uuid);
+        long hash2 = secondHash(uuid);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (current, bit) -> current | bit);
+            }
+        }
+    }
+
+    /**
+     * @param uuid идентификатор продукта
+     * @return false если продукт точно не добавлялся, true если мог быть добавлен
+     */
+    public boolean mightContain(UUID uuid) {
+        long hash1 = firstHash(uuid);
+        long hash2 = secondHash(uuid);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Оценивает долю ложноположительных ответов после заданного числа вставок
+     *
+     * @param insertions количество добавленных идентификаторов
+     * @return ожидаемая доля ложноположительных ответов
+     */
+    public double expectedFalsePositiveRate(long insertions) {
+        return Math.pow(1 - Math.exp(-hashCount * (double) insertions / bitCount), hashCount);
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private static long firstHash(UUID uuid) {
+        return mix(uuid.getMostSignificantBits() ^ Long.rotateLeft(uuid.getLeastSignificantBits(), 32));
+    }
+
+    private static long secondHash(UUID uuid) {
+        return mix(uuid.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,354 @@
+package ru.clevertec.product.repository.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Хэш-индекс по идентификатору продукта с открытой адресацией и линейным пробированием.
+ * Половины идентификатора хранятся в параллельных массивах long, значения - в отдельном массиве в порядке добавления,
+ * поэтому на запись не создаётся ни одного объекта, а обход идёт в порядке добавления, как у {@link java.util.LinkedHashMap}.
+ * При росте новая таблица заполняется постепенно: каждая операция переносит несколько ячеек старой таблицы,
+ * пока перенос не закончен, поиск смотрит в обе таблицы
+ *
+ * @param <V> тип значения
+ */
+public class UuidHashIndex<V> {
+
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int MIGRATION_STEP = 16;
+
+    private Table table;
+    private Table old;
+    private int migrated;
+    private Object[] values;
+    private int entryCount;
+    private int holes;
+    private int size;
+
+    public UuidHashIndex() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize ожидаемое количество ключей, до которого таблица не растёт
+     */
+    public UuidHashIndex(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size can't be negative: " + expectedSize);
+        }
+        table = new Table(capacityFor(expectedSize));
+        values = new Object[Math.max(MIN_CAPACITY, expectedSize)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return true если таблица ещё переносится после роста
+     */
+    public boolean isResizing() {
+        return old != null;
+    }
+
+    /**
+     * @return значение или null, в том числе для null: такого ключа в индексе быть не может
+     */
+    public V get(UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        return get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public V get(long mostSigBits, long leastSigBits) {
+        int hash = hash(mostSigBits, leastSigBits);
+        int slot = table.find(mostSigBits, leastSigBits, hash);
+        if (slot >= 0) {
+            return value(table.refs[slot]);
+        }
+        if (old != null) {
+            slot = old.find(mostSigBits, leastSigBits, hash);
+            if (slot >= 0) {
+                return value(old.refs[slot]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Добавляет или заменяет значение, заменённое значение остаётся на своём месте в порядке обхода
+     *
+     * @return предыдущее значение или null
+     */
+    public V put(UUID uuid, V value) {
+        Objects.requireNonNull(value, "Value can't be null");
+        long mostSigBits = uuid.getMostSignificantBits();
+        long leastSigBits = uuid.getLeastSignificantBits();
+        int hash = hash(mostSigBits, leastSigBits);
+        migrate();
+        int slot = table.find(mostSigBits, leastSigBits, hash);
+        if (slot >= 0) {
+            return replace(table.refs[slot], value);
+        }
+        if (old != null) {
+            slot = old.find(mostSigBits, leastSigBits, hash);
+            if (slot >= 0) {
+                int ref = old.refs[slot];
+                old.refs[slot] = TOMBSTONE;
+                table.insert(mostSigBits, leastSigBits, hash, ref);
+                return replace(ref, value);
+            }
+        }
+        if (size + 1 > table.threshold) {
+            grow();
+        }
+        table.insert(mostSigBits, leastSigBits, hash, append(value));
+        size++;
+        return null;
+    }
+
+    /**
+     * @return удалённое значение или null, для null ничего не удаляется
+     */
+    public V remove(UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        long mostSigBits = uuid.getMostSignificantBits();
+        long leastSigBits = uuid.getLeastSignificantBits();
+        int hash = hash(mostSigBits, leastSigBits);
+        migrate();
+        int ref;
+        int slot = table.find(mostSigBits, leastSigBits, hash);
+        if (slot >= 0) {
+            ref = table.refs[slot];
+            table.removeAt(slot);
+        } else if (old != null && (slot = old.find(mostSigBits, leastSigBits, hash)) >= 0) {
+            ref = old.refs[slot];
+            old.refs[slot] = TOMBSTONE;
+        } else {
+            return null;
+        }
+        V removed = value(ref);
+        values[ref - 1] = null;
+        holes++;
+        size--;
+        return removed;
+    }
+
+    /**
+     * @return значения в порядке добавления
+     */
+    public List<V> values() {
+        List<V> list = new ArrayList<>(size);
+        for (int i = 0; i < entryCount; i++) {
+            if (values[i] != null) {
+                list.add(value(i + 1));
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return поток значений в порядке добавления, отражает изменения, сделанные до начала обхода
+     */
+    public Stream<V> stream() {
+        return values().stream();
+    }
+
+    private V replace(int ref, V value) {
+        V previous = value(ref);
+        values[ref - 1] = value;
+        return previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int ref) {
+        return (V) values[ref - 1];
+    }
+
+    /**
+     * @return ссылка на новое значение (номер в массиве значений плюс один)
+     */
+    private int append(V value) {
+        if (entryCount == values.length) {
+            if (holes >= entryCount / 2) {
+                compactValues();
+            } else {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+        }
+        values[entryCount++] = value;
+        return entryCount;
+    }
+
+    /**
+     * Убирает из массива значений дыры от удалённых ключей и переписывает ссылки в таблицах
+     */
+    private void compactValues() {
+        int[] moved = new int[entryCount];
+        int live = 0;
+        for (int i = 0; i < entryCount; i++) {
+            if (values[i] != null) {
+                values[live] = values[i];
+                moved[i] = live++;
+            }
+        }
+        Arrays.fill(values, live, entryCount, null);
+        entryCount = live;
+        holes = 0;
+        table.remap(moved);
+        if (old != null) {
+            old.remap(moved);
+        }
+    }
+
+    private void grow() {
+        if (old != null) {
+            migrateAll();
+        }
+        if (table.refs.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Index is full");
+        }
+        old = table;
+        table = new Table(old.refs.length * 2);
+        migrated = 0;
+    }
+
+    /**
+     * Переносит несколько ячеек старой таблицы. Новая таблица вдвое больше,
+     * поэтому перенос заканчивается задолго до того, как ей самой понадобится рост
+     */
+    private void migrate() {
+        if (old == null) {
+            return;
+        }
+        int end = Math.min(old.refs.length, migrated + MIGRATION_STEP);
+        for (; migrated < end; migrated++) {
+            moveSlot(migrated);
+        }
+        if (migrated == old.refs.length) {
+            old = null;
+        }
+    }
+
+    private void migrateAll() {
+        for (; migrated < old.refs.length; migrated++) {
+            moveSlot(migrated);
+        }
+        old = null;
+    }
+
+    /**
+     * В старой таблице перенесённая ячейка помечается как удалённая, чтобы не разорвать цепочки пробирования
+     */
+    private void moveSlot(int slot) {
+        int ref = old.refs[slot];
+        if (ref > 0) {
+            long mostSigBits = old.mostSigBits[slot];
+            long leastSigBits = old.leastSigBits[slot];
+            table.insert(mostSigBits, leastSigBits, hash(mostSigBits, leastSigBits), ref);
+            old.refs[slot] = TOMBSTONE;
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return (int) capacity;
+    }
+
+    private static int hash(long mostSigBits, long leastSigBits) {
+        long hash = mostSigBits * 0x9E3779B97F4A7C15L ^ leastSigBits;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static final class Table {
+
+        private final long[] mostSigBits;
+        private final long[] leastSigBits;
+        private final int[] refs;
+        private final int mask;
+        private final int threshold;
+
+        private Table(int capacity) {
+            mostSigBits = new long[capacity];
+            leastSigBits = new long[capacity];
+            refs = new int[capacity];
+            mask = capacity - 1;
+            threshold = capacity / 4 * 3;
+        }
+
+        /**
+         * @return номер ячейки с ключом или -1
+         */
+        private int find(long most, long least, int hash) {
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int ref = refs[slot];
+                if (ref == EMPTY) {
+                    return -1;
+                }
+                if (ref != TOMBSTONE && mostSigBits[slot] == most && leastSigBits[slot] == least) {
+                    return slot;
+                }
+            }
+        }
+
+        /**
+         * Ключа в таблице быть не должно, в текущей таблице удалённых ячеек нет
+         */
+        private void insert(long most, long least, int hash, int ref) {
+            int slot = hash & mask;
+            while (refs[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            mostSigBits[slot] = most;
+            leastSigBits[slot] = least;
+            refs[slot] = ref;
+        }
+
+        /**
+         * Удаляет ключ со сдвигом следующих ключей цепочки назад, чтобы не оставлять пометок об удалении
+         */
+        private void removeAt(int slot) {
+            int hole = slot;
+            for (int next = (hole + 1) & mask; refs[next] != EMPTY; next = (next + 1) & mask) {
+                int home = hash(mostSigBits[next], leastSigBits[next]) & mask;
+                boolean reachable = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+                if (!reachable) {
+                    mostSigBits[hole] = mostSigBits[next];
+                    leastSigBits[hole] = leastSigBits[next];
+                    refs[hole] = refs[next];
+                    hole = next;
+                }
+            }
+            refs[hole] = EMPTY;
+        }
+
+        private void remap(int[] moved) {
+            for (int slot = 0; slot < refs.length; slot++) {
+                if (refs[slot] > 0) {
+                    refs[slot] = moved[refs[slot] - 1] + 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package ru.clevertec.product.repository.impl;
+
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductIndex;
+import ru.clevertec.product.repository.ProductRepository;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Репозиторий с отложенной записью: save и delete подтверждаются сразу после записи в буфер в памяти,
+ * в обёрнутый репозиторий изменения уходят пакетами из фонового потока, когда в буфере набирается batchSize
+ * продуктов или проходит flushInterval. Повторные записи одного продукта до сброса склеиваются в одну.
+ * Когда в буфере maxPending продуктов, запись новых ждёт сброса. Чтение видит все подтверждённые записи.
+ * При ошибке обёрнутого репозитория изменения остаются в буфере и повторяются при следующем сбросе,
+ * ошибка пробрасывается из {@link #flush()}
+ */
+public class WriteBehindProductRepository implements ProductRepository, Closeable {
+
+    private final ProductRepository productRepository;
+    private final int maxPending;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private final Map<UUID, Write> pending = new LinkedHashMap<>();
+    private final Map<UUID, Write> inFlight = new LinkedHashMap<>();
+    private final Thread flusher;
+    private boolean flushRequested;
+    private boolean running = true;
+    private RuntimeException failure;
+    private long coalescedWrites;
+    private long flushedBatches;
+
+    /**
+     * @param productRepository медленный репозиторий, в который сбрасываются изменения
+     * @param maxPending        максимум продуктов в буфере
+     * @param batchSize         максимум продуктов в одном сбросе
+     * @param flushInterval     как долго изменения могут ждать сброса
+     */
+    public WriteBehindProductRepository(ProductRepository productRepository, int maxPending, int batchSize,
+                                        Duration flushInterval) {
+        if (maxPending < 1 || batchSize < 1 || batchSize > maxPending) {
+            throw new IllegalArgumentException("Sizes must satisfy 0 < batchSize <= maxPending");
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Flush interval must be positive: " + flushInterval);
+        }
+        this.productRepository = productRepository;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.flusher = new Thread(this::runFlusher, "product-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public Optional<Product> findById(UUID uuid) {
+        lock.lock();
+        try {
+            Write write = overlay(uuid);
+            if (write != null) {
+                return Optional.ofNullable(write.product());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return productRepository.findById(uuid);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        try (Stream<Product> products = streamAll()) {
+            return products.toList();
+        }
+    }
+
+    /**
+     * Продукты обёрнутого репозитория с наложенными несброшенными изменениями,
+     * новые продукты из буфера идут в конце в порядке записи
+     */
+    @Override
+    public Stream<Product> streamAll() {
+        Map<UUID, Write> overlay = snapshot();
+        if (overlay.isEmpty()) {
+            return productRepository.streamAll();
+        }
+        List<Product> products = new ArrayList<>();
+        try (Stream<Product> stored = productRepository.streamAll()) {
+            stored.forEach(product -> {
+                Write write = overlay.remove(product.getUuid());
+                if (write == null) {
+                    products.add(product);
+                } else if (write.product() != null) {
+                    products.add(write.product());
+                }
+            });
+        }
+        overlay.values().stream()
+                .map(Write::product)
+                .filter(Objects::nonNull)
+                .forEach(products::add);
+        return products.stream();
+    }
+
+    @Override
+    public List<Product> findCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return hasOverlay()
+                ? ProductRepository.super.findCreatedBetween(from, to, limit)
+                : productRepository.findCreatedBetween(from, to, limit);
+    }
+
+    @Override
+    public List<Product> findCreatedSince(CreatedCursor cursor, int limit) {
+        return hasOverlay()
+                ? ProductRepository.super.findCreatedSince(cursor, limit)
+                : productRepository.findCreatedSince(cursor, limit);
+    }
+
+    @Override
+    public List<Product> findTopByPrice(int k, SortDirection direction) {
+        return hasOverlay()
+                ? ProductRepository.super.findTopByPrice(k, direction)
+                : productRepository.findTopByPrice(k, direction);
+    }
+
+    @Override
+    public List<Product> findTopByCreated(int k) {
+        return hasOverlay()
+                ? ProductRepository.super.findTopByCreated(k)
+                : productRepository.findTopByCreated(k);
+    }
+
+    /**
+     * Пока в буфере есть несброшенные изменения, запросы по времени создания просматривают все продукты,
+     * поэтому индекс обёрнутого репозитория не предлагается планировщику
+     */
+    @Override
+    public Set<ProductIndex> getIndexes() {
+        return hasOverlay() ? Set.of() : productRepository.getIndexes();
+    }
+
+    @Override
+    public Product save(Product product) {
+        if (product.getUuid() == null) {
+            product.setUuid(UUID.randomUUID());
+        }
+        enqueue(new Write(product.getUuid(), product));
+        return product;
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        enqueue(new Write(uuid, null));
+    }
+
+    /**
+     * Сбрасывает все подтверждённые изменения и ждёт окончания записи
+     *
+     * @throws IllegalStateException если обёрнутый репозиторий не принял изменения
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            if (!running && !pending.isEmpty()) {
+                throw new IllegalStateException("Write-behind repository is closed");
+            }
+            failure = null;
+            flushRequested = true;
+            work.signal();
+            while ((!pending.isEmpty() || !inFlight.isEmpty()) && failure == null) {
+                drained.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Write-behind flush failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает изменения и останавливает фоновый поток, после этого запись запрещена
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            lock.lock();
+            try {
+                running = false;
+                work.signal();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flusher.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size() + inFlight.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return сколько записей склеилось с более ранней записью того же продукта
+     */
+    public long getCoalescedWrites() {
+        lock.lock();
+        try {
+            return coalescedWrites;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushedBatches() {
+        lock.lock();
+        try {
+            return flushedBatches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Write write) {
+        lock.lock();
+        try {
+            while (running && pending.size() >= maxPending && !pending.containsKey(write.uuid())) {
+                work.signal();
+                notFull.awaitUninterruptibly();
+            }
+            if (!running) {
+                throw new IllegalStateException("Write-behind repository is closed");
+            }
+            if (pending.put(write.uuid(), write) != null) {
+                coalescedWrites++;
+            }
+            if (pending.size() >= batchSize) {
+                work.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Write overlay(UUID uuid) {
+        Write write = pending.get(uuid);
+        return write != null ? write : inFlight.get(uuid);
+    }
+
+    private boolean hasOverlay() {
+        lock.lock();
+        try {
+            return !pending.isEmpty() || !inFlight.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<UUID, Write> snapshot() {
+        lock.lock();
+        try {
+            Map<UUID, Write> overlay = new LinkedHashMap<>(inFlight);
+            pending.forEach(overlay::put);
+            return overlay;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            List<Write> batch = nextBatch();
+            if (batch == null) {
+                return;
+            }
+            RuntimeException error = null;
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            complete(batch, error);
+        }
+    }
+
+    /**
+     * Ждёт, пока наберётся пакет, пройдёт интервал или будет запрошен сброс, и переносит пакет в запись
+     *
+     * @return пакет изменений или null если поток пора остановить
+     */
+    private List<Write> nextBatch() {
+        lock.lock();
+        try {
+            while (true) {
+                long remaining = flushIntervalNanos;
+                while (running && !flushRequested && (failure != null || pending.size() < batchSize)
+                        && remaining > 0) {
+                    try {
+                        remaining = work.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        running = false;
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    List<Write> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+                    Iterator<Write> writes = pending.values().iterator();
+                    while (writes.hasNext() && batch.size() < batchSize) {
+                        Write write = writes.next();
+                        writes.remove();
+                        inFlight.put(write.uuid(), write);
+                        batch.add(write);
+                    }
+                    notFull.signalAll();
+                    return batch;
+                }
+                flushRequested = false;
+                drained.signalAll();
+                if (!running) {
+                    return null;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<Write> batch) {
+        List<Product> saves = batch.stream()
+                .map(Write::product)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!saves.isEmpty()) {
+            productRepository.saveAll(saves);
+        }
+        batch.stream()
+                .filter(write -> write.product() == null)
+                .forEach(write -> productRepository.delete(write.uuid()));
+    }
+
+    /**
+     * После ошибки изменения возвращаются в буфер, если их не перекрыла более новая запись
+     */
+    private void complete(List<Write> batch, RuntimeException error) {
+        lock.lock();
+        try {
+            inFlight.clear();
+            if (error == null) {
+                flushedBatches++;
+            } else {
+                batch.forEach(write -> pending.putIfAbsent(write.uuid(), write));
+                failure = error;
+                flushRequested = false;
+            }
+            drained.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Write(UUID uuid, Product product) {
+    }
+}
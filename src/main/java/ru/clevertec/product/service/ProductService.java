@@ -1,9 +1,16 @@
 package ru.clevertec.product.service;
 
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.CreatedPage;
+import ru.clevertec.product.data.InfoProductColumns;
 import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.PriceChange;
 import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
 import ru.clevertec.product.exception.ProductNotFoundException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -25,6 +32,76 @@ public interface ProductService {
      */
     List<InfoProductDto> getAll();
 
+    /**
+     * Возвращает все существующие продукты в колоночном виде,
+     * для обхода без создания объекта на каждый продукт
+     *
+     * @return колонки с информацией о продуктах
+     */
+    InfoProductColumns getAllColumns();
+
+    /**
+     * Возвращает продукты, созданные в полуинтервале [from, to), в порядке создания
+     *
+     * @param from  начало интервала включительно
+     * @param to    конец интервала не включительно
+     * @param limit максимальное количество продуктов
+     * @return лист с информацией о продуктах
+     */
+    List<InfoProductDto> getCreatedBetween(LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Возвращает страницу продуктов, созданных после позиции курсора, в порядке создания
+     *
+     * @param cursor позиция, с которой продолжается обход (не включительно)
+     * @param limit  максимальное количество продуктов
+     * @return страница с информацией о продуктах и курсором следующей страницы
+     */
+    CreatedPage getCreatedSince(CreatedCursor cursor, int limit);
+
+    /**
+     * Возвращает k самых дешёвых или самых дорогих продуктов
+     *
+     * @param k         максимальное количество продуктов
+     * @param direction ASC - сначала самые дешёвые, DESC - сначала самые дорогие
+     * @return лист с информацией о продуктах
+     */
+    List<InfoProductDto> getTopByPrice(int k, SortDirection direction);
+
+    /**
+     * Возвращает k последних созданных продуктов, начиная с самого нового
+     *
+     * @param k максимальное количество продуктов
+     * @return лист с информацией о продуктах
+     */
+    List<InfoProductDto> getTopByCreated(int k);
+
+    /**
+     * Возвращает продукты по запросу с условиями на имя, стоимость и время создания
+     *
+     * @param query условия, сортировка и ограничение
+     * @return лист с информацией о продуктах в порядке запроса
+     */
+    List<InfoProductDto> query(ProductQuery query);
+
+    /**
+     * Описывает, как будет выполнен запрос: способ доступа, фильтр, сортировку и ограничение
+     *
+     * @param query условия, сортировка и ограничение
+     * @return текст плана запроса
+     */
+    String explain(ProductQuery query);
+
+    /**
+     * Возвращает изменения стоимости продукта в полуинтервале [from, to), включая стоимость при создании
+     *
+     * @param uuid идентификатор продукта
+     * @param from начало интервала включительно
+     * @param to   конец интервала не включительно
+     * @return изменения стоимости в порядке времени, пустой список если их не было
+     */
+    List<PriceChange> getPriceHistory(UUID uuid, LocalDateTime from, LocalDateTime to);
+
     /**
      * Создаёт новый продукт из DTO
      *
@@ -38,8 +115,9 @@ public interface ProductService {
      *
      * @param uuid       идентификатор продукта для обновления
      * @param productDto DTO с информацией об обновлении
+     * @return true если продукт был записан, false если DTO невалидно или не отличается от продукта
      */
-    void update(UUID uuid, ProductDto productDto);
+    boolean update(UUID uuid, ProductDto productDto);
 
     /**
      * Удаляет существующий продукт
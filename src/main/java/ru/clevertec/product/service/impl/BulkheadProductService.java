@@ -0,0 +1,113 @@
+package ru.clevertec.product.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.CreatedPage;
+import ru.clevertec.product.data.InfoProductColumns;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.PriceChange;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.exception.OverloadedException;
+import ru.clevertec.product.limit.AdaptiveLimiter;
+import ru.clevertec.product.service.ProductService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Разносит операции сервиса по отдельным лимитам (bulkhead):
+ * точечные чтения, полные выборки и записи не отнимают друг у друга место.
+ * Вызов сверх лимита сразу завершается {@link OverloadedException}
+ */
+@RequiredArgsConstructor
+public class BulkheadProductService implements ProductService {
+
+    private final ProductService productService;
+    private final AdaptiveLimiter pointReads;
+    private final AdaptiveLimiter scans;
+    private final AdaptiveLimiter writes;
+
+    @Override
+    public InfoProductDto get(UUID uuid) {
+        return call(pointReads, "get", () -> productService.get(uuid));
+    }
+
+    @Override
+    public List<InfoProductDto> getAll() {
+        return call(scans, "getAll", productService::getAll);
+    }
+
+    @Override
+    public InfoProductColumns getAllColumns() {
+        return call(scans, "getAllColumns", productService::getAllColumns);
+    }
+
+    @Override
+    public List<InfoProductDto> getCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return call(scans, "getCreatedBetween", () -> productService.getCreatedBetween(from, to, limit));
+    }
+
+    @Override
+    public CreatedPage getCreatedSince(CreatedCursor cursor, int limit) {
+        return call(scans, "getCreatedSince", () -> productService.getCreatedSince(cursor, limit));
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByPrice(int k, SortDirection direction) {
+        return call(scans, "getTopByPrice", () -> productService.getTopByPrice(k, direction));
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByCreated(int k) {
+        return call(scans, "getTopByCreated", () -> productService.getTopByCreated(k));
+    }
+
+    @Override
+    public List<InfoProductDto> query(ProductQuery query) {
+        return call(scans, "query", () -> productService.query(query));
+    }
+
+    @Override
+    public String explain(ProductQuery query) {
+        return productService.explain(query);
+    }
+
+    @Override
+    public List<PriceChange> getPriceHistory(UUID uuid, LocalDateTime from, LocalDateTime to) {
+        return call(pointReads, "getPriceHistory", () -> productService.getPriceHistory(uuid, from, to));
+    }
+
+    @Override
+    public UUID create(ProductDto productDto) {
+        return call(writes, "create", () -> productService.create(productDto));
+    }
+
+    @Override
+    public boolean update(UUID uuid, ProductDto productDto) {
+        return call(writes, "update", () -> productService.update(uuid, productDto));
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        call(writes, "delete", () -> {
+            productService.delete(uuid);
+            return null;
+        });
+    }
+
+    private static <T> T call(AdaptiveLimiter limiter, String operation, Supplier<T> action) {
+        if (!limiter.tryAcquire()) {
+            throw new OverloadedException(operation);
+        }
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+}
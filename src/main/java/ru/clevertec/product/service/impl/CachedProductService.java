@@ -0,0 +1,106 @@
+package ru.clevertec.product.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import ru.clevertec.product.cache.InfoProductCache;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.CreatedPage;
+import ru.clevertec.product.data.InfoProductColumns;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.PriceChange;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.service.ProductService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class CachedProductService implements ProductService {
+
+    private final ProductService productService;
+    private final InfoProductCache cache;
+
+    @Override
+    public InfoProductDto get(UUID uuid) {
+        return cache.get(uuid)
+                .orElseGet(() -> load(uuid));
+    }
+
+    @Override
+    public List<InfoProductDto> getAll() {
+        return productService.getAll();
+    }
+
+    @Override
+    public InfoProductColumns getAllColumns() {
+        return productService.getAllColumns();
+    }
+
+    @Override
+    public List<InfoProductDto> getCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return productService.getCreatedBetween(from, to, limit);
+    }
+
+    @Override
+    public CreatedPage getCreatedSince(CreatedCursor cursor, int limit) {
+        return productService.getCreatedSince(cursor, limit);
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByPrice(int k, SortDirection direction) {
+        return productService.getTopByPrice(k, direction);
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByCreated(int k) {
+        return productService.getTopByCreated(k);
+    }
+
+    @Override
+    public List<InfoProductDto> query(ProductQuery query) {
+        return productService.query(query);
+    }
+
+    @Override
+    public String explain(ProductQuery query) {
+        return productService.explain(query);
+    }
+
+    @Override
+    public List<PriceChange> getPriceHistory(UUID uuid, LocalDateTime from, LocalDateTime to) {
+        return productService.getPriceHistory(uuid, from, to);
+    }
+
+    @Override
+    public UUID create(ProductDto productDto) {
+        return productService.create(productDto);
+    }
+
+    @Override
+    public boolean update(UUID uuid, ProductDto productDto) {
+        boolean updated = productService.update(uuid, productDto);
+        if (updated) {
+            cache.invalidate(uuid);
+        }
+        return updated;
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        productService.delete(uuid);
+        cache.invalidate(uuid);
+    }
+
+    /**
+     * Версия берётся до чтения: если запись успела инвалидировать продукт, прочитанное значение
+     * может быть старым и в кэш не кладётся
+     */
+    private InfoProductDto load(UUID uuid) {
+        long generation = cache.generation(uuid);
+        InfoProductDto infoProductDto = productService.get(uuid);
+        cache.putIfNotInvalidated(infoProductDto, generation);
+        return infoProductDto;
+    }
+}
@@ -1,18 +1,31 @@
 package ru.clevertec.product.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.CreatedPage;
+import ru.clevertec.product.data.InfoProductColumns;
 import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.PriceChange;
 import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
 import ru.clevertec.product.entity.Product;
 import ru.clevertec.product.entity.ProductValidator;
 import ru.clevertec.product.exception.NotValidException;
 import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.history.PriceHistoryStore;
+import ru.clevertec.product.history.impl.DeltaPriceHistoryStore;
 import ru.clevertec.product.mapper.ProductMapper;
 import ru.clevertec.product.repository.ProductRepository;
 import ru.clevertec.product.service.ProductService;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
@@ -20,6 +33,14 @@ public class ProductServiceImpl implements ProductService {
     private final ProductMapper mapper;
     private final ProductRepository productRepository;
     private final ProductValidator productValidator;
+    private final PriceHistoryStore priceHistoryStore;
+    private final LongAdder appliedUpdates = new LongAdder();
+    private final LongAdder skippedUpdates = new LongAdder();
+
+    public ProductServiceImpl(ProductMapper mapper, ProductRepository productRepository,
+                              ProductValidator productValidator) {
+        this(mapper, productRepository, productValidator, new DeltaPriceHistoryStore());
+    }
 
     @Override
     public InfoProductDto get(UUID uuid) {
@@ -36,10 +57,71 @@ public class ProductServiceImpl implements ProductService {
                 .toList();
     }
 
+    @Override
+    public InfoProductColumns getAllColumns() {
+        return mapper.toInfoProductColumns(productRepository.findAll());
+    }
+
+    @Override
+    public List<InfoProductDto> getCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return productRepository.findCreatedBetween(from, to, limit).stream()
+                .map(mapper::toInfoProductDto)
+                .toList();
+    }
+
+    @Override
+    public CreatedPage getCreatedSince(CreatedCursor cursor, int limit) {
+        List<Product> productList = productRepository.findCreatedSince(cursor, limit);
+        CreatedCursor next = productList.isEmpty()
+                ? null
+                : CreatedCursor.of(productList.get(productList.size() - 1));
+        return new CreatedPage(productList.stream()
+                .map(mapper::toInfoProductDto)
+                .toList(), next);
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByPrice(int k, SortDirection direction) {
+        return productRepository.findTopByPrice(k, direction).stream()
+                .map(mapper::toInfoProductDto)
+                .toList();
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByCreated(int k) {
+        return productRepository.findTopByCreated(k).stream()
+                .map(mapper::toInfoProductDto)
+                .toList();
+    }
+
+    @Override
+    public List<InfoProductDto> query(ProductQuery query) {
+        try (Stream<Product> products = productRepository.query(query)) {
+            return products
+                    .map(mapper::toInfoProductDto)
+                    .toList();
+        }
+    }
+
+    @Override
+    public String explain(ProductQuery query) {
+        return productRepository.plan(query).explain();
+    }
+
+    @Override
+    public List<PriceChange> getPriceHistory(UUID uuid, LocalDateTime from, LocalDateTime to) {
+        return priceHistoryStore.findHistory(uuid, from, to);
+    }
+
     @Override
     public UUID create(ProductDto productDto) {
         if (productValidator.checkValidation(productDto)) {
-            Product productWithUUID = productRepository.save(mapper.toProduct(productDto));
+            Product product = mapper.toProduct(productDto);
+            if (product.getCreated() == null) {
+                product.setCreated(LocalDateTime.now());
+            }
+            Product productWithUUID = productRepository.save(product);
+            priceHistoryStore.record(productWithUUID.getUuid(), product.getCreated(), product.getPrice());
             return productWithUUID.getUuid();
         } else {
             throw new NotValidException();
@@ -47,17 +129,50 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public void update(UUID uuid, ProductDto productDto) {
+    public boolean update(UUID uuid, ProductDto productDto) {
         if (productValidator.checkValidation(productDto)) {
             Product product = productRepository.findById(uuid)
                     .orElseThrow(() -> new ProductNotFoundException(uuid));
+            if (isUnchanged(product, productDto)) {
+                skippedUpdates.increment();
+                return false;
+            }
+            BigDecimal previousPrice = product.getPrice();
             Product productMerge = mapper.merge(product, productDto);
             productRepository.save(productMerge);
+            if (previousPrice == null || previousPrice.compareTo(productMerge.getPrice()) != 0) {
+                priceHistoryStore.record(uuid, LocalDateTime.now(), productMerge.getPrice());
+            }
+            appliedUpdates.increment();
+            return true;
         }
+        return false;
     }
 
     @Override
     public void delete(UUID uuid) {
         productRepository.delete(uuid);
+        priceHistoryStore.remove(uuid);
+    }
+
+    /**
+     * @return количество обновлений, записанных в репозиторий
+     */
+    public long getAppliedUpdates() {
+        return appliedUpdates.sum();
+    }
+
+    /**
+     * @return количество обновлений, пропущенных из-за отсутствия изменений
+     */
+    public long getSkippedUpdates() {
+        return skippedUpdates.sum();
+    }
+
+    private boolean isUnchanged(Product product, ProductDto productDto) {
+        return Objects.equals(product.getName(), productDto.name())
+                && Objects.equals(product.getDescription(), productDto.description())
+                && product.getPrice() != null
+                && product.getPrice().compareTo(productDto.price()) == 0;
     }
 }
@@ -0,0 +1,164 @@
+package ru.clevertec.product.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.CreatedPage;
+import ru.clevertec.product.data.InfoProductColumns;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.PriceChange;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.service.ProductService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Объединяет одновременные запросы {@link #get(UUID)} одного продукта:
+ * пока загрузка выполняется, все запросы того же идентификатора получают её результат
+ */
+@RequiredArgsConstructor
+public class SingleFlightProductService implements ProductService {
+
+    private final ProductService productService;
+    private final Executor executor;
+    private final Map<UUID, CompletableFuture<InfoProductDto>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * ищет продукт по идентификатору, не блокируя вызывающий поток
+     *
+     * @param uuid идентификатор продукта
+     * @return future с найденным продуктом или с {@link ru.clevertec.product.exception.ProductNotFoundException}
+     */
+    public CompletableFuture<InfoProductDto> getAsync(UUID uuid) {
+        if (uuid == null) {
+            // ConcurrentHashMap не хранит null-ключи, а объединять поиск отсутствующего продукта незачем
+            return CompletableFuture.supplyAsync(() -> productService.get(null), executor);
+        }
+        CompletableFuture<InfoProductDto> load = new CompletableFuture<>();
+        CompletableFuture<InfoProductDto> existing = inFlight.putIfAbsent(uuid, load);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+        loads.increment();
+        try {
+            executor.execute(() -> complete(uuid, load));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(uuid, load);
+            load.completeExceptionally(e);
+        }
+        return load.copy();
+    }
+
+    @Override
+    public InfoProductDto get(UUID uuid) {
+        if (uuid == null) {
+            return productService.get(null);
+        }
+        try {
+            return getAsync(uuid).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public List<InfoProductDto> getAll() {
+        return productService.getAll();
+    }
+
+    @Override
+    public InfoProductColumns getAllColumns() {
+        return productService.getAllColumns();
+    }
+
+    @Override
+    public List<InfoProductDto> getCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return productService.getCreatedBetween(from, to, limit);
+    }
+
+    @Override
+    public CreatedPage getCreatedSince(CreatedCursor cursor, int limit) {
+        return productService.getCreatedSince(cursor, limit);
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByPrice(int k, SortDirection direction) {
+        return productService.getTopByPrice(k, direction);
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByCreated(int k) {
+        return productService.getTopByCreated(k);
+    }
+
+    @Override
+    public List<InfoProductDto> query(ProductQuery query) {
+        return productService.query(query);
+    }
+
+    @Override
+    public String explain(ProductQuery query) {
+        return productService.explain(query);
+    }
+
+    @Override
+    public List<PriceChange> getPriceHistory(UUID uuid, LocalDateTime from, LocalDateTime to) {
+        return productService.getPriceHistory(uuid, from, to);
+    }
+
+    @Override
+    public UUID create(ProductDto productDto) {
+        return productService.create(productDto);
+    }
+
+    @Override
+    public boolean update(UUID uuid, ProductDto productDto) {
+        return productService.update(uuid, productDto);
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        productService.delete(uuid);
+    }
+
+    /**
+     * @return количество загрузок, переданных в обёрнутый сервис
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * @return количество запросов, присоединившихся к уже выполняемой загрузке
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    private void complete(UUID uuid, CompletableFuture<InfoProductDto> load) {
+        try {
+            InfoProductDto infoProductDto = productService.get(uuid);
+            inFlight.remove(uuid, load);
+            load.complete(infoProductDto);
+        } catch (Throwable e) {
+            inFlight.remove(uuid, load);
+            load.completeExceptionally(e);
+        }
+    }
+}
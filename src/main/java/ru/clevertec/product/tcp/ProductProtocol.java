@@ -0,0 +1,52 @@
+package ru.clevertec.product.tcp;
+
+/**
+ * Бинарный протокол {@link ProductTcpServer}. Кадр запроса - длина кадра без заголовка длины,
+ * номер запроса, операция и её аргументы в формате {@link ru.clevertec.product.codec.ProductCodec};
+ * кадр ответа - длина, номер запроса, статус и результат или текст ошибки.
+ * Клиент может отправить сколько угодно запросов, не дожидаясь ответов, и сопоставляет ответы
+ * с запросами по номеру. Порядок байт - big-endian
+ * <pre>
+ * GET      uuid         -> InfoProductDto
+ * GET_ALL               -> int количество, InfoProductDto...
+ * CREATE   ProductDto   -> uuid
+ * UPDATE   uuid, ProductDto -> byte 1 если продукт обновлён
+ * DELETE   uuid         ->
+ * </pre>
+ * Ответ, который не помещается в {@link #MAX_FRAME_SIZE}, заменяется ошибкой TOO_LARGE
+ */
+public final class ProductProtocol {
+
+    public static final int LENGTH_HEADER = Integer.BYTES;
+    public static final int HEADER_SIZE = Long.BYTES + Byte.BYTES;
+
+    /**
+     * кадр больше этого размера считается ошибкой протокола, соединение закрывается
+     */
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private ProductProtocol() {
+    }
+
+    public enum Operation {
+        GET, GET_ALL, CREATE, UPDATE, DELETE
+    }
+
+    public enum Status {
+        OK, NOT_FOUND, NOT_VALID, BAD_REQUEST, OVERLOADED, ERROR, TOO_LARGE
+    }
+
+    /**
+     * @return операция или null для неизвестного кода
+     */
+    static Operation operation(byte code) {
+        return code >= 0 && code < OPERATIONS.length ? OPERATIONS[code] : null;
+    }
+
+    static Status status(byte code) {
+        return code >= 0 && code < STATUSES.length ? STATUSES[code] : Status.ERROR;
+    }
+}
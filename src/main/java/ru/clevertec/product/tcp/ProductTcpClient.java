@@ -0,0 +1,345 @@
+package ru.clevertec.product.tcp;
+
+import ru.clevertec.product.codec.ProductCodec;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.NotValidException;
+import ru.clevertec.product.exception.OverloadedException;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.tcp.ProductProtocol.Operation;
+import ru.clevertec.product.tcp.ProductProtocol.Status;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Клиент {@link ProductTcpServer}: одно соединение, на котором одновременно выполняется сколько угодно
+ * запросов из любых потоков. Запрос кодируется в общий прямой буфер, поток записи отправляет всё
+ * накопившееся за время предыдущей записи одним вызовом, поток чтения завершает future по номеру запроса.
+ * Количество запросов без ответа ограничено: сверх лимита отправка ждёт ответов.
+ * Future завершаются в потоке чтения, поэтому продолжения не должны блокироваться и отправлять запросы
+ * с ожиданием - это остановит чтение ответов
+ */
+public class ProductTcpClient implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4096;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    private final ProductCodec codec = new ProductCodec();
+    private final SocketChannel channel;
+    private final Map<Long, Call> calls = new ConcurrentHashMap<>();
+    private final Semaphore inFlight;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queued = lock.newCondition();
+    private final Thread writer;
+    private final Thread reader;
+    private ByteBuffer pending = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private ByteBuffer sending = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long nextRequestId;
+    private boolean closed;
+    private IOException failure;
+
+    public ProductTcpClient(InetSocketAddress address) throws IOException {
+        this(address, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param maxInFlight сколько запросов может ждать ответа одновременно
+     */
+    public ProductTcpClient(InetSocketAddress address, int maxInFlight) throws IOException {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in-flight requests must be positive: " + maxInFlight);
+        }
+        this.inFlight = new Semaphore(maxInFlight);
+        this.channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.writer = new Thread(this::write, "product-tcp-client-writer-" + address);
+        this.reader = new Thread(this::read, "product-tcp-client-reader-" + address);
+        writer.setDaemon(true);
+        reader.setDaemon(true);
+        writer.start();
+        reader.start();
+    }
+
+    public CompletableFuture<InfoProductDto> getAsync(UUID uuid) {
+        return send(Operation.GET, uuid, null);
+    }
+
+    public CompletableFuture<List<InfoProductDto>> getAllAsync() {
+        return send(Operation.GET_ALL, null, null);
+    }
+
+    public CompletableFuture<UUID> createAsync(ProductDto productDto) {
+        return send(Operation.CREATE, null, productDto);
+    }
+
+    public CompletableFuture<Boolean> updateAsync(UUID uuid, ProductDto productDto) {
+        return send(Operation.UPDATE, uuid, productDto);
+    }
+
+    public CompletableFuture<Void> deleteAsync(UUID uuid) {
+        return send(Operation.DELETE, uuid, null);
+    }
+
+    /**
+     * @throws ProductNotFoundException если продукта нет
+     */
+    public InfoProductDto get(UUID uuid) {
+        return await(getAsync(uuid));
+    }
+
+    public List<InfoProductDto> getAll() {
+        return await(getAllAsync());
+    }
+
+    /**
+     * @throws NotValidException если сервер отклонил продукт
+     */
+    public UUID create(ProductDto productDto) {
+        return await(createAsync(productDto));
+    }
+
+    public boolean update(UUID uuid, ProductDto productDto) {
+        return await(updateAsync(uuid, productDto));
+    }
+
+    public void delete(UUID uuid) {
+        await(deleteAsync(uuid));
+    }
+
+    /**
+     * Запросы без ответа завершаются {@link UncheckedIOException}
+     */
+    @Override
+    public void close() {
+        fail(new IOException("Client is closed"));
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+            reader.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Номер запроса выдаётся и вызов регистрируется под той же блокировкой, что и закрытие,
+     * поэтому {@link #fail} видит все вызовы, которые успели попасть в очередь
+     */
+    private <T> CompletableFuture<T> send(Operation operation, UUID uuid, ProductDto productDto) {
+        int payloadSize = (uuid == null ? 0 : 2 * Long.BYTES) + (productDto == null ? 0 : codec.sizeOf(productDto));
+        CompletableFuture<T> future = new CompletableFuture<>();
+        inFlight.acquireUninterruptibly();
+        lock.lock();
+        try {
+            if (closed) {
+                inFlight.release();
+                future.completeExceptionally(new UncheckedIOException(failure));
+                return future;
+            }
+            long requestId = nextRequestId++;
+            calls.put(requestId, new Call(operation, uuid, future));
+            ensureWritable(ProductProtocol.LENGTH_HEADER + ProductProtocol.HEADER_SIZE + payloadSize);
+            boolean wasEmpty = pending.position() == 0;
+            pending.putInt(ProductProtocol.HEADER_SIZE + payloadSize)
+                    .putLong(requestId)
+                    .put((byte) operation.ordinal());
+            if (uuid != null) {
+                codec.writeUuid(pending, uuid);
+            }
+            if (productDto != null) {
+                codec.writeProductDto(pending, productDto);
+            }
+            if (wasEmpty) {
+                queued.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    private void ensureWritable(int bytes) {
+        if (pending.remaining() < bytes) {
+            int capacity = Math.max(pending.capacity() * 2, pending.position() + bytes);
+            pending = ByteBuffer.allocateDirect(capacity).put(pending.flip());
+        }
+    }
+
+    /**
+     * Буферы меняются местами: пока один уходит в сеть, в другой кодируются новые запросы
+     */
+    private void write() {
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    while (pending.position() == 0 && !closed) {
+                        queued.await();
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    ByteBuffer full = pending;
+                    pending = sending;
+                    sending = full;
+                } finally {
+                    lock.unlock();
+                }
+                sending.flip();
+                while (sending.hasRemaining()) {
+                    channel.write(sending);
+                }
+                sending.clear();
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void read() {
+        ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try {
+            while (true) {
+                if (channel.read(input) < 0) {
+                    throw new EOFException("Connection closed by server");
+                }
+                input.flip();
+                while (true) {
+                    if (input.remaining() < ProductProtocol.LENGTH_HEADER) {
+                        break;
+                    }
+                    int size = input.getInt(input.position());
+                    if (size < ProductProtocol.HEADER_SIZE || size > ProductProtocol.MAX_FRAME_SIZE) {
+                        throw new IOException("Invalid frame size: " + size);
+                    }
+                    int frameSize = ProductProtocol.LENGTH_HEADER + size;
+                    if (input.remaining() < frameSize) {
+                        if (input.capacity() < frameSize) {
+                            input = ByteBuffer.allocateDirect(frameSize).put(input).flip();
+                        }
+                        break;
+                    }
+                    int limit = input.limit();
+                    int frameEnd = input.position() + frameSize;
+                    input.position(input.position() + ProductProtocol.LENGTH_HEADER).limit(frameEnd);
+                    complete(input);
+                    input.limit(limit).position(frameEnd);
+                }
+                input.compact();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void complete(ByteBuffer input) {
+        long requestId = input.getLong();
+        Status status = ProductProtocol.status(input.get());
+        Call call = calls.remove(requestId);
+        if (call == null) {
+            return;
+        }
+        inFlight.release();
+        try {
+            if (status == Status.OK) {
+                call.complete(readResult(call.operation(), input));
+            } else {
+                call.future().completeExceptionally(error(status, call, codec.readString(input)));
+            }
+        } catch (RuntimeException e) {
+            call.future().completeExceptionally(e);
+        }
+    }
+
+    private Object readResult(Operation operation, ByteBuffer input) {
+        return switch (operation) {
+            case GET -> codec.readInfoProductDto(input);
+            case GET_ALL -> {
+                int count = input.getInt();
+                List<InfoProductDto> products = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    products.add(codec.readInfoProductDto(input));
+                }
+                yield products;
+            }
+            case CREATE -> codec.readUuid(input);
+            case UPDATE -> input.get() != 0;
+            case DELETE -> null;
+        };
+    }
+
+    private static RuntimeException error(Status status, Call call, String message) {
+        return switch (status) {
+            case NOT_FOUND -> new ProductNotFoundException(call.uuid());
+            case NOT_VALID -> new NotValidException();
+            case OVERLOADED -> new OverloadedException(call.operation().name());
+            case BAD_REQUEST -> new IllegalArgumentException(message);
+            case TOO_LARGE -> new IllegalStateException(message);
+            case OK, ERROR -> new IllegalStateException("Server error: " + message);
+        };
+    }
+
+    private void fail(IOException cause) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            failure = cause;
+            queued.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // соединение и так потеряно
+        }
+        UncheckedIOException exception = new UncheckedIOException(cause);
+        for (Long requestId : calls.keySet()) {
+            Call call = calls.remove(requestId);
+            if (call != null) {
+                inFlight.release();
+                call.future().completeExceptionally(exception);
+            }
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Call(Operation operation, UUID uuid, CompletableFuture<?> future) {
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object result) {
+            ((CompletableFuture<Object>) future).complete(result);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package ru.clevertec.product.tcp;
+
+import ru.clevertec.product.codec.ProductCodec;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.exception.NotValidException;
+import ru.clevertec.product.exception.OverloadedException;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.tcp.ProductProtocol.Operation;
+import ru.clevertec.product.tcp.ProductProtocol.Status;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Сервер бинарного протокола {@link ProductProtocol} поверх {@link ProductService}.
+ * Соединения распределяются по кругу между несколькими циклами NIO, у каждого свой {@link Selector} и поток.
+ * Все пришедшие целиком запросы одного чтения выполняются подряд, а ответы копятся в буфере
+ * и уходят одной записью, поэтому конвейер из тысяч запросов стоит нескольких системных вызовов.
+ * Буферы чтения и записи у соединения прямые и переиспользуются, а вырастают только под кадр больше себя.
+ * Пока клиент не забрал ответы, новые запросы соединения не читаются.
+ * Сервис вызывается прямо в потоке цикла: долгий вызов задерживает остальные соединения этого цикла
+ */
+public class ProductTcpServer implements AutoCloseable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    private final ProductService productService;
+    private final ProductCodec codec = new ProductCodec();
+    private final ServerSocketChannel server;
+    private final EventLoop[] loops;
+    private final int bufferSize;
+    private volatile boolean running = true;
+    private int nextLoop;
+
+    public ProductTcpServer(ProductService productService, InetSocketAddress address) throws IOException {
+        this(productService, address, Runtime.getRuntime().availableProcessors(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param loops      количество циклов NIO и их потоков
+     * @param bufferSize начальный размер буферов чтения и записи соединения
+     */
+    public ProductTcpServer(ProductService productService, InetSocketAddress address,
+                            int loops, int bufferSize) throws IOException {
+        if (loops < 1 || bufferSize < ProductProtocol.LENGTH_HEADER + ProductProtocol.HEADER_SIZE) {
+            throw new IllegalArgumentException("Loops must be positive and buffer must fit a frame header");
+        }
+        this.productService = productService;
+        this.bufferSize = bufferSize;
+        this.server = ServerSocketChannel.open().bind(address);
+        server.configureBlocking(false);
+        this.loops = new EventLoop[loops];
+        for (int i = 0; i < loops; i++) {
+            this.loops[i] = new EventLoop(i);
+        }
+        server.register(this.loops[0].selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public void start() {
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * @return адрес, на котором слушает сервер (с реальным портом, если передан порт 0)
+     */
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) server.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        try {
+            for (EventLoop loop : loops) {
+                loop.thread.join(CLOSE_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (EventLoop loop : loops) {
+            if (!loop.thread.isAlive()) {
+                loop.closeAll();
+            }
+        }
+        server.close();
+    }
+
+    private final class EventLoop implements Runnable {
+
+        private final Selector selector;
+        private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+
+        private EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "product-tcp-loop-" + index);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(this::handle);
+                    registerAccepted();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                closeAll();
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isWritable()) {
+                    connection.flush();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.read();
+                }
+            } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                // ошибка одного соединения не должна останавливать цикл со всеми остальными
+                connection.close();
+            }
+        }
+
+        private void accept() {
+            try {
+                SocketChannel channel = server.accept();
+                if (channel == null) {
+                    return;
+                }
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                EventLoop target = loops[nextLoop++ % loops.length];
+                target.accepted.add(channel);
+                if (target == this) {
+                    registerAccepted();
+                } else {
+                    target.selector.wakeup();
+                }
+            } catch (IOException e) {
+                // ошибка одного подключения не должна останавливать приём остальных
+            }
+        }
+
+        private void registerAccepted() {
+            SocketChannel channel;
+            while ((channel = accepted.poll()) != null) {
+                try {
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    key.attach(new Connection(channel, key));
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                }
+            }
+        }
+
+        private void closeAll() {
+            accepted.forEach(ProductTcpServer::closeQuietly);
+            accepted.clear();
+            if (!selector.isOpen()) {
+                return;
+            }
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection connection) {
+                    connection.close();
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // закрываемся, сообщать некому
+            }
+        }
+    }
+
+    /**
+     * Состояние соединения. Буфер ответов всегда в режиме записи: позиция - конец ещё не отправленных данных
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private ByteBuffer input = ByteBuffer.allocateDirect(bufferSize);
+        private ByteBuffer output = ByteBuffer.allocateDirect(bufferSize);
+        private boolean reading = true;
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        private void read() throws IOException {
+            if (channel.read(input) < 0) {
+                close();
+                return;
+            }
+            input.flip();
+            while (processFrame()) {
+                // выполняем все запросы, пришедшие целиком
+            }
+            input.compact();
+            flush();
+        }
+
+        /**
+         * @return false если следующий кадр пришёл не полностью
+         */
+        private boolean processFrame() throws IOException {
+            if (input.remaining() < ProductProtocol.LENGTH_HEADER) {
+                return false;
+            }
+            int size = input.getInt(input.position());
+            if (size < ProductProtocol.HEADER_SIZE || size > ProductProtocol.MAX_FRAME_SIZE) {
+                throw new IOException("Invalid frame size: " + size);
+            }
+            int frameSize = ProductProtocol.LENGTH_HEADER + size;
+            if (input.remaining() < frameSize) {
+                if (input.capacity() < frameSize) {
+                    input = ByteBuffer.allocateDirect(frameSize).put(input).flip();
+                }
+                return false;
+            }
+            int limit = input.limit();
+            int frameEnd = input.position() + frameSize;
+            input.position(input.position() + ProductProtocol.LENGTH_HEADER).limit(frameEnd);
+            long requestId = input.getLong();
+            Operation operation = ProductProtocol.operation(input.get());
+            int responseStart = output.position();
+            try {
+                execute(requestId, operation);
+            } catch (ProductNotFoundException e) {
+                writeError(responseStart, requestId, Status.NOT_FOUND, e.getMessage());
+            } catch (NotValidException e) {
+                writeError(responseStart, requestId, Status.NOT_VALID, e.getMessage());
+            } catch (MalformedFrameException e) {
+                writeError(responseStart, requestId, Status.BAD_REQUEST, e.getMessage());
+            } catch (OverloadedException e) {
+                writeError(responseStart, requestId, Status.OVERLOADED, e.getMessage());
+            } catch (ResponseTooLargeException e) {
+                writeError(responseStart, requestId, Status.TOO_LARGE, e.getMessage());
+            } catch (RuntimeException e) {
+                writeError(responseStart, requestId, Status.ERROR, "Internal error");
+            }
+            input.limit(limit).position(frameEnd);
+            return true;
+        }
+
+        /**
+         * Аргументы читаются и сервис вызывается до начала ответа, поэтому при исключении в буфере ответов
+         * остаётся не больше чем заголовок, который сбрасывает {@link #writeError}
+         */
+        private void execute(long requestId, Operation operation) {
+            if (operation == null) {
+                throw new MalformedFrameException("Unknown operation");
+            }
+            switch (operation) {
+                case GET -> {
+                    InfoProductDto infoProductDto = productService.get(readUuid());
+                    startResponse(requestId, Status.OK, codec.sizeOf(infoProductDto));
+                    codec.writeInfoProductDto(output, infoProductDto);
+                }
+                case GET_ALL -> {
+                    List<InfoProductDto> products = productService.getAll();
+                    long size = Integer.BYTES + products.stream()
+                            .mapToLong(codec::sizeOf)
+                            .sum();
+                    startResponse(requestId, Status.OK, size);
+                    output.putInt(products.size());
+                    products.forEach(infoProductDto -> codec.writeInfoProductDto(output, infoProductDto));
+                }
+                case CREATE -> {
+                    UUID uuid = productService.create(readProductDto());
+                    startResponse(requestId, Status.OK, 2 * Long.BYTES);
+                    codec.writeUuid(output, uuid);
+                }
+                case UPDATE -> {
+                    UUID uuid = readUuid();
+                    boolean updated = productService.update(uuid, readProductDto());
+                    startResponse(requestId, Status.OK, Byte.BYTES);
+                    output.put((byte) (updated ? 1 : 0));
+                }
+                case DELETE -> {
+                    productService.delete(readUuid());
+                    startResponse(requestId, Status.OK, 0);
+                }
+            }
+        }
+
+        /**
+         * Ошибки разбора аргументов - вина клиента, поэтому только они становятся BAD_REQUEST,
+         * а исключения сервиса с тем же типом остаются внутренними ошибками
+         */
+        private UUID readUuid() {
+            try {
+                return codec.readUuid(input);
+            } catch (BufferUnderflowException e) {
+                throw new MalformedFrameException("Truncated uuid");
+            }
+        }
+
+        /**
+         * Разбираются только байты клиента, поэтому любое исключение кодека означает испорченный кадр
+         */
+        private ProductDto readProductDto() {
+            try {
+                return codec.readProductDto(input);
+            } catch (BufferUnderflowException e) {
+                throw new MalformedFrameException("Truncated product");
+            } catch (RuntimeException e) {
+                throw new MalformedFrameException("Malformed product: " + e.getMessage());
+            }
+        }
+
+        private void writeError(int responseStart, long requestId, Status status, String message) {
+            output.position(responseStart);
+            startResponse(requestId, status, codec.sizeOf(message));
+            codec.writeString(output, message);
+        }
+
+        /**
+         * @throws ResponseTooLargeException если ответ не помещается в кадр: клиент закрыл бы соединение
+         *                                   со всеми его запросами, а так получит ошибку только этот запрос
+         */
+        private void startResponse(long requestId, Status status, long payloadSize) {
+            if (ProductProtocol.HEADER_SIZE + payloadSize > ProductProtocol.MAX_FRAME_SIZE) {
+                throw new ResponseTooLargeException(payloadSize);
+            }
+            int frameSize = ProductProtocol.HEADER_SIZE + (int) payloadSize;
+            ensureWritable(ProductProtocol.LENGTH_HEADER + frameSize);
+            output.putInt(frameSize)
+                    .putLong(requestId)
+                    .put((byte) status.ordinal());
+        }
+
+        /**
+         * Вырос буфер ответов однажды - значит, такие ответы бывают, поэтому он не сжимается обратно
+         */
+        private void ensureWritable(int bytes) {
+            if (output.remaining() >= bytes) {
+                return;
+            }
+            int capacity = Math.max(output.capacity() * 2, output.position() + bytes);
+            output = ByteBuffer.allocateDirect(capacity).put(output.flip());
+        }
+
+        /**
+         * Пока ответы не ушли целиком, соединение ждёт готовности к записи и не читает новые запросы
+         */
+        private void flush() throws IOException {
+            output.flip();
+            channel.write(output);
+            boolean drained = !output.hasRemaining();
+            output.compact();
+            if (drained != reading) {
+                reading = drained;
+                key.interestOps(drained ? SelectionKey.OP_READ : SelectionKey.OP_WRITE);
+            }
+        }
+
+        private void close() {
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+
+    private static final class MalformedFrameException extends RuntimeException {
+
+        private MalformedFrameException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class ResponseTooLargeException extends RuntimeException {
+
+        private ResponseTooLargeException(long payloadSize) {
+            super(String.format("Response of %d bytes exceeds frame limit of %d bytes",
+                    payloadSize, ProductProtocol.MAX_FRAME_SIZE));
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // соединение уже потеряно
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package ru.clevertec.product.trace;
+
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.CreatedPage;
+import ru.clevertec.product.data.InfoProductColumns;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.PriceChange;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.service.ProductService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Записывает каждый вызов сервиса с аргументами в бинарный файл трассы для {@link TraceReplayer}.
+ * Записи копятся в буфере и сбрасываются в файл при его заполнении и в {@link #close()}.
+ * Вызовы, завершившиеся исключением, тоже записываются: при воспроизведении они повторяют ту же нагрузку.
+ * Ошибка записи трассы не меняет результат вызова: запись отбрасывается и учитывается в {@link #getDropped()}
+ */
+public class RecordingProductService implements ProductService, Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final ProductService productService;
+    private final TraceCodec codec = new TraceCodec();
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long startNanos = System.nanoTime();
+    private long recorded;
+    private long dropped;
+
+    /**
+     * @param productService сервис, вызовы которого записываются
+     * @param trace          файл трассы, перезаписывается
+     */
+    public RecordingProductService(ProductService productService, Path trace) {
+        this(productService, trace, DEFAULT_BUFFER_SIZE);
+    }
+
+    public RecordingProductService(ProductService productService, Path trace, int bufferSize) {
+        if (bufferSize < TraceCodec.HEADER_SIZE) {
+            throw new IllegalArgumentException("Buffer size is too small: " + bufferSize);
+        }
+        this.productService = productService;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        try {
+            this.channel = FileChannel.open(trace, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        codec.writeHeader(buffer);
+    }
+
+    @Override
+    public InfoProductDto get(UUID uuid) {
+        long start = offset();
+        try {
+            return productService.get(uuid);
+        } finally {
+            append(TraceRecord.of(TraceOperation.GET, start, uuid));
+        }
+    }
+
+    @Override
+    public List<InfoProductDto> getAll() {
+        long start = offset();
+        try {
+            return productService.getAll();
+        } finally {
+            append(TraceRecord.of(TraceOperation.GET_ALL, start, null));
+        }
+    }
+
+    @Override
+    public InfoProductColumns getAllColumns() {
+        long start = offset();
+        try {
+            return productService.getAllColumns();
+        } finally {
+            append(TraceRecord.of(TraceOperation.GET_ALL_COLUMNS, start, null));
+        }
+    }
+
+    @Override
+    public List<InfoProductDto> getCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        long start = offset();
+        try {
+            return productService.getCreatedBetween(from, to, limit);
+        } finally {
+            append(new TraceRecord(TraceOperation.GET_CREATED_BETWEEN, start, null, null,
+                    from, to, null, limit, null));
+        }
+    }
+
+    @Override
+    public CreatedPage getCreatedSince(CreatedCursor cursor, int limit) {
+        long start = offset();
+        try {
+            return productService.getCreatedSince(cursor, limit);
+        } finally {
+            append(new TraceRecord(TraceOperation.GET_CREATED_SINCE, start, null, null,
+                    null, null, cursor, limit, null));
+        }
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByPrice(int k, SortDirection direction) {
+        long start = offset();
+        try {
+            return productService.getTopByPrice(k, direction);
+        } finally {
+            append(new TraceRecord(direction == SortDirection.ASC ? TraceOperation.TOP_BY_PRICE_ASC
+                    : TraceOperation.TOP_BY_PRICE_DESC, start, null, null, null, null, null, k, null));
+        }
+    }
+
+    @Override
+    public List<InfoProductDto> getTopByCreated(int k) {
+        long start = offset();
+        try {
+            return productService.getTopByCreated(k);
+        } finally {
+            append(new TraceRecord(TraceOperation.TOP_BY_CREATED, start, null, null, null, null, null, k, null));
+        }
+    }
+
+    /**
+     * Запросы не записываются: формат трассы не хранит условия запроса
+     */
+    @Override
+    public List<InfoProductDto> query(ProductQuery query) {
+        return productService.query(query);
+    }
+
+    @Override
+    public String explain(ProductQuery query) {
+        return productService.explain(query);
+    }
+
+    /**
+     * История стоимости не записывается: она только читает уже записанные изменения
+     */
+    @Override
+    public List<PriceChange> getPriceHistory(UUID uuid, LocalDateTime from, LocalDateTime to) {
+        return productService.getPriceHistory(uuid, from, to);
+    }
+
+    @Override
+    public UUID create(ProductDto productDto) {
+        long start = offset();
+        UUID uuid = null;
+        try {
+            uuid = productService.create(productDto);
+            return uuid;
+        } finally {
+            append(new TraceRecord(TraceOperation.CREATE, start, null, productDto,
+                    null, null, null, 0, uuid));
+        }
+    }
+
+    @Override
+    public boolean update(UUID uuid, ProductDto productDto) {
+        long start = offset();
+        try {
+            return productService.update(uuid, productDto);
+        } finally {
+            append(new TraceRecord(TraceOperation.UPDATE, start, uuid, productDto,
+                    null, null, null, 0, null));
+        }
+    }
+
+    @Override
+    public void delete(UUID uuid) {
+        long start = offset();
+        try {
+            productService.delete(uuid);
+        } finally {
+            append(TraceRecord.of(TraceOperation.DELETE, start, uuid));
+        }
+    }
+
+    /**
+     * @return количество записанных вызовов
+     */
+    public synchronized long getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * @return количество вызовов, которые не удалось записать
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Сбрасывает накопленные записи в файл
+     */
+    public synchronized void flush() {
+        try {
+            write(buffer.flip());
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        flush();
+        channel.close();
+    }
+
+    private long offset() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Вызывается из finally, поэтому не бросает исключений: иначе оно заменило бы результат
+     * или исключение обёрнутого сервиса
+     */
+    private synchronized void append(TraceRecord record) {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            int maxSize = codec.maxSizeOf(record);
+            if (buffer.remaining() < maxSize) {
+                flush();
+            }
+            if (buffer.remaining() < maxSize) {
+                ByteBuffer large = ByteBuffer.allocate(maxSize);
+                codec.write(large, record);
+                write(large.flip());
+            } else {
+                writeToBuffer(record);
+            }
+            recorded++;
+        } catch (RuntimeException e) {
+            dropped++;
+        }
+    }
+
+    /**
+     * Недописанная запись убирается из буфера, чтобы не испортить следующие
+     */
+    private void writeToBuffer(TraceRecord record) {
+        int start = buffer.position();
+        try {
+            codec.write(buffer, record);
+        } catch (RuntimeException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    private void write(ByteBuffer source) {
+        try {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
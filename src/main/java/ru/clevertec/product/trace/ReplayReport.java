@@ -0,0 +1,68 @@
+package ru.clevertec.product.trace;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+public record ReplayReport(
+
+        /**
+         * количество воспроизведённых вызовов
+         */
+        long operations,
+
+        /**
+         * количество вызовов, завершившихся исключением
+         */
+        long errors,
+
+        /**
+         * время воспроизведения всей трассы
+         */
+        Duration elapsed,
+
+        /**
+         * медиана задержки в наносекундах
+         */
+        long p50Nanos,
+
+        /**
+         * 99-й перцентиль задержки в наносекундах
+         */
+        long p99Nanos,
+
+        /**
+         * 99.9-й перцентиль задержки в наносекундах
+         */
+        long p999Nanos,
+
+        /**
+         * максимальная задержка в наносекундах
+         */
+        long maxNanos) {
+
+    /**
+     * @return пропускная способность в операциях в секунду
+     */
+    public double throughput() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : operations * 1e9 / nanos;
+    }
+
+    /**
+     * @param latencies задержки вызовов, сортируются на месте
+     */
+    static ReplayReport of(long[] latencies, long errors, Duration elapsed) {
+        Arrays.sort(latencies);
+        return new ReplayReport(latencies.length, errors, elapsed, percentile(latencies, 0.5),
+                percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
@@ -0,0 +1,134 @@
+package ru.clevertec.product.trace;
+
+import lombok.NoArgsConstructor;
+import ru.clevertec.product.codec.ProductCodec;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.ProductDto;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Бинарный формат записи трассы: байт операции, смещение по времени и аргументы операции.
+ * Идентификаторы, DTO и курсор пишутся с байтом наличия: записывается и вызов с null-аргументом
+ */
+@NoArgsConstructor
+public class TraceCodec {
+
+    public static final int MAGIC = 0x50545243;
+    public static final byte VERSION = 2;
+    public static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+    private static final TraceOperation[] OPERATIONS = TraceOperation.values();
+    private static final byte ABSENT = 0;
+    private static final byte PRESENT = 1;
+
+    private final ProductCodec codec = new ProductCodec();
+
+    public void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+    }
+
+    public void readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a product trace");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported trace version: " + version);
+        }
+    }
+
+    public void write(ByteBuffer buffer, TraceRecord record) {
+        buffer.put((byte) record.operation().ordinal());
+        buffer.putLong(record.offsetNanos());
+        switch (record.operation()) {
+            case GET, DELETE -> writeNullableUuid(buffer, record.uuid());
+            case UPDATE -> {
+                writeNullableUuid(buffer, record.uuid());
+                writeNullableProductDto(buffer, record.productDto());
+            }
+            case CREATE -> {
+                writeNullableProductDto(buffer, record.productDto());
+                writeNullableUuid(buffer, record.resultUuid());
+            }
+            case GET_CREATED_BETWEEN -> {
+                codec.writeCreated(buffer, record.from());
+                codec.writeCreated(buffer, record.to());
+                buffer.putInt(record.limit());
+            }
+            case GET_CREATED_SINCE -> {
+                CreatedCursor cursor = record.cursor();
+                if (cursor == null) {
+                    buffer.put(ABSENT);
+                } else {
+                    buffer.put(PRESENT);
+                    codec.writeCreated(buffer, cursor.created());
+                    writeNullableUuid(buffer, cursor.uuid());
+                }
+                buffer.putInt(record.limit());
+            }
+            case TOP_BY_PRICE_ASC, TOP_BY_PRICE_DESC, TOP_BY_CREATED -> buffer.putInt(record.limit());
+            case GET_ALL, GET_ALL_COLUMNS -> {
+            }
+        }
+    }
+
+    public TraceRecord read(ByteBuffer buffer) {
+        TraceOperation operation = OPERATIONS[buffer.get()];
+        long offsetNanos = buffer.getLong();
+        return switch (operation) {
+            case GET, DELETE -> TraceRecord.of(operation, offsetNanos, readNullableUuid(buffer));
+            case UPDATE -> new TraceRecord(operation, offsetNanos, readNullableUuid(buffer),
+                    readNullableProductDto(buffer), null, null, null, 0, null);
+            case CREATE -> new TraceRecord(operation, offsetNanos, null, readNullableProductDto(buffer),
+                    null, null, null, 0, readNullableUuid(buffer));
+            case GET_CREATED_BETWEEN -> new TraceRecord(operation, offsetNanos, null, null,
+                    codec.readCreated(buffer), codec.readCreated(buffer), null, buffer.getInt(), null);
+            case GET_CREATED_SINCE -> new TraceRecord(operation, offsetNanos, null, null, null, null,
+                    readNullableCursor(buffer), buffer.getInt(), null);
+            case TOP_BY_PRICE_ASC, TOP_BY_PRICE_DESC, TOP_BY_CREATED -> new TraceRecord(operation, offsetNanos,
+                    null, null, null, null, null, buffer.getInt(), null);
+            case GET_ALL, GET_ALL_COLUMNS -> TraceRecord.of(operation, offsetNanos, null);
+        };
+    }
+
+    /**
+     * @return верхняя оценка размера записи в байтах
+     */
+    public int maxSizeOf(TraceRecord record) {
+        int size = Byte.BYTES + Long.BYTES + 2 * (Byte.BYTES + 2 * Long.BYTES) + 2 * (Byte.BYTES + Long.BYTES
+                + Integer.BYTES) + Integer.BYTES + 2 * Byte.BYTES;
+        return record.productDto() == null ? size : size + codec.sizeOf(record.productDto());
+    }
+
+    private void writeNullableUuid(ByteBuffer buffer, UUID uuid) {
+        if (uuid == null) {
+            buffer.put(ABSENT);
+            return;
+        }
+        buffer.put(PRESENT);
+        codec.writeUuid(buffer, uuid);
+    }
+
+    private UUID readNullableUuid(ByteBuffer buffer) {
+        return buffer.get() == ABSENT ? null : codec.readUuid(buffer);
+    }
+
+    private void writeNullableProductDto(ByteBuffer buffer, ProductDto productDto) {
+        if (productDto == null) {
+            buffer.put(ABSENT);
+            return;
+        }
+        buffer.put(PRESENT);
+        codec.writeProductDto(buffer, productDto);
+    }
+
+    private ProductDto readNullableProductDto(ByteBuffer buffer) {
+        return buffer.get() == ABSENT ? null : codec.readProductDto(buffer);
+    }
+
+    private CreatedCursor readNullableCursor(ByteBuffer buffer) {
+        return buffer.get() == ABSENT ? null : new CreatedCursor(codec.readCreated(buffer), readNullableUuid(buffer));
+    }
+}
@@ -0,0 +1,16 @@
+package ru.clevertec.product.trace;
+
+public enum TraceOperation {
+
+    GET,
+    GET_ALL,
+    GET_ALL_COLUMNS,
+    GET_CREATED_BETWEEN,
+    GET_CREATED_SINCE,
+    TOP_BY_PRICE_ASC,
+    TOP_BY_PRICE_DESC,
+    TOP_BY_CREATED,
+    CREATE,
+    UPDATE,
+    DELETE
+}
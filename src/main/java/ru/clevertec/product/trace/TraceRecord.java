@@ -0,0 +1,66 @@
+package ru.clevertec.product.trace;
+
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.ProductDto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record TraceRecord(
+
+        /**
+         * записанная операция
+         */
+        TraceOperation operation,
+
+        /**
+         * начало вызова в наносекундах от начала записи
+         */
+        long offsetNanos,
+
+        /**
+         * идентификатор продукта для GET, UPDATE, DELETE, иначе null
+         */
+        UUID uuid,
+
+        /**
+         * DTO для CREATE и UPDATE, иначе null
+         */
+        ProductDto productDto,
+
+        /**
+         * начало интервала для GET_CREATED_BETWEEN, иначе null
+         */
+        LocalDateTime from,
+
+        /**
+         * конец интервала для GET_CREATED_BETWEEN, иначе null
+         */
+        LocalDateTime to,
+
+        /**
+         * курсор для GET_CREATED_SINCE, иначе null
+         */
+        CreatedCursor cursor,
+
+        /**
+         * лимит для запросов по времени создания и первых k продуктов, иначе 0
+         */
+        int limit,
+
+        /**
+         * идентификатор, который вернул CREATE, null если вызов завершился исключением
+         */
+        UUID resultUuid) {
+
+    public static TraceRecord of(TraceOperation operation, long offsetNanos, UUID uuid) {
+        return new TraceRecord(operation, offsetNanos, uuid, null, null, null, null, 0, null);
+    }
+
+    /**
+     * @return идентификатор продукта, к которому относится операция, null для выборок
+     */
+    public UUID key() {
+        return operation == TraceOperation.CREATE ? resultUuid : uuid;
+    }
+}
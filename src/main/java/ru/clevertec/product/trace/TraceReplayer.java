@@ -0,0 +1,204 @@
+package ru.clevertec.product.trace;
+
+import lombok.RequiredArgsConstructor;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.service.ProductService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Воспроизводит трассу {@link RecordingProductService} на любом {@link ProductService},
+ * в том числе на {@link ru.clevertec.product.service.impl.ProductServiceImpl} с нужным репозиторием.
+ * Вызовы одного продукта выполняются одним потоком в порядке записи, выборки распределяются по потокам по кругу.
+ * Идентификаторы, выданные при записи, заменяются идентификаторами, которые вернул create при воспроизведении
+ */
+@RequiredArgsConstructor
+public class TraceReplayer {
+
+    public enum Pacing {
+
+        /**
+         * вызовы запускаются с теми же интервалами, что при записи,
+         * задержка считается от запланированного времени вызова
+         */
+        ORIGINAL,
+
+        /**
+         * вызовы запускаются сразу друг за другом
+         */
+        AS_FAST_AS_POSSIBLE
+    }
+
+    private final ProductService productService;
+
+    /**
+     * Читает трассу в память
+     *
+     * @param trace файл, записанный {@link RecordingProductService}
+     * @return записи в порядке начала вызовов
+     */
+    public static List<TraceRecord> read(Path trace) {
+        TraceCodec codec = new TraceCodec();
+        try (FileChannel channel = FileChannel.open(trace, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            codec.readHeader(buffer);
+            List<TraceRecord> records = new ArrayList<>();
+            while (buffer.hasRemaining()) {
+                records.add(codec.read(buffer));
+            }
+            records.sort(Comparator.comparingLong(TraceRecord::offsetNanos));
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public ReplayReport replay(Path trace, int threads, Pacing pacing) {
+        return replay(read(trace), threads, pacing);
+    }
+
+    /**
+     * @param records записи в порядке начала вызовов
+     * @param threads количество потоков воспроизведения
+     * @param pacing  темп воспроизведения
+     * @return пропускная способность и перцентили задержки
+     */
+    public ReplayReport replay(List<TraceRecord> records, int threads, Pacing pacing) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        List<List<TraceRecord>> partitions = partition(records, threads);
+        Map<UUID, UUID> replayedUuids = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long startNanos = System.nanoTime();
+            List<Future<Worker>> futures = partitions.stream()
+                    .map(partition -> new Worker(partition, replayedUuids, pacing, startNanos))
+                    .map(executor::submit)
+                    .toList();
+            List<Worker> workers = new ArrayList<>();
+            for (Future<Worker> future : futures) {
+                workers.add(future.get());
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+            long[] latencies = workers.stream()
+                    .flatMapToLong(worker -> Arrays.stream(worker.latencies, 0, worker.count))
+                    .toArray();
+            long errors = workers.stream()
+                    .mapToLong(worker -> worker.errors)
+                    .sum();
+            return ReplayReport.of(latencies, errors, elapsed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replay interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replay failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<List<TraceRecord>> partition(List<TraceRecord> records, int threads) {
+        List<List<TraceRecord>> partitions = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        int next = 0;
+        for (TraceRecord record : records) {
+            UUID key = record.key();
+            int partition = key == null ? next++ % threads : Math.floorMod(key.hashCode(), threads);
+            partitions.get(partition).add(record);
+        }
+        return partitions;
+    }
+
+    private void execute(TraceRecord record, Map<UUID, UUID> replayedUuids) {
+        UUID uuid = replayed(record.uuid(), replayedUuids);
+        switch (record.operation()) {
+            case GET -> productService.get(uuid);
+            case GET_ALL -> productService.getAll();
+            case GET_ALL_COLUMNS -> productService.getAllColumns();
+            case GET_CREATED_BETWEEN -> productService.getCreatedBetween(record.from(), record.to(), record.limit());
+            case GET_CREATED_SINCE -> {
+                CreatedCursor cursor = record.cursor();
+                productService.getCreatedSince(cursor == null ? null
+                        : new CreatedCursor(cursor.created(), replayed(cursor.uuid(), replayedUuids)), record.limit());
+            }
+            case TOP_BY_PRICE_ASC -> productService.getTopByPrice(record.limit(), SortDirection.ASC);
+            case TOP_BY_PRICE_DESC -> productService.getTopByPrice(record.limit(), SortDirection.DESC);
+            case TOP_BY_CREATED -> productService.getTopByCreated(record.limit());
+            case CREATE -> {
+                UUID created = productService.create(record.productDto());
+                if (record.resultUuid() != null) {
+                    replayedUuids.put(record.resultUuid(), created);
+                }
+            }
+            case UPDATE -> productService.update(uuid, record.productDto());
+            case DELETE -> productService.delete(uuid);
+        }
+    }
+
+    private static UUID replayed(UUID recorded, Map<UUID, UUID> replayedUuids) {
+        return recorded == null ? null : replayedUuids.getOrDefault(recorded, recorded);
+    }
+
+    private final class Worker implements Callable<Worker> {
+
+        private final List<TraceRecord> records;
+        private final Map<UUID, UUID> replayedUuids;
+        private final Pacing pacing;
+        private final long startNanos;
+        private final long[] latencies;
+        private int count;
+        private long errors;
+
+        private Worker(List<TraceRecord> records, Map<UUID, UUID> replayedUuids, Pacing pacing, long startNanos) {
+            this.records = records;
+            this.replayedUuids = replayedUuids;
+            this.pacing = pacing;
+            this.startNanos = startNanos;
+            this.latencies = new long[records.size()];
+        }
+
+        @Override
+        public Worker call() {
+            for (TraceRecord record : records) {
+                long begin = System.nanoTime();
+                if (pacing == Pacing.ORIGINAL) {
+                    long scheduled = startNanos + record.offsetNanos();
+                    for (long wait = scheduled - begin; wait > 0; wait = scheduled - System.nanoTime()) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    begin = scheduled;
+                }
+                try {
+                    execute(record, replayedUuids);
+                } catch (RuntimeException e) {
+                    errors++;
+                }
+                latencies[count++] = System.nanoTime() - begin;
+            }
+            return this;
+        }
+    }
+}
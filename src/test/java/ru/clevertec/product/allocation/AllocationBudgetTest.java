@@ -0,0 +1,117 @@
+package ru.clevertec.product.allocation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.entity.ProductValidator;
+import ru.clevertec.product.mapper.ProductMapper;
+import ru.clevertec.product.mapper.ProductMapperImpl;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.service.impl.ProductServiceImpl;
+import ru.clevertec.product.utils.AllocationMeter;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Бюджеты выделения памяти на горячих путях, лежат в allocation-budgets.properties.
+ * Бюджет - в два-три раза больше замера после прогрева, чтобы ловить регрессии, а не шум JIT
+ */
+class AllocationBudgetTest {
+
+    private final AllocationMeter meter = new AllocationMeter();
+    private final ProductMapper mapper = new ProductMapperImpl();
+    private final ProductValidator validator = new ProductValidator();
+    private ProductServiceImpl productService;
+    private Product product;
+    private ProductDto productDto;
+    private Object sink;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(meter.isSupported(), "Thread allocation counters aren't supported by this JVM");
+        productService = new ProductServiceImpl(mapper, new InMemoryProductRepository(), validator);
+        productDto = ProductTestData.builder().build().buildProductDto();
+        product = ProductTestData.builder().build().buildProduct();
+    }
+
+    @Test
+    void serviceGetShouldStayWithinBudget() {
+        // given
+        UUID uuid = productService.create(productDto);
+
+        // when, then
+        assertWithinBudget("service.get", () -> sink = productService.get(uuid));
+    }
+
+    @Test
+    void serviceCreateShouldStayWithinBudget() {
+        // when, then
+        assertWithinBudget("service.create", () -> sink = productService.create(productDto));
+    }
+
+    @Test
+    void serviceUpdateShouldStayWithinBudget() {
+        // given
+        UUID uuid = productService.create(productDto);
+        ProductDto[] updates = {
+                ProductTestData.builder().withPrice(BigDecimal.ONE).build().buildProductDto(),
+                ProductTestData.builder().withPrice(BigDecimal.TEN).build().buildProductDto()};
+        int[] next = {0};
+
+        // when, then
+        assertWithinBudget("service.update", () -> sink = productService.update(uuid, updates[next[0]++ & 1]));
+    }
+
+    @Test
+    void serviceUnchangedUpdateShouldStayWithinBudget() {
+        // given
+        UUID uuid = productService.create(productDto);
+
+        // when, then
+        assertWithinBudget("service.update.unchanged", () -> sink = productService.update(uuid, productDto));
+    }
+
+    @Test
+    void mapperToProductShouldStayWithinBudget() {
+        // when, then
+        assertWithinBudget("mapper.toProduct", () -> sink = mapper.toProduct(productDto));
+    }
+
+    @Test
+    void mapperToInfoProductDtoShouldStayWithinBudget() {
+        // when, then
+        assertWithinBudget("mapper.toInfoProductDto", () -> sink = mapper.toInfoProductDto(product));
+    }
+
+    @Test
+    void mapperMergeShouldStayWithinBudget() {
+        // when, then
+        assertWithinBudget("mapper.merge", () -> sink = mapper.merge(product, productDto));
+    }
+
+    @Test
+    void validatorProductDtoShouldStayWithinBudget() {
+        // when, then
+        assertWithinBudget("validator.productDto", () -> sink = validator.checkValidation(productDto));
+    }
+
+    @Test
+    void validatorProductShouldStayWithinBudget() {
+        // when, then
+        assertWithinBudget("validator.product", () -> sink = validator.checkValidation(product));
+    }
+
+    private void assertWithinBudget(String name, Runnable operation) {
+        long budget = meter.budget(name);
+        long actual = meter.bytesPerOperation(operation);
+        assertThat(actual)
+                .as("%s allocated %d bytes per operation, budget is %d", name, actual, budget)
+                .isLessThanOrEqualTo(budget);
+    }
+}
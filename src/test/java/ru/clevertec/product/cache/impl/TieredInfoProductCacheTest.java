@@ -0,0 +1,141 @@
+package ru.clevertec.product.cache.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.cache.AdmissionPolicy;
+import ru.clevertec.product.cache.CacheStats;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TieredInfoProductCacheTest {
+
+    private TieredInfoProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TieredInfoProductCache(1, 2L * TieredInfoProductCache.DEFAULT_SLOT_SIZE);
+    }
+
+    @Test
+    void getShouldReturnProductFromNearTier() {
+        // given
+        InfoProductDto expected = ProductTestData.builder().build().buildInfoProductDto();
+        cache.put(expected);
+
+        // when
+        Optional<InfoProductDto> actual = cache.get(expected.uuid());
+
+        // then
+        assertEquals(Optional.of(expected), actual);
+        assertThat(cache.stats())
+                .extracting(CacheStats::nearHits, CacheStats::farHits, CacheStats::misses)
+                .containsExactly(1L, 0L, 0L);
+    }
+
+    @Test
+    void getShouldPromoteDemotedProductFromFarTier() {
+        // given
+        InfoProductDto expected = ProductTestData.builder()
+                .withDescription(null)
+                .withPrice(new BigDecimal("12345678901234567890.123"))
+                .build().buildInfoProductDto();
+        InfoProductDto other = ProductTestData.builder()
+                .withUuid(UUID.fromString("ad6aa3ac-8531-4db0-a797-d8c5b6f15d82"))
+                .build().buildInfoProductDto();
+        cache.put(expected);
+        cache.put(other);
+
+        // when
+        Optional<InfoProductDto> actual = cache.get(expected.uuid());
+
+        // then
+        assertEquals(Optional.of(expected), actual);
+        assertThat(cache.stats())
+                .extracting(CacheStats::farHits, CacheStats::nearSize, CacheStats::farSize)
+                .containsExactly(1L, 1, 1);
+    }
+
+    @Test
+    void putShouldEvictEldestFromFarTierWhenFull() {
+        // given
+        InfoProductDto first = ProductTestData.builder()
+                .withUuid(UUID.fromString("338903f8-ff25-4df4-8348-f8cefc066296"))
+                .build().buildInfoProductDto();
+        cache.put(first);
+        cache.put(ProductTestData.builder()
+                .withUuid(UUID.fromString("e495840a-b4ab-40c9-8200-8ed6117ad1a5"))
+                .build().buildInfoProductDto());
+        cache.put(ProductTestData.builder()
+                .withUuid(UUID.fromString("93af5278-cd77-4c51-bfd7-6ab28e6f7f5f"))
+                .build().buildInfoProductDto());
+
+        // when
+        cache.put(ProductTestData.builder()
+                .withUuid(UUID.fromString("f3f685e2-a0dd-47d8-9da7-d9ac3c64ef09"))
+                .build().buildInfoProductDto());
+
+        // then
+        assertEquals(Optional.empty(), cache.get(first.uuid()));
+        assertThat(cache.stats())
+                .extracting(CacheStats::evictions, CacheStats::farSize)
+                .containsExactly(1L, 2);
+    }
+
+    @Test
+    void invalidateShouldRemoveProductFromBothTiers() {
+        // given
+        InfoProductDto demoted = ProductTestData.builder().build().buildInfoProductDto();
+        InfoProductDto near = ProductTestData.builder()
+                .withUuid(UUID.fromString("ad6aa3ac-8531-4db0-a797-d8c5b6f15d82"))
+                .build().buildInfoProductDto();
+        cache.put(demoted);
+        cache.put(near);
+
+        // when
+        cache.invalidate(demoted.uuid());
+        cache.invalidate(near.uuid());
+
+        // then
+        assertEquals(Optional.empty(), cache.get(demoted.uuid()));
+        assertEquals(Optional.empty(), cache.get(near.uuid()));
+    }
+
+    @Test
+    void putIfNotInvalidatedShouldSkipProductInvalidatedAfterGeneration() {
+        // given
+        InfoProductDto infoProductDto = ProductTestData.builder().build().buildInfoProductDto();
+        long generation = cache.generation(infoProductDto.uuid());
+        cache.invalidate(infoProductDto.uuid());
+
+        // when
+        boolean stale = cache.putIfNotInvalidated(infoProductDto, generation);
+        boolean fresh = cache.putIfNotInvalidated(infoProductDto, cache.generation(infoProductDto.uuid()));
+
+        // then
+        assertThat(stale).isFalse();
+        assertThat(fresh).isTrue();
+        assertEquals(Optional.of(infoProductDto), cache.get(infoProductDto.uuid()));
+    }
+
+    @Test
+    void putShouldSkipProductRejectedByAdmissionPolicy() {
+        // given
+        cache = new TieredInfoProductCache(1, 1024, TieredInfoProductCache.DEFAULT_SLOT_SIZE,
+                AdmissionPolicy.maxEncodedSize(16));
+        InfoProductDto infoProductDto = ProductTestData.builder().build().buildInfoProductDto();
+
+        // when
+        cache.put(infoProductDto);
+
+        // then
+        assertEquals(Optional.empty(), cache.get(infoProductDto.uuid()));
+        assertEquals(0, cache.stats().nearHitRatio());
+    }
+}
@@ -0,0 +1,190 @@
+package ru.clevertec.product.codec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductCodecTest {
+
+    private ProductCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = new ProductCodec();
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideRandomProducts")
+    void readProductShouldReturnWrittenProduct(Product expected) {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocateDirect(codec.sizeOf(expected));
+        codec.writeProduct(buffer, expected);
+
+        // when
+        Product actual = codec.readProduct(buffer.flip());
+
+        // then
+        assertEquals(expected, actual);
+        assertEquals(0, buffer.remaining());
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideRandomProducts")
+    void readProductDtoShouldReturnWrittenProductDto(Product product) {
+        // given
+        ProductDto expected = new ProductDto(product.getName(), product.getDescription(), product.getPrice());
+        ByteBuffer buffer = ByteBuffer.allocate(codec.sizeOf(expected));
+        codec.writeProductDto(buffer, expected);
+
+        // when
+        ProductDto actual = codec.readProductDto(buffer.flip());
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideRandomProducts")
+    void readInfoProductDtoShouldReturnWrittenInfoProductDto(Product product) {
+        // given
+        InfoProductDto expected = new InfoProductDto(product.getUuid(), product.getName(),
+                product.getDescription(), product.getPrice());
+        ByteBuffer buffer = ByteBuffer.allocate(codec.sizeOf(expected));
+        codec.writeInfoProductDto(buffer, expected);
+
+        // when
+        InfoProductDto actual = codec.readInfoProductDto(buffer.flip());
+
+        // then
+        assertEquals(expected, actual);
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    void readProductShouldKeepExtremeCreatedAndPriceScale() {
+        // given
+        Product min = ProductTestData.builder()
+                .withCreated(LocalDateTime.MIN)
+                .withPrice(new BigDecimal("1.000"))
+                .build().buildProduct();
+        Product max = ProductTestData.builder()
+                .withUuid(null)
+                .withCreated(LocalDateTime.MAX)
+                .withPrice(null)
+                .build().buildProduct();
+        ByteBuffer buffer = ByteBuffer.allocate(codec.sizeOf(min) + codec.sizeOf(max));
+        codec.writeProduct(buffer, min);
+        codec.writeProduct(buffer, max);
+        buffer.flip();
+
+        // when
+        Product actualMin = codec.readProduct(buffer);
+        Product actualMax = codec.readProduct(buffer);
+
+        // then
+        assertEquals(min, actualMin);
+        assertEquals(max, actualMax);
+    }
+
+    @Test
+    void readProductShouldThrowIllegalArgumentExceptionForUnknownVersion() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(1).put((byte) (ProductCodec.VERSION + 1)).flip();
+
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> codec.readProduct(buffer));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideHostileBigPriceLengths")
+    void readPriceShouldThrowBufferUnderflowExceptionForHostileLength(int length) {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(16)
+                .put((byte) 1)
+                .putInt(2)
+                .putInt(length)
+                .put((byte) 7)
+                .flip();
+
+        // when, then
+        assertThrows(BufferUnderflowException.class, () -> codec.readPrice(buffer));
+    }
+
+    @Test
+    void readStringShouldThrowBufferUnderflowExceptionForSequenceCrossingLength() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(16)
+                .putInt(2)
+                .put((byte) 'a')
+                .put((byte) 0xF0)
+                .put((byte) 0x9F)
+                .put((byte) 0x98)
+                .put((byte) 0x80)
+                .flip();
+
+        // when, then
+        assertThrows(BufferUnderflowException.class, () -> codec.readString(buffer));
+    }
+
+    @Test
+    void readStringShouldDecodeSurrogatePairFromFourBytes() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        codec.writeString(buffer, "😀");
+        buffer.flip();
+
+        // when
+        String actual = codec.readString(buffer);
+
+        // then
+        assertEquals("😀", actual);
+    }
+
+    public static Stream<Arguments> provideHostileBigPriceLengths() {
+        return Stream.of(Arguments.of(Integer.MAX_VALUE), Arguments.of(-5), Arguments.of(0), Arguments.of(2));
+    }
+
+    public static Stream<Arguments> provideRandomProducts() {
+        Random random = new Random(20231026);
+        return IntStream.range(0, 200)
+                .mapToObj(index -> Arguments.of(randomProduct(random)));
+    }
+
+    private static Product randomProduct(Random random) {
+        BigInteger unscaled = new BigInteger(random.nextInt(120) + 1, random);
+        return new Product(new UUID(random.nextLong(), random.nextLong()),
+                randomString(random),
+                random.nextInt(5) == 0 ? null : randomString(random),
+                new BigDecimal(unscaled, random.nextInt(20) - 5),
+                LocalDateTime.ofEpochSecond(random.nextLong(-10_000_000_000L, 10_000_000_000L),
+                        random.nextInt(1_000_000_000), ZoneOffset.UTC));
+    }
+
+    private static String randomString(Random random) {
+        String alphabet = "abcXYZ 019абвгдеёжзАБВЁЯя€😀";
+        return random.ints(random.nextInt(40), 0, alphabet.length())
+                .mapToObj(alphabet::charAt)
+                .collect(StringBuilder::new, StringBuilder::append, StringBuilder::append)
+                .toString();
+    }
+}
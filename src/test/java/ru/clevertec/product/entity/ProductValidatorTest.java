@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import ru.clevertec.product.data.ProductDto;
 import ru.clevertec.product.utils.ProductTestData;
 
 import java.math.BigDecimal;
@@ -12,7 +13,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ProductValidatorTest {
@@ -237,6 +240,51 @@ class ProductValidatorTest {
         assertFalse(actual);
     }
 
+    @Test
+    void checkValidationShouldReturnValidRowsAndFailureReasonsForBatch() {
+        // given
+        String[] names = {"Продукт", "Product", "Продукт", "Мой"};
+        String[] descriptions = {"Описание продукта", null, "Описание", "Description"};
+        BigDecimal[] prices = {BigDecimal.ONE, BigDecimal.TEN, BigDecimal.ZERO, null};
+
+        // when
+        BatchValidationResult actual = productValidator.checkValidation(names, descriptions, prices);
+
+        // then
+        assertEquals(1, actual.validCount());
+        assertTrue(actual.isValid(0));
+        assertEquals(BatchValidationResult.NAME_INVALID, actual.failures(1));
+        assertEquals(BatchValidationResult.DESCRIPTION_INVALID | BatchValidationResult.PRICE_INVALID,
+                actual.failures(2));
+        assertEquals(BatchValidationResult.NAME_INVALID | BatchValidationResult.DESCRIPTION_INVALID
+                | BatchValidationResult.PRICE_INVALID, actual.failures(3));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideProductArguments")
+    void checkValidationForBatchShouldMatchSingleProductDtoCheck(Product product) {
+        // given
+        ProductDto productDto = new ProductDto(product.getName(), product.getDescription(), product.getPrice());
+        boolean expected = productValidator.checkValidation(productDto);
+
+        // when
+        BatchValidationResult actual = productValidator.checkValidation(new String[]{product.getName()},
+                new String[]{product.getDescription()}, new BigDecimal[]{product.getPrice()});
+
+        // then
+        assertEquals(expected, actual.isValid(0));
+    }
+
+    @Test
+    void checkValidationShouldThrowIllegalArgumentExceptionWhenColumnsHaveDifferentLength() {
+        // given
+        String[] names = {"Продукт"};
+
+        // when, then
+        assertThrows(IllegalArgumentException.class,
+                () -> productValidator.checkValidation(names, new String[0], new BigDecimal[1]));
+    }
+
     public static Stream<Arguments> provideProductArguments() {
         return Stream.of(
                 Arguments.of(new Product(UUID.fromString("b5028e80-bd7f-463d-9c1f-5e831da5ebef"),
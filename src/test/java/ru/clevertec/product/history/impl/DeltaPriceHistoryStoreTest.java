@@ -0,0 +1,146 @@
+package ru.clevertec.product.history.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.data.PriceChange;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DeltaPriceHistoryStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 9, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private DeltaPriceHistoryStore priceHistoryStore;
+
+    @BeforeEach
+    void setUp() {
+        priceHistoryStore = new DeltaPriceHistoryStore();
+    }
+
+    @Test
+    void findHistoryShouldReturnChangesInRecordOrder() {
+        // given
+        UUID uuid = UUID.randomUUID();
+        List<PriceChange> expected = List.of(
+                new PriceChange(START, new BigDecimal("10.50")),
+                new PriceChange(START.plusDays(1), new BigDecimal("9.99")),
+                new PriceChange(START.plusDays(1).plusNanos(3_000_000), new BigDecimal("12")),
+                new PriceChange(START.plusMonths(2), new BigDecimal("1000000.125")),
+                new PriceChange(START.plusMonths(3), new BigDecimal("0.01")));
+        expected.forEach(change -> priceHistoryStore.record(uuid, change.time(), change.price()));
+
+        // when
+        List<PriceChange> actual = priceHistoryStore.findHistory(uuid, START, END);
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void findHistoryShouldReturnOnlyChangesWithinInterval() {
+        // given
+        UUID uuid = UUID.randomUUID();
+        IntStream.range(0, 10)
+                .forEach(day -> priceHistoryStore.record(uuid, START.plusDays(day), BigDecimal.valueOf(day + 1)));
+
+        // when
+        List<PriceChange> actual = priceHistoryStore.findHistory(uuid, START.plusDays(3), START.plusDays(6));
+
+        // then
+        assertThat(actual)
+                .extracting(PriceChange::price)
+                .containsExactly(BigDecimal.valueOf(4), BigDecimal.valueOf(5), BigDecimal.valueOf(6));
+    }
+
+    @Test
+    void findHistoryShouldKeepProductsSeparate() {
+        // given
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        priceHistoryStore.record(first, START, BigDecimal.ONE);
+        priceHistoryStore.record(second, START.plusHours(1), BigDecimal.TEN);
+
+        // when
+        List<PriceChange> actual = priceHistoryStore.findHistory(second, START, END);
+
+        // then
+        assertEquals(List.of(new PriceChange(START.plusHours(1), BigDecimal.TEN)), actual);
+        assertEquals(List.of(), priceHistoryStore.findHistory(UUID.randomUUID(), START, END));
+    }
+
+    @Test
+    void removeShouldDropOnlyThatProductHistory() {
+        // given
+        UUID removed = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        priceHistoryStore.record(removed, START, BigDecimal.ONE);
+        priceHistoryStore.record(removed, START.plusHours(1), BigDecimal.valueOf(2));
+        priceHistoryStore.record(kept, START, BigDecimal.TEN);
+        long keptBytes = priceHistoryStore.getEncodedBytes();
+
+        // when
+        priceHistoryStore.remove(removed);
+
+        // then
+        assertEquals(List.of(), priceHistoryStore.findHistory(removed, START, END));
+        assertEquals(List.of(new PriceChange(START, BigDecimal.TEN)), priceHistoryStore.findHistory(kept, START, END));
+        assertEquals(1, priceHistoryStore.getProductCount());
+        assertEquals(1, priceHistoryStore.getChangeCount());
+        assertThat(priceHistoryStore.getEncodedBytes()).isPositive().isLessThan(keptBytes);
+    }
+
+    @Test
+    void findHistoryShouldKeepPricesThatDoNotFitInLong() {
+        // given
+        UUID uuid = UUID.randomUUID();
+        List<PriceChange> expected = List.of(
+                new PriceChange(START, new BigDecimal("10.50")),
+                new PriceChange(START.plusDays(1), new BigDecimal("123456789012345678901234567890")),
+                new PriceChange(START.plusDays(2), new BigDecimal("-1152921504606846976.5")),
+                new PriceChange(START.plusDays(3), new BigDecimal("9.99")));
+        expected.forEach(change -> priceHistoryStore.record(uuid, change.time(), change.price()));
+
+        // when
+        List<PriceChange> actual = priceHistoryStore.findHistory(uuid, START, END);
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void dailyChangesShouldTakeFewBytesEach() {
+        // given
+        int products = 10_000;
+        int changesPerProduct = 100;
+        SplittableRandom random = new SplittableRandom(42);
+        List<UUID> uuids = IntStream.range(0, products)
+                .mapToObj(i -> UUID.randomUUID())
+                .toList();
+        long[] cents = new long[products];
+        for (int day = 0; day < changesPerProduct; day++) {
+            LocalDateTime time = START.plusDays(day).plusSeconds(random.nextInt(3600));
+            for (int product = 0; product < products; product++) {
+                cents[product] = Math.max(1, cents[product] + random.nextInt(-500, 500) + (day == 0 ? 10_000 : 0));
+                priceHistoryStore.record(uuids.get(product), time, BigDecimal.valueOf(cents[product], 2));
+            }
+        }
+
+        // when
+        double bytesPerChange = (double) priceHistoryStore.getEncodedBytes() / priceHistoryStore.getChangeCount();
+
+        // then
+        assertEquals((long) products * changesPerProduct, priceHistoryStore.getChangeCount());
+        assertThat(bytesPerChange).isLessThan(7);
+        assertEquals(BigDecimal.valueOf(cents[0], 2),
+                priceHistoryStore.findHistory(uuids.get(0), START, END).get(changesPerProduct - 1).price());
+    }
+}
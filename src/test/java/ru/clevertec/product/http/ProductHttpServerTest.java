@@ -0,0 +1,278 @@
+package ru.clevertec.product.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.entity.ProductValidator;
+import ru.clevertec.product.mapper.ProductMapperImpl;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.service.impl.ProductServiceImpl;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductHttpServerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 9, 0);
+
+    private InMemoryProductRepository productRepository;
+    private ProductHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        productRepository = new InMemoryProductRepository();
+        ProductServiceImpl productService = new ProductServiceImpl(new ProductMapperImpl(),
+                productRepository, new ProductValidator());
+        server = new ProductHttpServer(productService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void getShouldReturnProductAsJson() throws Exception {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+        String expected = "{\"uuid\":\"" + product.getUuid()
+                + "\",\"name\":\"Продукт\",\"description\":\"Описание продукта\",\"price\":1}";
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/" + product.getUuid())).GET());
+
+        // then
+        assertEquals(200, actual.statusCode());
+        assertEquals(expected, actual.body());
+    }
+
+    @Test
+    void getShouldReturnNotFoundWithoutStackTrace() throws Exception {
+        // given
+        UUID uuid = UUID.fromString("b8003c54-c22b-450a-a0d3-94b646150585");
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/" + uuid)).GET());
+
+        // then
+        assertEquals(404, actual.statusCode());
+        assertEquals("{\"error\":\"Product with uuid: " + uuid + " not found\"}", actual.body());
+    }
+
+    @Test
+    void getShouldReturnBadRequestForInvalidUuid() throws Exception {
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/not-a-uuid")).GET());
+
+        // then
+        assertEquals(400, actual.statusCode());
+        assertEquals("{\"error\":\"Invalid product id: not-a-uuid\"}", actual.body());
+    }
+
+    @Test
+    void internalIllegalArgumentExceptionShouldReturnInternalError() throws Exception {
+        // given
+        UUID uuid = UUID.fromString("b8003c54-c22b-450a-a0d3-94b646150585");
+        ProductService productService = mock(ProductService.class);
+        when(productService.get(uuid))
+                .thenThrow(new IllegalArgumentException("secret internal detail"));
+        server.close();
+        server = new ProductHttpServer(productService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/" + uuid)).GET());
+
+        // then
+        assertEquals(500, actual.statusCode());
+        assertEquals("{\"error\":\"Internal error\"}", actual.body());
+    }
+
+    @Test
+    void getAllShouldReturnRequestedPageInCreationOrder() throws Exception {
+        // given
+        productRepository.save(ProductTestData.builder().withUuid(null).withCreated(START.plusDays(1)).build()
+                .buildProduct());
+        productRepository.save(ProductTestData.builder().withUuid(null).withCreated(START).build().buildProduct());
+        Product second = productRepository.save(ProductTestData.builder().withUuid(null)
+                .withCreated(START.plusHours(1)).build().buildProduct());
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("?page=1&size=1")).GET());
+
+        // then
+        assertEquals(200, actual.statusCode());
+        assertThat(actual.body())
+                .startsWith("[{\"uuid\":\"" + second.getUuid())
+                .endsWith("}]");
+    }
+
+    @Test
+    void getAllShouldWalkCatalogueWithCursor() throws Exception {
+        // given
+        List<UUID> expected = IntStream.range(0, 5)
+                .mapToObj(i -> productRepository.save(ProductTestData.builder()
+                        .withUuid(null)
+                        .withCreated(START.plusMinutes(i))
+                        .build().buildProduct()).getUuid())
+                .toList();
+        List<String> bodies = new ArrayList<>();
+
+        // when
+        HttpResponse<String> page = send(HttpRequest.newBuilder(uri("?size=2")).GET());
+        bodies.add(page.body());
+        while (page.headers().firstValue(ProductHttpServer.NEXT_CURSOR_HEADER).isPresent()) {
+            String cursor = page.headers().firstValue(ProductHttpServer.NEXT_CURSOR_HEADER).orElseThrow();
+            page = send(HttpRequest.newBuilder(uri("?size=2&cursor=" + cursor)).GET());
+            bodies.add(page.body());
+        }
+
+        // then
+        String all = String.join("", bodies);
+        assertThat(expected)
+                .allSatisfy(uuid -> assertThat(all).containsOnlyOnce(uuid.toString()));
+        assertThat(all.indexOf(expected.get(0).toString())).isLessThan(all.indexOf(expected.get(4).toString()));
+        assertEquals(3, bodies.size());
+    }
+
+    @Test
+    void getAllShouldReturnBadRequestForDeepPageWithoutCursor() throws Exception {
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("?page=100000&size=20")).GET());
+
+        // then
+        assertEquals(400, actual.statusCode());
+    }
+
+    @Test
+    void createShouldSaveProductAndReturnUuid() throws Exception {
+        // given
+        String body = "{\"name\":\"Продукт\",\"description\":\"Описание продукта\",\"price\":10.50}";
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri(""))
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+
+        // then
+        assertEquals(201, actual.statusCode());
+        UUID uuid = UUID.fromString(actual.headers().firstValue("Location").orElseThrow()
+                .substring(ProductHttpServer.PATH.length() + 1));
+        assertThat(productRepository.findById(uuid)).isPresent();
+    }
+
+    @Test
+    void createShouldReturnBadRequestForInvalidProduct() throws Exception {
+        // given
+        String body = "{\"name\":\"Product\",\"price\":1}";
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri(""))
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+
+        // then
+        assertEquals(400, actual.statusCode());
+        assertEquals("{\"error\":\"Entity isn't valid\"}", actual.body());
+    }
+
+    @Test
+    void createShouldReturnBadRequestForBadUnicodeEscape() throws Exception {
+        // given
+        String body = "{\"name\":\"\\u00zz\",\"description\":\"Описание продукта\",\"price\":1}";
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri(""))
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+
+        // then
+        assertEquals(400, actual.statusCode());
+        assertThat(actual.body()).contains("bad unicode escape");
+    }
+
+    @Test
+    void updateShouldReportWhetherProductWasWritten() throws Exception {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+        String body = "{\"name\":\"Продукт\",\"description\":\"Новое описание\",\"price\":2}";
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/" + product.getUuid()))
+                .PUT(HttpRequest.BodyPublishers.ofString(body)));
+
+        // then
+        assertEquals(200, actual.statusCode());
+        assertEquals("{\"updated\":true}", actual.body());
+    }
+
+    @Test
+    void updateShouldReturnBadRequestForInvalidProduct() throws Exception {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+        String body = "{\"name\":\"Product\",\"price\":1}";
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/" + product.getUuid()))
+                .PUT(HttpRequest.BodyPublishers.ofString(body)));
+
+        // then
+        assertEquals(400, actual.statusCode());
+        assertEquals("{\"error\":\"Entity isn't valid\"}", actual.body());
+        assertEquals(Optional.of(product), productRepository.findById(product.getUuid()));
+    }
+
+    @Test
+    void getShouldReturnBadRequestForPathWithoutSeparator() throws Exception {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("X" + product.getUuid())).GET());
+
+        // then
+        assertEquals(400, actual.statusCode());
+    }
+
+    @Test
+    void deleteShouldRemoveProduct() throws Exception {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        HttpResponse<String> actual = send(HttpRequest.newBuilder(uri("/" + product.getUuid())).DELETE());
+
+        // then
+        assertEquals(204, actual.statusCode());
+        assertEquals(Optional.empty(), productRepository.findById(product.getUuid()));
+    }
+
+    private URI uri(String suffix) {
+        InetSocketAddress address = server.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort()
+                + ProductHttpServer.PATH + suffix);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
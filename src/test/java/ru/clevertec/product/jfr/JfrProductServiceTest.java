@@ -0,0 +1,102 @@
+package ru.clevertec.product.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.ProductValidator;
+import ru.clevertec.product.exception.NotValidException;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.mapper.ProductMapperImpl;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.service.impl.ProductServiceImpl;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JfrProductServiceTest {
+
+    private JfrProductService jfrProductService;
+
+    @TempDir
+    private Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        ProductValidator productValidator = new ProductValidator();
+        JfrProductRepository productRepository = new JfrProductRepository(new InMemoryProductRepository());
+        jfrProductService = new JfrProductService(
+                new ProductServiceImpl(new ProductMapperImpl(), productRepository, productValidator));
+    }
+
+    @Test
+    void operationsShouldEmitServiceAndRepositoryEventsWhenProfileEnabled() throws Exception {
+        // given
+        ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+        ProductDto invalid = ProductTestData.builder().withName("name").build().buildProductDto();
+        UUID missing = UUID.fromString("b8003c54-c22b-450a-a0d3-94b646150585");
+        Path file = tempDir.resolve("product.jfr");
+
+        // when
+        try (Recording recording = new Recording(ProductJfr.settings())) {
+            recording.start();
+            UUID uuid = jfrProductService.create(productDto);
+            jfrProductService.get(uuid);
+            assertThrows(ProductNotFoundException.class, () -> jfrProductService.get(missing));
+            assertThrows(NotValidException.class, () -> jfrProductService.create(invalid));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<RecordedEvent> serviceEvents = events.stream()
+                .filter(event -> event.getEventType().getName().equals(ProductServiceEvent.NAME))
+                .toList();
+        assertThat(serviceEvents)
+                .extracting(event -> event.getString("operation"))
+                .containsExactly("create", "get", "get", "create");
+        assertThat(serviceEvents)
+                .extracting(event -> event.getString("outcome"))
+                .containsExactly("OK", "OK", "ProductNotFoundException", "NotValidException");
+        assertThat(serviceEvents)
+                .extracting(event -> event.getBoolean("valid"))
+                .containsExactly(true, true, true, false);
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals(ProductRepositoryEvent.NAME))
+                .extracting(event -> event.getString("operation"))
+                .containsExactly("save", "findById", "findById");
+    }
+
+    @Test
+    void settingsShouldKeepDefaultProfileEvents() throws Exception {
+        // when
+        Map<String, String> actual = ProductJfr.settings();
+
+        // then
+        assertEquals("true", actual.get("jdk.GarbageCollection#enabled"));
+        assertEquals("true", actual.get(ProductServiceEvent.NAME + "#enabled"));
+    }
+
+    @Test
+    void operationsShouldWorkWithoutRecording() {
+        // given
+        ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+
+        // when
+        UUID uuid = jfrProductService.create(productDto);
+
+        // then
+        assertEquals(productDto.name(), jfrProductService.get(uuid).name());
+    }
+}
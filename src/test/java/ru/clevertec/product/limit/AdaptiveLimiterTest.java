@@ -0,0 +1,101 @@
+package ru.clevertec.product.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimiterTest {
+
+    @Test
+    void tryAcquireShouldRejectWhenLimitReached() {
+        // given
+        AdaptiveLimiter limiter = AdaptiveLimiter.fixed(2);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        // when
+        boolean actual = limiter.tryAcquire();
+
+        // then
+        assertFalse(actual);
+        assertEquals(1, limiter.getRejected());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void releaseShouldDecreaseLimitWhenLatencyAboveTarget() {
+        // given
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 20, 1, TimeUnit.MILLISECONDS);
+
+        // when
+        IntStream.range(0, 10).forEach(index -> {
+            limiter.tryAcquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(5));
+        });
+
+        // then
+        assertEquals(3, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void burstOfConcurrentSlowCallsShouldDecreaseLimitOnce() {
+        // given
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 20, 1, TimeUnit.MILLISECONDS);
+        IntStream.range(0, 10).forEach(index -> assertTrue(limiter.tryAcquire()));
+
+        // when
+        IntStream.range(0, 10).forEach(index -> limiter.release(TimeUnit.MILLISECONDS.toNanos(5)));
+
+        // then
+        assertEquals(9, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void slowCallAfterBurstShouldDecreaseLimitAgain() {
+        // given
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 20, 1, TimeUnit.MILLISECONDS);
+        IntStream.range(0, 5).forEach(index -> limiter.tryAcquire());
+        IntStream.range(0, 5).forEach(index -> limiter.release(TimeUnit.MILLISECONDS.toNanos(5)));
+        limiter.tryAcquire();
+
+        // when
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(5));
+
+        // then
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void releaseShouldIncreaseLimitWhenBusyAndFast() {
+        // given
+        AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 4, 1, TimeUnit.SECONDS);
+
+        // when
+        IntStream.range(0, 10).forEach(index -> {
+            limiter.tryAcquire();
+            assertTrue(limiter.tryAcquire());
+            limiter.release(1);
+            limiter.release(1);
+        });
+
+        // then
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void constructorShouldThrowIllegalArgumentExceptionForInconsistentLimits() {
+        // given
+
+        // when, then
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveLimiter(5, 6, 10, 1, TimeUnit.SECONDS));
+    }
+}
@@ -1,10 +1,12 @@
 package ru.clevertec.product.mapper.impl;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import ru.clevertec.product.data.InfoProductColumns;
 import ru.clevertec.product.data.InfoProductDto;
 import ru.clevertec.product.data.ProductDto;
 import ru.clevertec.product.entity.Product;
@@ -13,6 +15,8 @@ import ru.clevertec.product.mapper.ProductMapperImpl;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -102,6 +106,56 @@ class ProductMapperImplTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void toInfoProductColumnsShouldKeepOrderAndFields() {
+        // given
+        List<Product> products = List.of(
+                new Product(UUID.fromString("ee892366-b605-4745-9515-ee7cdd0cebeb"),
+                        "Продукт", "Описание", BigDecimal.valueOf(1), LocalDateTime.MIN),
+                new Product(UUID.fromString("d303c1e9-f3da-45e0-9d25-0a9d39336fd3"),
+                        "Продукт 1", null, BigDecimal.valueOf(2), LocalDateTime.MIN));
+        List<InfoProductDto> expected = products.stream()
+                .map(productMapper::toInfoProductDto)
+                .toList();
+
+        // when
+        InfoProductColumns actual = productMapper.toInfoProductColumns(products);
+
+        // then
+        assertEquals(expected, actual.toList());
+    }
+
+    @Test
+    void toInfoProductColumnsCursorShouldIterateAllRows() {
+        // given
+        Product product = new Product(UUID.fromString("2a5304d2-d4e1-423f-a209-945167d57980"),
+                "Продукт 2", "Описание 2", BigDecimal.valueOf(3), LocalDateTime.MIN);
+        InfoProductColumns columns = productMapper.toInfoProductColumns(List.of(product, product));
+        List<BigDecimal> actual = new ArrayList<>();
+
+        // when
+        columns.forEach(cursor -> {
+            assertEquals(product.getUuid().getMostSignificantBits(), cursor.uuidMostSigBits());
+            assertEquals(product.getUuid().getLeastSignificantBits(), cursor.uuidLeastSigBits());
+            actual.add(cursor.price());
+        });
+
+        // then
+        assertThat(actual).containsExactly(product.getPrice(), product.getPrice());
+    }
+
+    @Test
+    void toInfoProductColumnsShouldReturnEmptyColumns() {
+        // given
+
+        // when
+        InfoProductColumns actual = productMapper.toInfoProductColumns(List.of());
+
+        // then
+        assertThat(actual.isEmpty()).isTrue();
+        assertThat(actual.cursor().next()).isFalse();
+    }
+
     public static Stream<Arguments> provideArgumentsProduct() {
         return Stream.of(
                 Arguments.of(new Product(UUID.fromString("ee892366-b605-4745-9515-ee7cdd0cebeb"),
@@ -0,0 +1,77 @@
+package ru.clevertec.product.replication;
+
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReplicationCodecTest {
+
+    private final ReplicationCodec codec = new ReplicationCodec();
+
+    @Test
+    void decodeShouldReturnEncodedFrames() throws IOException {
+        // given
+        Product product = ProductTestData.builder().build().buildProduct();
+        ReplicationFrame save = new ReplicationFrame(ReplicationFrame.Type.SAVE, 1, 100, product, null);
+        ReplicationFrame delete = new ReplicationFrame(ReplicationFrame.Type.DELETE, 2, 200, null, product.getUuid());
+        ByteBuffer buffer = concat(codec.encode(save), codec.encode(delete));
+
+        // when
+        ReplicationFrame actualSave = codec.decode(buffer);
+        ReplicationFrame actualDelete = codec.decode(buffer);
+
+        // then
+        assertEquals(save, actualSave);
+        assertEquals(delete, actualDelete);
+        assertNull(codec.decode(buffer));
+    }
+
+    @Test
+    void decodeShouldNotReadUuidFromNextFrame() {
+        // given
+        ByteBuffer delete = codec.encode(new ReplicationFrame(ReplicationFrame.Type.DELETE, 1, 100, null, null));
+        ByteBuffer next = codec.encode(new ReplicationFrame(ReplicationFrame.Type.DELETE, 2, 200, null,
+                UUID.randomUUID()));
+        ByteBuffer buffer = concat(delete, next);
+
+        // when, then
+        assertThrows(IOException.class, () -> codec.decode(buffer));
+    }
+
+    @Test
+    void decodeShouldRejectFrameWithUnreadBytes() {
+        // given
+        ByteBuffer heartbeat = codec.encode(new ReplicationFrame(ReplicationFrame.Type.HEARTBEAT, 1, 100, null,
+                UUID.randomUUID()));
+        ByteBuffer buffer = ByteBuffer.allocate(heartbeat.remaining() + 2 * Long.BYTES)
+                .put(heartbeat);
+        buffer.putInt(0, buffer.getInt(0) + 2 * Long.BYTES).position(buffer.capacity()).flip();
+
+        // when, then
+        assertThrows(IOException.class, () -> codec.decode(buffer));
+    }
+
+    @Test
+    void decodeShouldRejectHostileLengthBeforeWaitingForBody() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(ReplicationCodec.LENGTH_HEADER).putInt(Integer.MAX_VALUE).flip();
+
+        // when, then
+        assertThrows(IOException.class, () -> codec.decode(buffer));
+    }
+
+    private static ByteBuffer concat(ByteBuffer first, ByteBuffer second) {
+        return ByteBuffer.allocate(first.remaining() + second.remaining())
+                .put(first)
+                .put(second)
+                .flip();
+    }
+}
@@ -0,0 +1,246 @@
+package ru.clevertec.product.replication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration HEARTBEAT = Duration.ofMillis(50);
+
+    private final List<Closeable> resources = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (int i = resources.size() - 1; i >= 0; i--) {
+            resources.get(i).close();
+        }
+    }
+
+    @Test
+    void followerShouldApplySavesAndDeletesInOrder() throws Exception {
+        // given
+        ReplicatingProductRepository leader = leader(100);
+        FollowerProductRepository follower = follower(leader);
+        Product first = leader.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        Product second = leader.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        leader.save(new Product(first.getUuid(), "Новое имя", "Описание продукта", BigDecimal.TEN, null));
+
+        // when
+        leader.delete(second.getUuid());
+
+        // then
+        assertTrue(follower.awaitSequence(leader.getSequence(), TIMEOUT));
+        assertEquals(leader.findAll(), follower.findAll());
+        assertEquals(Optional.empty(), follower.findById(second.getUuid()));
+        assertEquals(0, follower.getSnapshotsLoaded());
+    }
+
+    @Test
+    void newFollowerShouldCatchUpFromSnapshotWhenLogIsTruncated() throws Exception {
+        // given
+        ReplicatingProductRepository leader = leader(4);
+        for (int i = 0; i < 20; i++) {
+            leader.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        }
+
+        // when
+        FollowerProductRepository follower = follower(leader);
+
+        // then
+        assertTrue(follower.awaitSequence(leader.getSequence(), TIMEOUT));
+        assertEquals(1, follower.getSnapshotsLoaded());
+        assertEquals(leader.findAll(), follower.findAll());
+    }
+
+    @Test
+    void newFollowerShouldReceiveProductsSavedBeforeLeaderWasCreated() throws Exception {
+        // given
+        InMemoryProductRepository storage = new InMemoryProductRepository();
+        Product existing = storage.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        ReplicatingProductRepository leader = new ReplicatingProductRepository(storage,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 100, HEARTBEAT);
+        resources.add(leader);
+        Product later = leader.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+
+        // when
+        FollowerProductRepository follower = follower(leader);
+
+        // then
+        assertTrue(follower.awaitSequence(leader.getSequence(), TIMEOUT));
+        assertEquals(1, follower.getSnapshotsLoaded());
+        assertEquals(List.of(existing, later), follower.findAll());
+        assertEquals(leader.getId(), follower.getLeaderId());
+    }
+
+    @Test
+    void followerShouldContinueWithOperationsAfterSnapshot() throws Exception {
+        // given
+        ReplicatingProductRepository leader = leader(2);
+        for (int i = 0; i < 5; i++) {
+            leader.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        }
+        FollowerProductRepository follower = follower(leader);
+        assertTrue(follower.awaitSequence(leader.getSequence(), TIMEOUT));
+
+        // when
+        Product later = leader.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+
+        // then
+        assertTrue(follower.awaitSequence(leader.getSequence(), TIMEOUT));
+        assertEquals(Optional.of(later), follower.findById(later.getUuid()));
+        assertEquals(6, follower.findAll().size());
+    }
+
+    @Test
+    void severalFollowersShouldConvergeAndReportNoLag() throws Exception {
+        // given
+        ReplicatingProductRepository leader = leader(100);
+        FollowerProductRepository first = follower(leader);
+        FollowerProductRepository second = follower(leader);
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            leader.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        }
+
+        // then
+        assertTrue(first.awaitSequence(50, TIMEOUT));
+        assertTrue(second.awaitSequence(50, TIMEOUT));
+        assertEquals(leader.findAll(), first.findAll());
+        assertEquals(leader.findAll(), second.findAll());
+        assertEquals(0, first.getLagOperations());
+        assertEquals(0, first.getLagMillis());
+        awaitAcknowledged(leader, 50);
+        assertThat(leader.getReplicas()).hasSize(2)
+                .allSatisfy(replica -> assertEquals(0, replica.lagOperations()));
+    }
+
+    @Test
+    void followerShouldReconnectAndResumeAfterLeaderRestart() throws Exception {
+        // given
+        InMemoryProductRepository storage = new InMemoryProductRepository();
+        ReplicatingProductRepository leader = new ReplicatingProductRepository(storage,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 100, HEARTBEAT);
+        InetSocketAddress address = leader.getAddress();
+        FollowerProductRepository follower = new FollowerProductRepository(address, Duration.ofMillis(20));
+        resources.add(follower);
+        leader.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        assertTrue(follower.awaitSequence(1, TIMEOUT));
+        leader.close();
+
+        // when
+        ReplicatingProductRepository restarted = new ReplicatingProductRepository(storage, address, 100, HEARTBEAT);
+        resources.add(restarted);
+        restarted.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        restarted.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+
+        // then
+        assertTrue(follower.awaitSequence(2, TIMEOUT));
+        assertEquals(storage.findAll(), follower.findAll());
+    }
+
+    @Test
+    void leaderShouldNotLogDeleteWithoutUuid() throws Exception {
+        // given
+        ReplicatingProductRepository leader = leader(10);
+        FollowerProductRepository follower = follower(leader);
+        Product product = leader.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+
+        // when
+        leader.delete(null);
+        leader.delete(product.getUuid());
+
+        // then
+        assertEquals(2, leader.getSequence());
+        assertTrue(follower.awaitSequence(2, TIMEOUT));
+        assertEquals(List.of(), follower.findAll());
+    }
+
+    @Test
+    void followerShouldReconnectAfterMalformedFrame() throws Exception {
+        // given
+        ReplicationCodec codec = new ReplicationCodec();
+        ByteBuffer malformed = ByteBuffer.allocate(ReplicationCodec.LENGTH_HEADER).putInt(-1).flip();
+
+        try (ServerSocketChannel fakeLeader = ServerSocketChannel.open()
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            FollowerProductRepository follower = new FollowerProductRepository(
+                    (InetSocketAddress) fakeLeader.getLocalAddress(), Duration.ofMillis(20));
+            resources.add(follower);
+
+            // when
+            try (SocketChannel first = fakeLeader.accept()) {
+                first.write(codec.encode(new ReplicationFrame(ReplicationFrame.Type.HELLO, 0,
+                        System.currentTimeMillis(), null, UUID.randomUUID())));
+                first.write(malformed);
+
+                // then
+                ByteBuffer received = ByteBuffer.allocate(256);
+                while (first.read(received.clear()) >= 0) {
+                    // HELLO ведомого, затем ведомый должен закрыть соединение
+                }
+                try (SocketChannel second = fakeLeader.accept()) {
+                    assertTrue(second.isConnected());
+                }
+            }
+        }
+    }
+
+    @Test
+    void followerShouldRejectWrites() {
+        // given
+        ReplicatingProductRepository leader = leader(10);
+        FollowerProductRepository follower = follower(leader);
+        Product product = ProductTestData.builder().build().buildProduct();
+
+        // when, then
+        assertThrows(UnsupportedOperationException.class, () -> follower.save(product));
+        assertThrows(UnsupportedOperationException.class, () -> follower.delete(product.getUuid()));
+    }
+
+    private ReplicatingProductRepository leader(int maxLogEntries) {
+        ReplicatingProductRepository leader = new ReplicatingProductRepository(new InMemoryProductRepository(),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), maxLogEntries, HEARTBEAT);
+        resources.add(leader);
+        return leader;
+    }
+
+    private FollowerProductRepository follower(ReplicatingProductRepository leader) {
+        FollowerProductRepository follower = new FollowerProductRepository(leader.getAddress(),
+                Duration.ofMillis(20));
+        resources.add(follower);
+        return follower;
+    }
+
+    private static void awaitAcknowledged(ReplicatingProductRepository leader, long sequence)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline && leader.getReplicas().stream()
+                .anyMatch(replica -> replica.acknowledgedSequence() < sequence)) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package ru.clevertec.product.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryPlannerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 10, 1, 12, 0);
+
+    private InMemoryProductRepository productRepository;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new InMemoryProductRepository();
+        products = IntStream.range(0, 600)
+                .mapToObj(i -> ProductTestData.builder()
+                        .withUuid(UUID.randomUUID())
+                        .withName(i % 2 == 0 ? "Яблоко" : "Груша")
+                        .withPrice(BigDecimal.valueOf((i * 37) % 600 + 1))
+                        .withCreated(START.plusMinutes(i))
+                        .build().buildProduct())
+                .map(productRepository::save)
+                .toList();
+    }
+
+    @Test
+    void planShouldUseTopByPriceWhenOnlyOrderAndLimitAreGiven() {
+        // given
+        ProductQuery query = ProductQuery.all()
+                .orderBy(ProductQuery.SortField.PRICE, SortDirection.DESC)
+                .withLimit(3);
+
+        // when
+        QueryPlan plan = productRepository.plan(query);
+
+        // then
+        assertEquals(QueryPlan.Access.TOP_BY_PRICE, plan.access());
+        assertEquals("TopByPrice(k=3, DESC)", plan.explain());
+        assertEquals(productRepository.findTopByPrice(3, SortDirection.DESC), execute(query));
+    }
+
+    @Test
+    void planShouldUseTopByCreatedForNewestProducts() {
+        // given
+        ProductQuery query = ProductQuery.all()
+                .orderBy(ProductQuery.SortField.CREATED, SortDirection.DESC)
+                .withLimit(5);
+
+        // when
+        QueryPlan plan = productRepository.plan(query);
+
+        // then
+        assertEquals(QueryPlan.Access.TOP_BY_CREATED, plan.access());
+        assertEquals(reversed(products.subList(595, 600)), execute(query));
+    }
+
+    @Test
+    void planShouldPushLimitIntoCreatedIndexWhenNothingIsLeftToFilter() {
+        // given
+        ProductQuery query = ProductQuery.all()
+                .withCreatedBetween(START.plusMinutes(10), START.plusMinutes(500))
+                .withLimit(4);
+
+        // when
+        QueryPlan plan = productRepository.plan(query);
+
+        // then
+        assertEquals(QueryPlan.Access.CREATED_INDEX, plan.access());
+        assertEquals(4, plan.pageSize());
+        assertEquals("""
+                Limit(4)
+                  CreatedIndexScan(from=2023-10-01T12:10, to=2023-10-01T20:20, page=4)""", plan.explain());
+        assertEquals(products.subList(10, 14), execute(query));
+    }
+
+    @Test
+    void planShouldPageThroughCreatedIndexAndFilterRemainingConditions() {
+        // given
+        ProductQuery query = ProductQuery.all()
+                .withName("Груша")
+                .withCreatedBetween(START.plusMinutes(100), START.plusMinutes(400));
+        List<Product> expected = products.subList(100, 400).stream()
+                .filter(product -> product.getName().equals("Груша"))
+                .toList();
+
+        // when
+        QueryPlan plan = productRepository.plan(query);
+
+        // then
+        assertEquals(QueryPlan.Access.CREATED_INDEX, plan.access());
+        assertEquals(QueryPlanner.INDEX_PAGE_SIZE, plan.pageSize());
+        assertEquals(List.of("name = 'Груша'"), plan.filters());
+        assertEquals(expected, execute(query));
+    }
+
+    @Test
+    void planShouldUseCreatedIndexForAscendingOrderWithoutSort() {
+        // given
+        ProductQuery query = ProductQuery.all()
+                .withNameContaining("яблоко")
+                .orderBy(ProductQuery.SortField.CREATED, SortDirection.ASC)
+                .withLimit(3);
+
+        // when
+        QueryPlan plan = productRepository.plan(query);
+
+        // then
+        assertEquals(QueryPlan.Access.CREATED_INDEX, plan.access());
+        assertEquals(QueryPlan.Ordering.SOURCE, plan.ordering());
+        assertEquals(List.of(products.get(0), products.get(2), products.get(4)), execute(query));
+    }
+
+    @Test
+    void planShouldReplaceSortWithTopKWhenLimitIsGiven() {
+        // given
+        ProductQuery query = ProductQuery.all()
+                .withName("Яблоко")
+                .withPriceBetween(BigDecimal.valueOf(100), BigDecimal.valueOf(300))
+                .orderBy(ProductQuery.SortField.PRICE, SortDirection.ASC)
+                .withLimit(10);
+        List<Product> expected = products.stream()
+                .filter(product -> product.getName().equals("Яблоко"))
+                .filter(product -> product.getPrice().compareTo(BigDecimal.valueOf(100)) >= 0
+                        && product.getPrice().compareTo(BigDecimal.valueOf(300)) <= 0)
+                .sorted(ProductRepository.PRICE_ORDER)
+                .limit(10)
+                .toList();
+
+        // when
+        QueryPlan plan = productRepository.plan(query);
+
+        // then
+        assertEquals(QueryPlan.Access.FULL_SCAN, plan.access());
+        assertEquals("""
+                TopK(k=10, price ASC)
+                  Filter(name = 'Яблоко' AND price >= 100 AND price <= 300)
+                    FullScan""", plan.explain());
+        assertEquals(expected, execute(query));
+    }
+
+    @Test
+    void planShouldFallBackToFullScanWithoutIndexes() {
+        // given
+        ProductQuery query = ProductQuery.all()
+                .withCreatedBetween(START.plusMinutes(590), null)
+                .orderBy(ProductQuery.SortField.CREATED, SortDirection.DESC);
+
+        // when
+        QueryPlan plan = QueryPlanner.plan(query, Set.of());
+
+        // then
+        assertEquals(QueryPlan.Access.FULL_SCAN, plan.access());
+        assertEquals(QueryPlan.Ordering.SORT, plan.ordering());
+        try (Stream<Product> actual = plan.execute(productRepository)) {
+            assertEquals(reversed(products.subList(590, 600)), actual.toList());
+        }
+    }
+
+    @Test
+    void queryShouldReturnEmptyStreamForZeroLimit() {
+        // given
+        ProductQuery query = ProductQuery.all()
+                .withCreatedBetween(START, null)
+                .withLimit(0);
+
+        // when
+        List<Product> actual = execute(query);
+
+        // then
+        assertThat(actual).isEmpty();
+    }
+
+    private static List<Product> reversed(List<Product> products) {
+        List<Product> reversed = new ArrayList<>(products);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
+    private List<Product> execute(ProductQuery query) {
+        try (Stream<Product> actual = productRepository.query(query)) {
+            return actual.toList();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ru.clevertec.product.repository.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BloomFilterProductRepositoryTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Test
+    void findByIdShouldAnswerDefiniteMissWithoutDelegate() {
+        // given
+        UUID uuid = UUID.fromString("338903f8-ff25-4df4-8348-f8cefc066297");
+
+        when(productRepository.findAll())
+                .thenReturn(List.of());
+        BloomFilterProductRepository bloomFilterRepository = new BloomFilterProductRepository(productRepository);
+
+        // when
+        Optional<Product> actual = bloomFilterRepository.findById(uuid);
+
+        // then
+        assertEquals(Optional.empty(), actual);
+        assertEquals(1, bloomFilterRepository.getDefiniteMisses());
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void findByIdShouldReturnSavedProduct() {
+        // given
+        Product expected = ProductTestData.builder().build().buildProduct();
+
+        when(productRepository.findAll())
+                .thenReturn(List.of());
+        when(productRepository.save(expected))
+                .thenReturn(expected);
+        when(productRepository.findById(expected.getUuid()))
+                .thenReturn(Optional.of(expected));
+        BloomFilterProductRepository bloomFilterRepository = new BloomFilterProductRepository(productRepository);
+        bloomFilterRepository.save(expected);
+
+        // when
+        Optional<Product> actual = bloomFilterRepository.findById(expected.getUuid());
+
+        // then
+        assertEquals(Optional.of(expected), actual);
+    }
+
+    @Test
+    void constructorShouldIndexExistingProducts() {
+        // given
+        InMemoryProductRepository inMemoryRepository = new InMemoryProductRepository();
+        Product expected = inMemoryRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        BloomFilterProductRepository bloomFilterRepository = new BloomFilterProductRepository(inMemoryRepository);
+
+        // then
+        assertEquals(Optional.of(expected), bloomFilterRepository.findById(expected.getUuid()));
+    }
+
+    @Test
+    void deleteShouldRebuildFilterWhenChurnIsHigh() {
+        // given
+        BloomFilterProductRepository bloomFilterRepository = new BloomFilterProductRepository(
+                new InMemoryProductRepository(), 1024, 0.01, 0.5, Runnable::run);
+        List<Product> products = IntStream.range(0, 1000)
+                .mapToObj(i -> bloomFilterRepository.save(ProductTestData.builder().withUuid(null).build()
+                        .buildProduct()))
+                .toList();
+
+        // when
+        products.forEach(product -> bloomFilterRepository.delete(product.getUuid()));
+
+        // then
+        assertEquals(2, bloomFilterRepository.getRebuilds());
+        assertEquals(Optional.empty(), bloomFilterRepository.findById(products.get(0).getUuid()));
+        assertEquals(1, bloomFilterRepository.getDefiniteMisses());
+    }
+
+    @Test
+    void deleteShouldNotRebuildFilterForFewDeletions() {
+        // given
+        BloomFilterProductRepository bloomFilterRepository = new BloomFilterProductRepository(
+                new InMemoryProductRepository(), 1024, 0.01, 0.5, Runnable::run);
+        Product product = bloomFilterRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        bloomFilterRepository.delete(product.getUuid());
+
+        // then
+        assertEquals(1, bloomFilterRepository.getRebuilds());
+    }
+
+    @Test
+    void rebuildShouldKeepProductsSavedConcurrently() throws Exception {
+        // given
+        BloomFilterProductRepository bloomFilterRepository =
+                new BloomFilterProductRepository(new InMemoryProductRepository());
+        AtomicBoolean saving = new AtomicBoolean(true);
+        Thread rebuilder = new Thread(() -> {
+            while (saving.get()) {
+                bloomFilterRepository.rebuild();
+            }
+        });
+        rebuilder.start();
+
+        // when
+        List<Product> saved = IntStream.range(0, 20_000)
+                .mapToObj(i -> bloomFilterRepository.save(ProductTestData.builder().withUuid(null).build()
+                        .buildProduct()))
+                .toList();
+        saving.set(false);
+        rebuilder.join();
+
+        // then
+        assertThat(saved)
+                .allSatisfy(product -> assertThat(bloomFilterRepository.findById(product.getUuid())).isPresent());
+        assertEquals(0, bloomFilterRepository.getDefiniteMisses());
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.SortDirection;
 import ru.clevertec.product.entity.Product;
 import ru.clevertec.product.utils.ProductTestData;
 
@@ -70,6 +72,30 @@ class InMemoryProductRepositoryTest {
         assertEquals(excepted, actual);
     }
 
+    @Test
+    void findByIdShouldReturnOptionalEmptyForNullUuid() {
+        // given
+        productRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        Optional<Product> actual = productRepository.findById(null);
+
+        // then
+        assertEquals(Optional.empty(), actual);
+    }
+
+    @Test
+    void deleteShouldIgnoreNullUuid() {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        productRepository.delete(null);
+
+        // then
+        assertEquals(List.of(product), productRepository.findAll());
+    }
+
     @ParameterizedTest
     @MethodSource("provideArgumentsForFindAll")
     void findAllShouldReturnListProducts(List<Product> products) {
@@ -151,6 +177,116 @@ class InMemoryProductRepositoryTest {
         assertEquals(excepted, actual);
     }
 
+    @Test
+    void findCreatedBetweenShouldReturnProductsInCreationOrderWithinInterval() {
+        // given
+        LocalDateTime start = LocalDateTime.of(2023, 10, 1, 0, 0);
+        Product third = productRepository.save(productCreatedAt("93af5278-cd77-4c51-bfd7-6ab28e6f7f5f", start.plusDays(2)));
+        Product first = productRepository.save(productCreatedAt("338903f8-ff25-4df4-8348-f8cefc066296", start));
+        productRepository.save(productCreatedAt("e495840a-b4ab-40c9-8200-8ed6117ad1a5", start.plusDays(3)));
+        Product second = productRepository.save(productCreatedAt("f3f685e2-a0dd-47d8-9da7-d9ac3c64ef09", start.plusDays(1)));
+
+        // when
+        List<Product> actual = productRepository.findCreatedBetween(start, start.plusDays(3), 10);
+
+        // then
+        assertEquals(List.of(first, second, third), actual);
+    }
+
+    @Test
+    void findCreatedBetweenShouldRespectLimit() {
+        // given
+        LocalDateTime start = LocalDateTime.of(2023, 10, 1, 0, 0);
+        Product first = productRepository.save(productCreatedAt("338903f8-ff25-4df4-8348-f8cefc066296", start));
+        productRepository.save(productCreatedAt("e495840a-b4ab-40c9-8200-8ed6117ad1a5", start.plusDays(1)));
+
+        // when
+        List<Product> actual = productRepository.findCreatedBetween(start, start.plusDays(5), 1);
+
+        // then
+        assertEquals(List.of(first), actual);
+    }
+
+    @Test
+    void findCreatedSinceShouldContinueAfterCursorAndSkipDeleted() {
+        // given
+        LocalDateTime created = LocalDateTime.of(2023, 10, 1, 0, 0);
+        Product first = productRepository.save(productCreatedAt("338903f8-ff25-4df4-8348-f8cefc066296", created));
+        Product deleted = productRepository.save(productCreatedAt("39ed88c3-58d9-4153-93ce-4d2c951df27c", created));
+        Product last = productRepository.save(productCreatedAt("7a041a44-9f86-4d1c-96d0-f390a47054fc", created));
+        productRepository.delete(deleted.getUuid());
+
+        // when
+        List<Product> actual = productRepository.findCreatedSince(CreatedCursor.of(first), 10);
+
+        // then
+        assertEquals(List.of(last), actual);
+    }
+
+    @Test
+    void findTopByPriceShouldReturnCheapestInAscendingOrder() {
+        // given
+        List<Product> products = provideProductsForTesting()
+                .map(arguments -> (Product) arguments.get()[0])
+                .map(productRepository::save)
+                .toList();
+
+        // when
+        List<Product> actual = productRepository.findTopByPrice(3, SortDirection.ASC);
+
+        // then
+        assertEquals(List.of(products.get(0), products.get(1), products.get(2)), actual);
+    }
+
+    @Test
+    void findTopByPriceShouldReturnMostExpensiveInDescendingOrder() {
+        // given
+        List<Product> products = provideProductsForTesting()
+                .map(arguments -> (Product) arguments.get()[0])
+                .map(productRepository::save)
+                .toList();
+
+        // when
+        List<Product> actual = productRepository.findTopByPrice(2, SortDirection.DESC);
+
+        // then
+        assertEquals(List.of(products.get(8), products.get(5)), actual);
+    }
+
+    @Test
+    void findTopByPriceShouldReturnAllWhenKExceedsSize() {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        List<Product> actual = productRepository.findTopByPrice(20, SortDirection.ASC);
+
+        // then
+        assertEquals(List.of(product), actual);
+    }
+
+    @Test
+    void findTopByCreatedShouldReturnNewestFirst() {
+        // given
+        LocalDateTime start = LocalDateTime.of(2023, 10, 1, 0, 0);
+        productRepository.save(productCreatedAt("338903f8-ff25-4df4-8348-f8cefc066296", start));
+        Product newest = productRepository.save(productCreatedAt("e495840a-b4ab-40c9-8200-8ed6117ad1a5", start.plusDays(3)));
+        Product second = productRepository.save(productCreatedAt("93af5278-cd77-4c51-bfd7-6ab28e6f7f5f", start.plusDays(2)));
+
+        // when
+        List<Product> actual = productRepository.findTopByCreated(2);
+
+        // then
+        assertEquals(List.of(newest, second), actual);
+    }
+
+    private static Product productCreatedAt(String uuid, LocalDateTime created) {
+        return ProductTestData.builder()
+                .withUuid(UUID.fromString(uuid))
+                .withCreated(created)
+                .build().buildProduct();
+    }
+
     public static Stream<Arguments> provideArgumentsForFindAll() {
         return Stream.of(
                 Arguments.of(Arrays
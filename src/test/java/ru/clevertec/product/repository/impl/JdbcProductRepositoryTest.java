@@ -0,0 +1,416 @@
+package ru.clevertec.product.repository.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.SortDirection;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JdbcProductRepositoryTest {
+
+    public JdbcProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new JdbcProductRepository(url(), 2, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.close();
+    }
+
+    @Test
+    void findByIdShouldReturnOptionalProduct() {
+        // given
+        UUID uuid = ProductTestData.builder().build().getUuid();
+        Product excepted = new Product(uuid, "Продукт", "Описание продукта",
+                BigDecimal.valueOf(1), LocalDateTime.MAX);
+        productRepository.save(excepted);
+
+        // when
+        Product actual = productRepository.findById(uuid).orElseThrow();
+
+        // then
+        assertEquals(excepted, actual);
+    }
+
+    @Test
+    void findByIdAndDeleteShouldTreatNullUuidAsMissing() {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        productRepository.delete(null);
+
+        // then
+        assertEquals(Optional.empty(), productRepository.findById(null));
+        assertEquals(List.of(product), productRepository.findAll());
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideProductsForTesting")
+    void findByIdShouldReturnProductEqualsWithUUID(Product product) {
+        // given
+        Product expected = productRepository.save(product);
+
+        // when
+        Product actual = productRepository.findById(expected.getUuid()).orElseThrow();
+
+        // then
+        assertThat(actual)
+                .hasFieldOrPropertyWithValue(Product.Fields.uuid, expected.getUuid());
+    }
+
+    @Test
+    void findByIdShouldReturnOptionalEmpty() {
+        // given
+        UUID uuid = UUID.fromString("338903f8-ff25-4df4-8348-f8cefc066297");
+        Optional<Product> excepted = Optional.empty();
+
+        // when
+        Optional<Product> actual = productRepository.findById(uuid);
+
+        // then
+        assertEquals(excepted, actual);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideArgumentsForFindAll")
+    void findAllShouldReturnListProducts(List<Product> products) {
+        // given
+        List<Product> expected =
+                products.stream()
+                        .map(product -> productRepository.save(product))
+                        .toList();
+
+        // when
+        List<Product> actual = productRepository.findAll();
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideArgumentsForFindAll")
+    void findAllShouldReturnListIsNotEmpty(List<Product> products) {
+        // given
+        products.forEach(product -> productRepository.save(product));
+
+        // when
+        int actual = productRepository.findAll().size();
+
+        // then
+        assertThat(actual).isNotZero();
+    }
+
+    @Test
+    void findAllShouldReturnListIsEmpty() {
+        // given
+
+        // when
+        List<Product> actual = productRepository.findAll();
+
+        // then
+        assertThat(actual).isEmpty();
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideProductsForTesting")
+    void saveShouldReturnSavingProduct(Product expected) {
+        // given
+
+        // when
+        Product actual = productRepository.save(expected);
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideProductsForTesting")
+    void saveShouldReturnSavingProductCheckReturningUUID(Product product) {
+        // given
+        UUID excepted = product.getUuid();
+
+        // when
+        Product actual = productRepository.save(product);
+
+        // then
+        assertThat(actual)
+                .hasFieldOrPropertyWithValue(Product.Fields.uuid, excepted);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideProductsForTesting")
+    void deleteShouldReturnSuccessByExistUUID(Product product) {
+        // given
+        Optional<Product> excepted = Optional.empty();
+        productRepository.save(product);
+
+        // when
+        productRepository.delete(product.getUuid());
+
+        // then
+        Optional<Product> actual = productRepository.findById(product.getUuid());
+        assertEquals(excepted, actual);
+    }
+
+    @Test
+    void findCreatedBetweenShouldReturnProductsInCreationOrderWithinInterval() {
+        // given
+        LocalDateTime start = LocalDateTime.of(2023, 10, 1, 0, 0);
+        Product third = productRepository.save(productCreatedAt("93af5278-cd77-4c51-bfd7-6ab28e6f7f5f", start.plusDays(2)));
+        Product first = productRepository.save(productCreatedAt("338903f8-ff25-4df4-8348-f8cefc066296", start));
+        productRepository.save(productCreatedAt("e495840a-b4ab-40c9-8200-8ed6117ad1a5", start.plusDays(3)));
+        Product second = productRepository.save(productCreatedAt("f3f685e2-a0dd-47d8-9da7-d9ac3c64ef09", start.plusDays(1)));
+
+        // when
+        List<Product> actual = productRepository.findCreatedBetween(start, start.plusDays(3), 10);
+
+        // then
+        assertEquals(List.of(first, second, third), actual);
+    }
+
+    @Test
+    void findCreatedBetweenShouldRespectLimit() {
+        // given
+        LocalDateTime start = LocalDateTime.of(2023, 10, 1, 0, 0);
+        Product first = productRepository.save(productCreatedAt("338903f8-ff25-4df4-8348-f8cefc066296", start));
+        productRepository.save(productCreatedAt("e495840a-b4ab-40c9-8200-8ed6117ad1a5", start.plusDays(1)));
+
+        // when
+        List<Product> actual = productRepository.findCreatedBetween(start, start.plusDays(5), 1);
+
+        // then
+        assertEquals(List.of(first), actual);
+    }
+
+    @Test
+    void findCreatedSinceShouldContinueAfterCursorAndSkipDeleted() {
+        // given
+        LocalDateTime created = LocalDateTime.of(2023, 10, 1, 0, 0);
+        Product first = productRepository.save(productCreatedAt("338903f8-ff25-4df4-8348-f8cefc066296", created));
+        Product deleted = productRepository.save(productCreatedAt("39ed88c3-58d9-4153-93ce-4d2c951df27c", created));
+        Product last = productRepository.save(productCreatedAt("7a041a44-9f86-4d1c-96d0-f390a47054fc", created));
+        productRepository.delete(deleted.getUuid());
+
+        // when
+        List<Product> actual = productRepository.findCreatedSince(CreatedCursor.of(first), 10);
+
+        // then
+        assertEquals(List.of(last), actual);
+    }
+
+    @Test
+    void findTopByPriceShouldReturnCheapestInAscendingOrder() {
+        // given
+        List<Product> products = provideProductsForTesting()
+                .map(arguments -> (Product) arguments.get()[0])
+                .map(productRepository::save)
+                .toList();
+
+        // when
+        List<Product> actual = productRepository.findTopByPrice(3, SortDirection.ASC);
+
+        // then
+        assertEquals(List.of(products.get(0), products.get(1), products.get(2)), actual);
+    }
+
+    @Test
+    void findTopByPriceShouldReturnMostExpensiveInDescendingOrder() {
+        // given
+        List<Product> products = provideProductsForTesting()
+                .map(arguments -> (Product) arguments.get()[0])
+                .map(productRepository::save)
+                .toList();
+
+        // when
+        List<Product> actual = productRepository.findTopByPrice(2, SortDirection.DESC);
+
+        // then
+        assertEquals(List.of(products.get(8), products.get(5)), actual);
+    }
+
+    @Test
+    void findTopByPriceShouldCompareNumericallyAndBreakTiesByUuid() {
+        // given
+        Product ten = productRepository.save(ProductTestData.builder()
+                .withUuid(new UUID(0, 3)).withPrice(new BigDecimal("10.0")).build().buildProduct());
+        Product nine = productRepository.save(ProductTestData.builder()
+                .withUuid(new UUID(0, 2)).withPrice(new BigDecimal("9.50")).build().buildProduct());
+        Product sameAsNine = productRepository.save(ProductTestData.builder()
+                .withUuid(new UUID(0, 1)).withPrice(new BigDecimal("9.5")).build().buildProduct());
+
+        // when
+        List<Product> ascending = productRepository.findTopByPrice(3, SortDirection.ASC);
+        List<Product> descending = productRepository.findTopByPrice(3, SortDirection.DESC);
+
+        // then
+        assertEquals(List.of(sameAsNine, nine, ten), ascending);
+        assertEquals(List.of(ten, nine, sameAsNine), descending);
+    }
+
+    @Test
+    void findTopByPriceShouldReturnAllWhenKExceedsSize() {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        List<Product> actual = productRepository.findTopByPrice(20, SortDirection.ASC);
+
+        // then
+        assertEquals(List.of(product), actual);
+    }
+
+    @Test
+    void findTopByCreatedShouldReturnNewestFirst() {
+        // given
+        LocalDateTime start = LocalDateTime.of(2023, 10, 1, 0, 0);
+        productRepository.save(productCreatedAt("338903f8-ff25-4df4-8348-f8cefc066296", start));
+        Product newest = productRepository.save(productCreatedAt("e495840a-b4ab-40c9-8200-8ed6117ad1a5", start.plusDays(3)));
+        Product second = productRepository.save(productCreatedAt("93af5278-cd77-4c51-bfd7-6ab28e6f7f5f", start.plusDays(2)));
+
+        // when
+        List<Product> actual = productRepository.findTopByCreated(2);
+
+        // then
+        assertEquals(List.of(newest, second), actual);
+    }
+
+    @Test
+    void saveShouldUpdateProductAndKeepItsPosition() {
+        // given
+        Product first = productRepository.save(productCreatedAt("338903f8-ff25-4df4-8348-f8cefc066296", null));
+        Product second = productRepository.save(productCreatedAt("e495840a-b4ab-40c9-8200-8ed6117ad1a5", null));
+        Product updated = new Product(first.getUuid(), "Новое имя", null, new BigDecimal("1.50"), null);
+
+        // when
+        productRepository.save(updated);
+
+        // then
+        assertEquals(List.of(updated, second), productRepository.findAll());
+        assertEquals(new BigDecimal("1.50"), productRepository.findById(first.getUuid()).orElseThrow().getPrice());
+    }
+
+    @Test
+    void saveAllShouldStoreProductsInBatchesAndAssignMissingUuids() {
+        // given
+        List<Product> products = provideProductsForTesting()
+                .map(arguments -> (Product) arguments.get()[0])
+                .toList();
+        Product withoutUuid = ProductTestData.builder().withUuid(null).build().buildProduct();
+        List<Product> toSave = Stream.concat(products.stream(), Stream.of(withoutUuid)).toList();
+
+        // when
+        List<Product> actual = productRepository.saveAll(toSave);
+
+        // then
+        assertEquals(toSave, actual);
+        assertThat(withoutUuid.getUuid()).isNotNull();
+        assertEquals(toSave, productRepository.findAll());
+    }
+
+    @Test
+    void streamAllShouldReturnConnectionToPoolWhenClosed() {
+        // given
+        List<Product> products = provideProductsForTesting()
+                .map(arguments -> (Product) arguments.get()[0])
+                .toList();
+        productRepository.saveAll(products);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            try (Stream<Product> stream = productRepository.streamAll()) {
+                assertEquals(products.get(0), stream.findFirst().orElseThrow());
+            }
+        }
+
+        // then
+        assertEquals(products.size(), productRepository.findAll().size());
+    }
+
+    @Test
+    void productsShouldSurviveRepositoryReopen() {
+        // given
+        String url = url();
+        Product product = ProductTestData.builder().build().buildProduct();
+        try (JdbcProductRepository first = new JdbcProductRepository(url)) {
+            first.save(product);
+        }
+
+        // when
+        Optional<Product> actual;
+        try (JdbcProductRepository second = new JdbcProductRepository(url)) {
+            actual = second.findById(product.getUuid());
+        }
+
+        // then
+        assertEquals(Optional.of(product), actual);
+    }
+
+    @Test
+    void findTopByCreatedShouldReturnNewestFirstAndSkipProductsWithoutCreated() {
+        // given
+        LocalDateTime start = LocalDateTime.of(2023, 10, 1, 0, 0);
+        productRepository.save(productCreatedAt("338903f8-ff25-4df4-8348-f8cefc066296", start));
+        Product newest = productRepository.save(productCreatedAt("e495840a-b4ab-40c9-8200-8ed6117ad1a5", start.plusDays(3)));
+        productRepository.save(productCreatedAt("93af5278-cd77-4c51-bfd7-6ab28e6f7f5f", null));
+
+        // when
+        List<Product> actual = productRepository.findTopByCreated(5);
+
+        // then
+        assertThat(actual).hasSize(2).first().isEqualTo(newest);
+    }
+
+    private static String url() {
+        return "jdbc:h2:mem:products-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    }
+
+    private static Product productCreatedAt(String uuid, LocalDateTime created) {
+        return ProductTestData.builder()
+                .withUuid(UUID.fromString(uuid))
+                .withCreated(created)
+                .build().buildProduct();
+    }
+
+    public static Stream<Arguments> provideArgumentsForFindAll() {
+        return Stream.of(
+                Arguments.of(Arrays
+                        .asList(new Product(UUID.fromString("338903f8-ff25-4df4-8348-f8cefc066296"), "Продукт", "Описание", BigDecimal.valueOf(1), LocalDateTime.MAX),
+                                new Product(UUID.fromString("e495840a-b4ab-40c9-8200-8ed6117ad1a5"), "Мой прод", "Это описание", BigDecimal.valueOf(2), LocalDateTime.MAX),
+                                new Product(UUID.fromString("93af5278-cd77-4c51-bfd7-6ab28e6f7f5f"), "Еще прод", "Описание продукта", BigDecimal.valueOf(3), LocalDateTime.MAX)))
+        );
+    }
+
+    public static Stream<Arguments> provideProductsForTesting() {
+        return Stream.of(
+                Arguments.of(new Product(UUID.fromString("338903f8-ff25-4df4-8348-f8cefc066296"), "Продукт", "Описание", BigDecimal.valueOf(1), LocalDateTime.MAX)),
+                Arguments.of(new Product(UUID.fromString("e495840a-b4ab-40c9-8200-8ed6117ad1a5"), "Мой прод", "Это описание", BigDecimal.valueOf(2), LocalDateTime.MAX)),
+                Arguments.of(new Product(UUID.fromString("93af5278-cd77-4c51-bfd7-6ab28e6f7f5f"), "Еще прод", "Описание продукта", BigDecimal.valueOf(3), LocalDateTime.MAX)),
+                Arguments.of(new Product(UUID.fromString("f3f685e2-a0dd-47d8-9da7-d9ac3c64ef09"), "Продукт 1", "Описание 1", BigDecimal.valueOf(11), LocalDateTime.MAX)),
+                Arguments.of(new Product(UUID.fromString("080bf8e1-7d88-44a9-952c-12969bf8f7e2"), "Мой прод 1", "Это описание 1", BigDecimal.valueOf(21), LocalDateTime.MAX)),
+                Arguments.of(new Product(UUID.fromString("7a041a44-9f86-4d1c-96d0-f390a47054fc"), "Еще прод 1", "Описание продукта 1", BigDecimal.valueOf(31), LocalDateTime.MAX)),
+                Arguments.of(new Product(UUID.fromString("39ed88c3-58d9-4153-93ce-4d2c951df27c"), "Продукт 2", "Описание 2", BigDecimal.valueOf(12), LocalDateTime.MAX)),
+                Arguments.of(new Product(UUID.fromString("328f7a38-f484-454d-b1c1-f010adef4ef9"), "Мой прод 2", "Это описание 2", BigDecimal.valueOf(22), LocalDateTime.MAX)),
+                Arguments.of(new Product(UUID.fromString("ee892366-b605-4745-9515-ee7cdd0cebeb"), "ЕЯще прод 2", "Описание продукта 2", BigDecimal.valueOf(32), LocalDateTime.MAX))
+        );
+    }
+}
\ No newline at end of file
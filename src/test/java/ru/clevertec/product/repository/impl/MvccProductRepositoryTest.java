@@ -0,0 +1,154 @@
+package ru.clevertec.product.repository.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MvccProductRepositoryTest {
+
+    private static final Instant START = Instant.parse("2023-10-26T10:00:00Z");
+
+    private MutableClock clock;
+    private MvccProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        productRepository = new MvccProductRepository(clock, Duration.ofHours(1));
+    }
+
+    @Test
+    void findByIdAsOfShouldReturnVersionVisibleAtInstant() {
+        // given
+        Product original = ProductTestData.builder().build().buildProduct();
+        productRepository.save(original);
+        clock.advance(Duration.ofMinutes(1));
+        Product updated = ProductTestData.builder().withPrice(BigDecimal.TEN).build().buildProduct();
+        productRepository.save(updated);
+
+        // when
+        Optional<Product> actualBefore = productRepository.findById(original.getUuid(), START);
+        Optional<Product> actualAfter = productRepository.findById(original.getUuid(), clock.instant());
+
+        // then
+        assertEquals(Optional.of(original), actualBefore);
+        assertEquals(Optional.of(updated), actualAfter);
+    }
+
+    @Test
+    void findByIdAsOfShouldReturnEmptyBeforeCreationAndAfterDeletion() {
+        // given
+        Product product = ProductTestData.builder().build().buildProduct();
+        productRepository.save(product);
+        clock.advance(Duration.ofMinutes(1));
+        productRepository.delete(product.getUuid());
+
+        // when
+        Optional<Product> actualBefore = productRepository.findById(product.getUuid(), START.minusSeconds(1));
+        Optional<Product> actualAfter = productRepository.findById(product.getUuid(), clock.instant());
+
+        // then
+        assertEquals(Optional.empty(), actualBefore);
+        assertEquals(Optional.empty(), actualAfter);
+        assertEquals(Optional.of(product), productRepository.findById(product.getUuid(), START));
+    }
+
+    @Test
+    void findAllAsOfShouldReturnSnapshotInInsertionOrder() {
+        // given
+        Product first = ProductTestData.builder().build().buildProduct();
+        Product second = ProductTestData.builder()
+                .withUuid(UUID.fromString("ad6aa3ac-8531-4db0-a797-d8c5b6f15d82"))
+                .build().buildProduct();
+        productRepository.save(first);
+        productRepository.save(second);
+        clock.advance(Duration.ofMinutes(1));
+        productRepository.delete(first.getUuid());
+
+        // when
+        List<Product> actualSnapshot = productRepository.findAll(START);
+        List<Product> actualCurrent = productRepository.findAll();
+
+        // then
+        assertEquals(List.of(first, second), actualSnapshot);
+        assertEquals(List.of(second), actualCurrent);
+    }
+
+    @Test
+    void saveShouldNotBeAffectedByLaterMutationOfSavedObject() {
+        // given
+        Product product = ProductTestData.builder().build().buildProduct();
+        productRepository.save(product);
+
+        // when
+        product.setPrice(BigDecimal.TEN);
+
+        // then
+        assertEquals(BigDecimal.valueOf(1), productRepository.findById(product.getUuid()).orElseThrow().getPrice());
+    }
+
+    @Test
+    void collectGarbageShouldPruneVersionsOlderThanRetention() {
+        // given
+        Product product = ProductTestData.builder().build().buildProduct();
+        Product deleted = ProductTestData.builder()
+                .withUuid(UUID.fromString("ad6aa3ac-8531-4db0-a797-d8c5b6f15d82"))
+                .build().buildProduct();
+        productRepository.save(product);
+        productRepository.save(deleted);
+        clock.advance(Duration.ofMinutes(1));
+        productRepository.save(ProductTestData.builder().withPrice(BigDecimal.TEN).build().buildProduct());
+        productRepository.delete(deleted.getUuid());
+        clock.advance(Duration.ofHours(2));
+
+        // when
+        int actual = productRepository.collectGarbage();
+
+        // then
+        assertEquals(3, actual);
+        assertEquals(1, productRepository.getVersionCount());
+        assertThrows(IllegalArgumentException.class, () -> productRepository.findAll(START));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
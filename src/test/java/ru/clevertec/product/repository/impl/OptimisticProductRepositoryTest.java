@@ -0,0 +1,265 @@
+package ru.clevertec.product.repository.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.exception.TransactionConflictException;
+import ru.clevertec.product.repository.ProductTransaction;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimisticProductRepositoryTest {
+
+    private static final int THREADS = 8;
+    private static final int TRANSACTIONS_PER_THREAD = 2_000;
+    private static final BigDecimal INITIAL_PRICE = BigDecimal.valueOf(1_000_000);
+
+    /**
+     * Нижняя граница с большим запасом, ловит деградацию вроде глобальной блокировки с ожиданием или livelock
+     */
+    private static final double MIN_TRANSACTIONS_PER_SECOND = 5_000;
+
+    private OptimisticProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new OptimisticProductRepository();
+    }
+
+    @Test
+    void commitShouldApplyAllStagedChangesTogether() {
+        // given
+        Product first = productRepository.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        Product second = productRepository.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        ProductTransaction transaction = productRepository.begin();
+        transaction.save(withPrice(first, BigDecimal.TEN));
+        transaction.delete(second.getUuid());
+
+        // when
+        transaction.commit();
+
+        // then
+        assertEquals(List.of(withPrice(first, BigDecimal.TEN)), productRepository.findAll());
+    }
+
+    @Test
+    void stagedChangesShouldBeVisibleOnlyInsideTransaction() {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        try (ProductTransaction transaction = productRepository.begin()) {
+            transaction.save(withPrice(product, BigDecimal.TEN));
+            transaction.delete(UUID.randomUUID());
+
+            // then
+            assertEquals(Optional.of(withPrice(product, BigDecimal.TEN)), transaction.findById(product.getUuid()));
+            assertEquals(Optional.of(product), productRepository.findById(product.getUuid()));
+        }
+    }
+
+    @Test
+    void nullUuidShouldBeTreatedAsMissing() {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+
+        // when
+        productRepository.delete(null);
+        try (ProductTransaction transaction = productRepository.begin()) {
+            transaction.delete(null);
+
+            // then
+            assertEquals(Optional.empty(), transaction.findById(null));
+            transaction.commit();
+        }
+        assertEquals(Optional.empty(), productRepository.findById(null));
+        assertEquals(List.of(product), productRepository.findAll());
+    }
+
+    @Test
+    void rollbackShouldDiscardStagedChanges() {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+        ProductTransaction transaction = productRepository.begin();
+        transaction.delete(product.getUuid());
+
+        // when
+        transaction.rollback();
+
+        // then
+        assertEquals(Optional.of(product), productRepository.findById(product.getUuid()));
+        assertThrows(IllegalStateException.class, transaction::commit);
+    }
+
+    @Test
+    void commitShouldFailAndApplyNothingWhenReadProductChanged() {
+        // given
+        Product first = productRepository.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        Product second = productRepository.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        ProductTransaction transaction = productRepository.begin();
+        transaction.findById(first.getUuid());
+        transaction.save(withPrice(second, BigDecimal.TEN));
+        productRepository.save(withPrice(first, BigDecimal.valueOf(2)));
+
+        // when, then
+        assertThrows(TransactionConflictException.class, transaction::commit);
+        assertEquals(Optional.of(second), productRepository.findById(second.getUuid()));
+        assertEquals(1, productRepository.getConflicts());
+    }
+
+    @Test
+    void secondCommitOfSameProductShouldConflict() {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+        ProductTransaction first = productRepository.begin();
+        ProductTransaction second = productRepository.begin();
+        first.save(withPrice(product, BigDecimal.TEN));
+        second.save(withPrice(product, BigDecimal.valueOf(2)));
+
+        // when
+        first.commit();
+
+        // then
+        assertThrows(TransactionConflictException.class, second::commit);
+        assertEquals(Optional.of(withPrice(product, BigDecimal.TEN)), productRepository.findById(product.getUuid()));
+    }
+
+    @Test
+    void transactionsOverDifferentProductsShouldBothCommit() {
+        // given
+        Product first = productRepository.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        Product second = productRepository.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        ProductTransaction firstTransaction = productRepository.begin();
+        ProductTransaction secondTransaction = productRepository.begin();
+        firstTransaction.save(withPrice(first, BigDecimal.TEN));
+        secondTransaction.save(withPrice(second, BigDecimal.TEN));
+
+        // when
+        secondTransaction.commit();
+        firstTransaction.commit();
+
+        // then
+        assertThat(productRepository.findAll())
+                .extracting(Product::getPrice)
+                .containsExactly(BigDecimal.TEN, BigDecimal.TEN);
+        assertEquals(0, productRepository.getConflicts());
+    }
+
+    @Test
+    void concurrentTransfersOnHotProductsShouldKeepTotalPrice() throws Exception {
+        // given
+        List<UUID> hot = saveProducts(4);
+
+        // when
+        long elapsedNanos = runTransfers(thread -> hot);
+
+        // then
+        assertThat(totalPrice()).isEqualByComparingTo(INITIAL_PRICE.multiply(BigDecimal.valueOf(4)));
+        assertEquals(4 + (long) THREADS * TRANSACTIONS_PER_THREAD, productRepository.getCommittedTransactions());
+        assertThat(throughput(elapsedNanos)).isGreaterThan(MIN_TRANSACTIONS_PER_SECOND);
+    }
+
+    @Test
+    void concurrentTransfersOnDisjointProductsShouldNotConflict() throws Exception {
+        // given
+        List<List<UUID>> owned = IntStream.range(0, THREADS)
+                .mapToObj(thread -> saveProducts(4))
+                .toList();
+
+        // when
+        long elapsedNanos = runTransfers(owned::get);
+
+        // then
+        assertEquals(0, productRepository.getConflicts());
+        assertThat(throughput(elapsedNanos)).isGreaterThan(MIN_TRANSACTIONS_PER_SECOND);
+        assertThat(totalPrice()).isEqualByComparingTo(INITIAL_PRICE.multiply(BigDecimal.valueOf(4L * THREADS)));
+    }
+
+    /**
+     * Каждая транзакция переносит единицу стоимости между двумя продуктами и повторяется при конфликте
+     *
+     * @return время выполнения всех транзакций
+     */
+    private long runTransfers(IntFunction<List<UUID>> productsOfThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<UUID> products = productsOfThread.apply(thread);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                    transferWithRetry(products);
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+        return elapsedNanos;
+    }
+
+    private static double throughput(long elapsedNanos) {
+        return (double) THREADS * TRANSACTIONS_PER_THREAD * 1_000_000_000L / elapsedNanos;
+    }
+
+    private void transferWithRetry(List<UUID> products) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID from = products.get(random.nextInt(products.size()));
+        UUID to = products.get(random.nextInt(products.size()));
+        while (true) {
+            try (ProductTransaction transaction = productRepository.begin()) {
+                Product source = transaction.findById(from).orElseThrow();
+                transaction.save(withPrice(source, source.getPrice().subtract(BigDecimal.ONE)));
+                Product target = transaction.findById(to).orElseThrow();
+                transaction.save(withPrice(target, target.getPrice().add(BigDecimal.ONE)));
+                transaction.commit();
+                return;
+            } catch (TransactionConflictException e) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private List<UUID> saveProducts(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> productRepository.save(ProductTestData.builder()
+                        .withUuid(null)
+                        .withPrice(INITIAL_PRICE)
+                        .build().buildProduct()))
+                .map(Product::getUuid)
+                .toList();
+    }
+
+    private BigDecimal totalPrice() {
+        return productRepository.findAll().stream()
+                .map(Product::getPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static Product withPrice(Product product, BigDecimal price) {
+        return new Product(product.getUuid(), product.getName(), product.getDescription(), price,
+                product.getCreated());
+    }
+}
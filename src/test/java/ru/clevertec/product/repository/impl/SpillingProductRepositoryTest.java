@@ -0,0 +1,156 @@
+package ru.clevertec.product.repository.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SpillingProductRepositoryTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private SpillingProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new SpillingProductRepository(tempDir.resolve("cold.segment"), 4, Long.MAX_VALUE);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        productRepository.close();
+    }
+
+    @Test
+    void saveShouldSpillProductsOverHotLimit() {
+        // given
+        List<Product> products = products(10);
+
+        // when
+        products.forEach(productRepository::save);
+
+        // then
+        assertThat(productRepository.getHotSize()).isLessThanOrEqualTo(4);
+        assertEquals(10, productRepository.getHotSize() + productRepository.getColdSize());
+    }
+
+    @Test
+    void findByIdShouldFaultBackSpilledProduct() {
+        // given
+        List<Product> expected = products(10);
+        expected.forEach(productRepository::save);
+
+        // when
+        List<Product> actual = expected.stream()
+                .map(product -> productRepository.findById(product.getUuid()).orElseThrow())
+                .toList();
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void findByIdShouldKeepFrequentlyReadProductInMemory() {
+        // given
+        List<Product> products = products(10);
+        Product frequent = products.get(0);
+        productRepository.save(frequent);
+        IntStream.range(0, 5).forEach(index -> productRepository.findById(frequent.getUuid()));
+
+        // when
+        products.stream()
+                .skip(1)
+                .forEach(productRepository::save);
+
+        // then
+        int coldBefore = productRepository.getColdSize();
+        productRepository.findById(frequent.getUuid());
+        assertEquals(coldBefore, productRepository.getColdSize());
+    }
+
+    @Test
+    void streamAllShouldReturnProductsFromBothTiers() {
+        // given
+        List<Product> expected = products(10);
+        expected.forEach(productRepository::save);
+
+        // when
+        List<Product> actual;
+        try (Stream<Product> products = productRepository.streamAll()) {
+            actual = products.toList();
+        }
+
+        // then
+        assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void deleteShouldRemoveSpilledProduct() {
+        // given
+        List<Product> products = products(10);
+        products.forEach(productRepository::save);
+        UUID uuid = products.get(0).getUuid();
+
+        // when
+        productRepository.delete(uuid);
+
+        // then
+        assertEquals(Optional.empty(), productRepository.findById(uuid));
+        assertEquals(9, productRepository.findAll().size());
+    }
+
+    @Test
+    void compactShouldKeepSpilledProducts() {
+        // given
+        List<Product> expected = products(10);
+        expected.forEach(productRepository::save);
+        productRepository.delete(expected.get(9).getUuid());
+
+        // when
+        productRepository.compact();
+
+        // then
+        assertThat(productRepository.findAll()).containsExactlyInAnyOrderElementsOf(expected.subList(0, 9));
+    }
+
+    @Test
+    void failedCompactShouldKeepSpilledProductsReadable() throws IOException {
+        // given
+        List<Product> expected = products(10);
+        expected.forEach(productRepository::save);
+        Files.createDirectories(tempDir.resolve("cold.segment.compact").resolve("busy"));
+
+        // when
+        assertThrows(UncheckedIOException.class, () -> productRepository.compact());
+
+        // then
+        assertThat(productRepository.findAll()).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    private static List<Product> products(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> ProductTestData.builder()
+                        .withUuid(new UUID(0, index))
+                        .withPrice(BigDecimal.valueOf(index + 1))
+                        .build().buildProduct())
+                .toList();
+    }
+}
@@ -0,0 +1,62 @@
+package ru.clevertec.product.repository.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class UuidBloomFilterTest {
+
+    @Test
+    void mightContainShouldNeverReturnFalseNegative() {
+        // given
+        UuidBloomFilter filter = new UuidBloomFilter(10_000, 0.01);
+        List<UUID> uuids = randomUuids(new Random(42), 10_000);
+
+        // when
+        uuids.forEach(filter::put);
+
+        // then
+        assertThat(uuids).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void mightContainShouldKeepFalsePositiveRateNearTarget() {
+        // given
+        Random random = new Random(7);
+        UuidBloomFilter filter = new UuidBloomFilter(10_000, 0.01);
+        randomUuids(random, 10_000).forEach(filter::put);
+
+        // when
+        long falsePositives = randomUuids(random, 100_000).stream()
+                .filter(filter::mightContain)
+                .count();
+
+        // then
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate(10_000)).isLessThan(0.011);
+    }
+
+    @Test
+    void mightContainShouldReturnFalseForEmptyFilter() {
+        // given
+        UuidBloomFilter filter = new UuidBloomFilter(100, 0.01);
+
+        // when
+        boolean actual = filter.mightContain(UUID.fromString("b8003c54-c22b-450a-a0d3-94b646150584"));
+
+        // then
+        assertFalse(actual);
+    }
+
+    private static List<UUID> randomUuids(Random random, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> new UUID(random.nextLong(), random.nextLong()))
+                .toList();
+    }
+}
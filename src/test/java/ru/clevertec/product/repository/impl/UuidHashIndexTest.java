@@ -0,0 +1,151 @@
+package ru.clevertec.product.repository.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidHashIndexTest {
+
+    @Test
+    void putShouldKeepInsertionOrderWhenValueReplaced() {
+        // given
+        UuidHashIndex<String> index = new UuidHashIndex<>();
+        UUID first = UUID.fromString("338903f8-ff25-4df4-8348-f8cefc066296");
+        UUID second = UUID.fromString("e495840a-b4ab-40c9-8200-8ed6117ad1a5");
+        index.put(first, "первый");
+        index.put(second, "второй");
+
+        // when
+        String previous = index.put(first, "первый обновлён");
+
+        // then
+        assertEquals("первый", previous);
+        assertEquals(List.of("первый обновлён", "второй"), index.values());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void removeShouldKeepOtherKeysReachable() {
+        // given
+        UuidHashIndex<Integer> index = new UuidHashIndex<>();
+        List<UUID> uuids = randomUuids(new Random(1), 12);
+        for (int i = 0; i < uuids.size(); i++) {
+            index.put(uuids.get(i), i);
+        }
+
+        // when
+        Integer removed = index.remove(uuids.get(3));
+
+        // then
+        assertEquals(3, removed);
+        assertNull(index.get(uuids.get(3)));
+        assertNull(index.remove(uuids.get(3)));
+        for (int i = 0; i < uuids.size(); i++) {
+            if (i != 3) {
+                assertEquals(i, index.get(uuids.get(i)));
+            }
+        }
+    }
+
+    @Test
+    void putShouldResizeIncrementallyAndFindKeysInBothTables() {
+        // given
+        UuidHashIndex<Integer> index = new UuidHashIndex<>();
+        List<UUID> uuids = randomUuids(new Random(2), 13);
+
+        // when
+        for (int i = 0; i < uuids.size(); i++) {
+            index.put(uuids.get(i), i);
+        }
+
+        // then
+        assertTrue(index.isResizing());
+        for (int i = 0; i < uuids.size(); i++) {
+            assertEquals(i, index.get(uuids.get(i)));
+        }
+    }
+
+    @Test
+    void operationsShouldMatchLinkedHashMap() {
+        // given
+        Random random = new Random(3);
+        List<UUID> keys = randomUuids(random, 20_000);
+        UuidHashIndex<Integer> index = new UuidHashIndex<>();
+        Map<UUID, Integer> expected = new LinkedHashMap<>();
+
+        // when
+        for (int i = 0; i < 200_000; i++) {
+            UUID key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), index.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), index.put(key, i));
+            }
+        }
+
+        // then
+        assertEquals(expected.size(), index.size());
+        assertEquals(new ArrayList<>(expected.values()), index.values());
+        assertThat(keys).allMatch(key -> Objects.equals(expected.get(key), index.get(key)));
+    }
+
+    @Test
+    void getAndRemoveShouldReturnNullForNullKey() {
+        // given
+        UuidHashIndex<String> index = new UuidHashIndex<>();
+        index.put(UUID.randomUUID(), "value");
+
+        // when
+        String found = index.get(null);
+        String removed = index.remove(null);
+
+        // then
+        assertNull(found);
+        assertNull(removed);
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void constructorShouldNotResizeUpToExpectedSize() {
+        // given
+        UuidHashIndex<Integer> index = new UuidHashIndex<>(1000);
+
+        // when
+        randomUuids(new Random(4), 1000).forEach(uuid -> index.put(uuid, 0));
+
+        // then
+        assertFalse(index.isResizing());
+        assertEquals(1000, index.size());
+    }
+
+    @Test
+    void putShouldRejectNullValue() {
+        // given
+        UuidHashIndex<String> index = new UuidHashIndex<>();
+        UUID uuid = UUID.fromString("338903f8-ff25-4df4-8348-f8cefc066296");
+
+        // when, then
+        assertThrows(NullPointerException.class, () -> index.put(uuid, null));
+    }
+
+    private static List<UUID> randomUuids(Random random, int count) {
+        List<UUID> uuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uuids.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return uuids;
+    }
+}
@@ -0,0 +1,189 @@
+package ru.clevertec.product.repository.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindProductRepositoryTest {
+
+    private static final Duration LONG_INTERVAL = Duration.ofMinutes(1);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private WriteBehindProductRepository writeBehindRepository;
+
+    @AfterEach
+    void tearDown() {
+        if (writeBehindRepository != null) {
+            writeBehindRepository.close();
+        }
+    }
+
+    @Test
+    void saveShouldBeVisibleBeforeFlush() {
+        // given
+        writeBehindRepository = new WriteBehindProductRepository(productRepository, 100, 100, LONG_INTERVAL);
+        Product product = ProductTestData.builder().build().buildProduct();
+
+        // when
+        writeBehindRepository.save(product);
+
+        // then
+        assertEquals(Optional.of(product), writeBehindRepository.findById(product.getUuid()));
+        assertEquals(List.of(product), writeBehindRepository.findAll());
+        verify(productRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void flushShouldWriteCoalescedSavesAsOneBatch() {
+        // given
+        writeBehindRepository = new WriteBehindProductRepository(productRepository, 100, 100, LONG_INTERVAL);
+        Product first = ProductTestData.builder().build().buildProduct();
+        Product second = ProductTestData.builder().withPrice(BigDecimal.TEN).build().buildProduct();
+        Product other = ProductTestData.builder().withUuid(null).build().buildProduct();
+        writeBehindRepository.save(first);
+        writeBehindRepository.save(other);
+        writeBehindRepository.save(second);
+
+        // when
+        writeBehindRepository.flush();
+
+        // then
+        verify(productRepository).saveAll(List.of(second, other));
+        assertEquals(1, writeBehindRepository.getCoalescedWrites());
+        assertEquals(0, writeBehindRepository.getPendingCount());
+    }
+
+    @Test
+    void deleteShouldHideStoredProductUntilFlushed() {
+        // given
+        writeBehindRepository = new WriteBehindProductRepository(productRepository, 100, 100, LONG_INTERVAL);
+        Product stored = ProductTestData.builder().build().buildProduct();
+
+        when(productRepository.streamAll())
+                .thenReturn(Stream.of(stored));
+
+        // when
+        writeBehindRepository.delete(stored.getUuid());
+
+        // then
+        assertEquals(Optional.empty(), writeBehindRepository.findById(stored.getUuid()));
+        assertThat(writeBehindRepository.findAll()).isEmpty();
+        writeBehindRepository.flush();
+        verify(productRepository).delete(stored.getUuid());
+    }
+
+    @Test
+    void saveShouldTriggerFlushWhenBatchIsFull() {
+        // given
+        writeBehindRepository = new WriteBehindProductRepository(productRepository, 10, 2, LONG_INTERVAL);
+        Product first = ProductTestData.builder().withUuid(null).build().buildProduct();
+        Product second = ProductTestData.builder().withUuid(null).build().buildProduct();
+
+        // when
+        writeBehindRepository.save(first);
+        writeBehindRepository.save(second);
+
+        // then
+        verify(productRepository, timeout(2000)).saveAll(List.of(first, second));
+    }
+
+    @Test
+    void saveShouldBeFlushedAfterInterval() {
+        // given
+        writeBehindRepository = new WriteBehindProductRepository(productRepository, 10, 10, Duration.ofMillis(20));
+        Product product = ProductTestData.builder().build().buildProduct();
+
+        // when
+        writeBehindRepository.save(product);
+
+        // then
+        verify(productRepository, timeout(2000)).saveAll(List.of(product));
+    }
+
+    @Test
+    void saveShouldWaitWhenBufferIsFull() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        when(productRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> {
+                    writing.countDown();
+                    release.await();
+                    return invocation.getArgument(0);
+                });
+        writeBehindRepository = new WriteBehindProductRepository(productRepository, 1, 1, LONG_INTERVAL);
+        writeBehindRepository.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+        assertThat(writing.await(2, TimeUnit.SECONDS)).isTrue();
+        writeBehindRepository.save(ProductTestData.builder().withUuid(null).build().buildProduct());
+
+        // when
+        CompletableFuture<Product> blocked = CompletableFuture.supplyAsync(() ->
+                writeBehindRepository.save(ProductTestData.builder().withUuid(null).build().buildProduct()));
+
+        // then
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+        release.countDown();
+        blocked.get(2, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void flushShouldRethrowFailureAndKeepChangesForRetry() {
+        // given
+        writeBehindRepository = new WriteBehindProductRepository(productRepository, 10, 10, LONG_INTERVAL);
+        Product product = ProductTestData.builder().build().buildProduct();
+
+        when(productRepository.saveAll(List.of(product)))
+                .thenThrow(new IllegalStateException("disk full"))
+                .thenReturn(List.of(product));
+        writeBehindRepository.save(product);
+
+        // when, then
+        assertThrows(IllegalStateException.class, writeBehindRepository::flush);
+        assertEquals(Optional.of(product), writeBehindRepository.findById(product.getUuid()));
+        writeBehindRepository.flush();
+        verify(productRepository, times(2)).saveAll(List.of(product));
+        assertEquals(0, writeBehindRepository.getPendingCount());
+    }
+
+    @Test
+    void saveShouldFailAfterClose() {
+        // given
+        WriteBehindProductRepository closed = new WriteBehindProductRepository(productRepository, 10, 10,
+                LONG_INTERVAL);
+        closed.close();
+        Product product = ProductTestData.builder().withUuid(UUID.randomUUID()).build().buildProduct();
+
+        // when, then
+        assertThrows(IllegalStateException.class, () -> closed.save(product));
+    }
+}
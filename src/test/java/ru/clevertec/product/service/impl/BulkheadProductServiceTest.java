@@ -0,0 +1,81 @@
+package ru.clevertec.product.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.exception.OverloadedException;
+import ru.clevertec.product.limit.AdaptiveLimiter;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkheadProductServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    private AdaptiveLimiter pointReads;
+    private AdaptiveLimiter scans;
+    private BulkheadProductService bulkheadProductService;
+
+    @BeforeEach
+    void setUp() {
+        pointReads = AdaptiveLimiter.fixed(1);
+        scans = AdaptiveLimiter.fixed(1);
+        bulkheadProductService = new BulkheadProductService(productService, pointReads, scans,
+                AdaptiveLimiter.fixed(1));
+    }
+
+    @Test
+    void getShouldPassWhileScansAreSaturated() {
+        // given
+        InfoProductDto expected = ProductTestData.builder().build().buildInfoProductDto();
+        scans.tryAcquire();
+
+        when(productService.get(expected.uuid()))
+                .thenReturn(expected);
+
+        // when
+        InfoProductDto actual = bulkheadProductService.get(expected.uuid());
+
+        // then
+        assertEquals(expected, actual);
+        assertEquals(0, pointReads.getInFlight());
+    }
+
+    @Test
+    void getAllShouldThrowOverloadedExceptionWhenScansAreSaturated() {
+        // given
+        scans.tryAcquire();
+
+        // when, then
+        assertThrows(OverloadedException.class, () -> bulkheadProductService.getAll());
+        verify(productService, never()).getAll();
+    }
+
+    @Test
+    void getAllShouldReleasePermitAfterCall() {
+        // given
+        when(productService.getAll())
+                .thenReturn(List.of());
+
+        // when
+        bulkheadProductService.getAll();
+        bulkheadProductService.getAll();
+
+        // then
+        assertEquals(0, scans.getInFlight());
+        assertEquals(0, scans.getRejected());
+    }
+}
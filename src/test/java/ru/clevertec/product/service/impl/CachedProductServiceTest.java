@@ -0,0 +1,132 @@
+package ru.clevertec.product.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.cache.InfoProductCache;
+import ru.clevertec.product.cache.impl.TieredInfoProductCache;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachedProductServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private InfoProductCache cache;
+
+    @InjectMocks
+    private CachedProductService cachedProductService;
+
+    @Test
+    void getShouldReturnCachedProductWithoutLoading() {
+        // given
+        InfoProductDto expected = ProductTestData.builder().build().buildInfoProductDto();
+
+        when(cache.get(expected.uuid()))
+                .thenReturn(Optional.of(expected));
+
+        // when
+        InfoProductDto actual = cachedProductService.get(expected.uuid());
+
+        // then
+        assertEquals(expected, actual);
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void getShouldLoadAndCacheProductOnMiss() {
+        // given
+        InfoProductDto expected = ProductTestData.builder().build().buildInfoProductDto();
+
+        when(cache.get(expected.uuid()))
+                .thenReturn(Optional.empty());
+        when(cache.generation(expected.uuid()))
+                .thenReturn(7L);
+        when(productService.get(expected.uuid()))
+                .thenReturn(expected);
+
+        // when
+        InfoProductDto actual = cachedProductService.get(expected.uuid());
+
+        // then
+        assertEquals(expected, actual);
+        verify(cache).putIfNotInvalidated(expected, 7L);
+    }
+
+    @Test
+    void loadRacingWithUpdateShouldNotCacheStaleProduct() throws Exception {
+        // given
+        InfoProductDto stale = ProductTestData.builder().build().buildInfoProductDto();
+        ProductDto productDto = ProductTestData.builder().withDescription("Новое описание").build().buildProductDto();
+        TieredInfoProductCache realCache = new TieredInfoProductCache(16, 0);
+        CachedProductService service = new CachedProductService(productService, realCache);
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+
+        when(productService.get(stale.uuid()))
+                .thenAnswer(invocation -> {
+                    read.countDown();
+                    updated.await();
+                    return stale;
+                });
+        when(productService.update(stale.uuid(), productDto))
+                .thenReturn(true);
+
+        // when
+        CompletableFuture<InfoProductDto> loading = CompletableFuture.supplyAsync(() -> service.get(stale.uuid()));
+        read.await();
+        service.update(stale.uuid(), productDto);
+        updated.countDown();
+        loading.get();
+
+        // then
+        assertEquals(Optional.empty(), realCache.get(stale.uuid()));
+    }
+
+    @Test
+    void updateShouldInvalidateOnlyWhenProductWritten() {
+        // given
+        UUID uuid = ProductTestData.builder().build().getUuid();
+        ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+
+        when(productService.update(uuid, productDto))
+                .thenReturn(false);
+
+        // when
+        cachedProductService.update(uuid, productDto);
+
+        // then
+        verify(cache, never()).invalidate(uuid);
+    }
+
+    @Test
+    void deleteShouldInvalidateProduct() {
+        // given
+        UUID uuid = ProductTestData.builder().build().getUuid();
+
+        // when
+        cachedProductService.delete(uuid);
+
+        // then
+        verify(productService).delete(uuid);
+        verify(cache).invalidate(uuid);
+    }
+}
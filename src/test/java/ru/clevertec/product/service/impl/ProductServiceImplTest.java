@@ -7,26 +7,41 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.CreatedPage;
+import ru.clevertec.product.data.InfoProductColumns;
 import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.PriceChange;
 import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.data.ProductQuery;
+import ru.clevertec.product.data.SortDirection;
 import ru.clevertec.product.entity.Product;
 import ru.clevertec.product.entity.ProductValidator;
 import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.history.PriceHistoryStore;
 import ru.clevertec.product.mapper.ProductMapper;
 import ru.clevertec.product.repository.ProductRepository;
+import ru.clevertec.product.repository.QueryPlanner;
 import ru.clevertec.product.utils.ProductTestData;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,6 +57,9 @@ class ProductServiceImplTest {
     @Mock
     private ProductValidator productValidator;
 
+    @Mock
+    private PriceHistoryStore priceHistoryStore;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -136,6 +154,161 @@ class ProductServiceImplTest {
         assertEquals(expectedList, actualList);
     }
 
+    @Test
+    void getAllColumnsShouldReturnColumnsFromMapper() {
+        // given
+        List<Product> productList = List.of(ProductTestData.builder().build().buildProduct());
+        InfoProductColumns expected = new InfoProductColumns(1);
+        InfoProductDto infoProductDto = ProductTestData.builder().build().buildInfoProductDto();
+        expected.add(infoProductDto.uuid(), infoProductDto.name(),
+                infoProductDto.description(), infoProductDto.price());
+
+        when(productRepository.findAll()).thenReturn(productList);
+        when(productMapper.toInfoProductColumns(productList)).thenReturn(expected);
+
+        // when
+        InfoProductColumns actual = productService.getAllColumns();
+
+        // then
+        assertEquals(expected, actual);
+        verify(productRepository).findAll();
+    }
+
+    @Test
+    void getCreatedSinceShouldReturnPageWithCursorOfLastProduct() {
+        // given
+        CreatedCursor cursor = CreatedCursor.from(LocalDateTime.MIN);
+        Product product = ProductTestData.builder().build().buildProduct();
+        InfoProductDto infoProductDto = ProductTestData.builder().build().buildInfoProductDto();
+        CreatedPage expected = new CreatedPage(List.of(infoProductDto), CreatedCursor.of(product));
+
+        when(productRepository.findCreatedSince(cursor, 10))
+                .thenReturn(List.of(product));
+        when(productMapper.toInfoProductDto(product))
+                .thenReturn(infoProductDto);
+
+        // when
+        CreatedPage actual = productService.getCreatedSince(cursor, 10);
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void getTopByPriceShouldMapProductsInRepositoryOrder() {
+        // given
+        Product product = ProductTestData.builder().build().buildProduct();
+        InfoProductDto infoProductDto = ProductTestData.builder().build().buildInfoProductDto();
+
+        when(productRepository.findTopByPrice(20, SortDirection.DESC))
+                .thenReturn(List.of(product));
+        when(productMapper.toInfoProductDto(product))
+                .thenReturn(infoProductDto);
+
+        // when
+        List<InfoProductDto> actual = productService.getTopByPrice(20, SortDirection.DESC);
+
+        // then
+        assertEquals(List.of(infoProductDto), actual);
+    }
+
+    @Test
+    void getTopByCreatedShouldMapProductsInRepositoryOrder() {
+        // given
+        Product product = ProductTestData.builder().build().buildProduct();
+        InfoProductDto infoProductDto = ProductTestData.builder().build().buildInfoProductDto();
+
+        when(productRepository.findTopByCreated(50))
+                .thenReturn(List.of(product));
+        when(productMapper.toInfoProductDto(product))
+                .thenReturn(infoProductDto);
+
+        // when
+        List<InfoProductDto> actual = productService.getTopByCreated(50);
+
+        // then
+        assertEquals(List.of(infoProductDto), actual);
+    }
+
+    @Test
+    void queryShouldMapProductsInRepositoryOrder() {
+        // given
+        ProductQuery query = ProductQuery.all().withName("Продукт");
+        Product product = ProductTestData.builder().build().buildProduct();
+        InfoProductDto infoProductDto = ProductTestData.builder().build().buildInfoProductDto();
+
+        when(productRepository.query(query))
+                .thenReturn(Stream.of(product));
+        when(productMapper.toInfoProductDto(product))
+                .thenReturn(infoProductDto);
+
+        // when
+        List<InfoProductDto> actual = productService.query(query);
+
+        // then
+        assertEquals(List.of(infoProductDto), actual);
+    }
+
+    @Test
+    void explainShouldDescribeRepositoryPlan() {
+        // given
+        ProductQuery query = ProductQuery.all().withLimit(5);
+
+        when(productRepository.plan(query))
+                .thenReturn(QueryPlanner.plan(query, Set.of()));
+
+        // when
+        String actual = productService.explain(query);
+
+        // then
+        assertEquals("""
+                Limit(5)
+                  FullScan""", actual);
+    }
+
+    @Test
+    void getPriceHistoryShouldReturnChangesFromStore() {
+        // given
+        UUID uuid = ProductTestData.builder().build().getUuid();
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime to = from.plusYears(1);
+        List<PriceChange> expected = List.of(new PriceChange(from.plusDays(1), BigDecimal.TEN));
+
+        when(priceHistoryStore.findHistory(uuid, from, to))
+                .thenReturn(expected);
+
+        // when
+        List<PriceChange> actual = productService.getPriceHistory(uuid, from, to);
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void createShouldSetCreatedWhenMissing() {
+        // given
+        Product productToSave = ProductTestData.builder()
+                .withUuid(null)
+                .withCreated(null)
+                .build().buildProduct();
+        ProductDto productDto = ProductTestData.builder()
+                .build().buildProductDto();
+
+        when(productValidator.checkValidation(productDto))
+                .thenReturn(true);
+        when(productMapper.toProduct(productDto))
+                .thenReturn(productToSave);
+        when(productRepository.save(productToSave))
+                .thenReturn(ProductTestData.builder().build().buildProduct());
+
+        // when
+        productService.create(productDto);
+
+        // then
+        verify(productRepository).save(productCaptor.capture());
+        assertThat(productCaptor.getValue().getCreated()).isNotNull();
+    }
+
     @Test
     void createShouldReturnUuidWhenProductSave() {
         // given
@@ -162,6 +335,7 @@ class ProductServiceImplTest {
 
         // then
         assertEquals(expectedUuid, actualUuid);
+        verify(priceHistoryStore).record(eq(expectedUuid), any(LocalDateTime.class), eq(productToSave.getPrice()));
         verify(productRepository).save(productCaptor.capture());
         assertThat(productCaptor.getValue())
                 .hasFieldOrPropertyWithValue(Product.Fields.uuid, null);
@@ -195,13 +369,46 @@ class ProductServiceImplTest {
                 when(productRepository).save(excepted);
 
         // when
-        productService.update(uuid, productDtoToUpdate);
+        boolean actual = productService.update(uuid, productDtoToUpdate);
 
         // then
+        assertTrue(actual);
+        assertEquals(1, productService.getAppliedUpdates());
         verify(productRepository).save(productCaptor.capture());
         assertThat(productCaptor.getValue())
                 .hasFieldOrPropertyWithValue(Product.Fields.description, excepted.getDescription())
                 .hasFieldOrPropertyWithValue(Product.Fields.price, excepted.getPrice());
+        verify(priceHistoryStore).record(eq(uuid), any(LocalDateTime.class), eq(BigDecimal.valueOf(4)));
+    }
+
+    @Test
+    void updateShouldNotRecordPriceHistoryWhenOnlyDescriptionChanged() {
+        // given
+        UUID uuid = ProductTestData.builder().build().getUuid();
+        Product productToUpdate = ProductTestData.builder()
+                .build().buildProduct();
+        ProductDto productDtoToUpdate = ProductTestData.builder()
+                .withDescription("Новое описание продукта")
+                .withPrice(new BigDecimal("1.00"))
+                .build().buildProductDto();
+        Product excepted = ProductTestData.builder()
+                .withDescription("Новое описание продукта")
+                .withPrice(new BigDecimal("1.00"))
+                .build().buildProduct();
+
+        when(productValidator.checkValidation(productDtoToUpdate))
+                .thenReturn(true);
+        when(productRepository.findById(uuid))
+                .thenReturn(Optional.of(productToUpdate));
+        when(productMapper.merge(productToUpdate, productDtoToUpdate))
+                .thenReturn(excepted);
+
+        // when
+        boolean actual = productService.update(uuid, productDtoToUpdate);
+
+        // then
+        assertTrue(actual);
+        verify(priceHistoryStore, never()).record(any(), any(), any());
     }
 
     @Test
@@ -216,12 +423,39 @@ class ProductServiceImplTest {
                 .thenReturn(false);
 
         // when
-        productService.update(uuid, productDtoToUpdate);
+        boolean actual = productService.update(uuid, productDtoToUpdate);
 
         // then
+        assertFalse(actual);
         verify(productValidator).checkValidation(productDtoToUpdate);
     }
 
+    @Test
+    void updateShouldSkipWriteWhenProductIsUnchanged() {
+        // given
+        UUID uuid = ProductTestData.builder().build().getUuid();
+        Product productToUpdate = ProductTestData.builder()
+                .build().buildProduct();
+        ProductDto productDtoToUpdate = ProductTestData.builder()
+                .withPrice(new BigDecimal("1.00"))
+                .build().buildProductDto();
+
+        when(productValidator.checkValidation(productDtoToUpdate))
+                .thenReturn(true);
+        when(productRepository.findById(uuid))
+                .thenReturn(Optional.of(productToUpdate));
+
+        // when
+        boolean actual = productService.update(uuid, productDtoToUpdate);
+
+        // then
+        assertFalse(actual);
+        assertEquals(1, productService.getSkippedUpdates());
+        assertEquals(0, productService.getAppliedUpdates());
+        verify(productRepository, never()).save(any());
+        verify(productMapper, never()).merge(any(), any());
+    }
+
     @Test
     void deleteShouldDeleteProductUsingUuid() {
         // given
@@ -232,5 +466,6 @@ class ProductServiceImplTest {
 
         // then
         verify(productRepository).delete(uuid);
+        verify(priceHistoryStore).remove(uuid);
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package ru.clevertec.product.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SingleFlightProductServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    private ExecutorService executor;
+
+    private SingleFlightProductService singleFlightProductService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        singleFlightProductService = new SingleFlightProductService(productService, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getAsyncShouldShareOneLoadBetweenConcurrentRequests() throws InterruptedException {
+        // given
+        InfoProductDto expected = ProductTestData.builder().build().buildInfoProductDto();
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(productService.get(expected.uuid()))
+                .thenAnswer(invocation -> {
+                    assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+                    return expected;
+                });
+
+        // when
+        List<CompletableFuture<InfoProductDto>> futures = IntStream.range(0, 100)
+                .mapToObj(index -> singleFlightProductService.getAsync(expected.uuid()))
+                .toList();
+        release.countDown();
+
+        // then
+        futures.forEach(future -> assertEquals(expected, future.join()));
+        verify(productService, times(1)).get(expected.uuid());
+        assertEquals(1, singleFlightProductService.getLoads());
+        assertEquals(99, singleFlightProductService.getCoalesced());
+    }
+
+    @Test
+    void getShouldStartNewLoadAfterPreviousCompleted() {
+        // given
+        InfoProductDto expected = ProductTestData.builder().build().buildInfoProductDto();
+
+        when(productService.get(expected.uuid()))
+                .thenReturn(expected);
+
+        // when
+        singleFlightProductService.get(expected.uuid());
+        InfoProductDto actual = singleFlightProductService.get(expected.uuid());
+
+        // then
+        assertEquals(expected, actual);
+        verify(productService, times(2)).get(expected.uuid());
+    }
+
+    @Test
+    void getShouldRethrowProductNotFoundException() {
+        // given
+        UUID uuid = UUID.fromString("b8003c54-c22b-450a-a0d3-94b646150585");
+
+        when(productService.get(uuid))
+                .thenThrow(new ProductNotFoundException(uuid));
+
+        // when, then
+        assertThrows(ProductNotFoundException.class, () -> singleFlightProductService.get(uuid));
+    }
+
+    @Test
+    void getShouldDelegateNullUuidWithoutCoalescing() {
+        // given
+        when(productService.get(null))
+                .thenThrow(new ProductNotFoundException(null));
+
+        // when, then
+        assertThrows(ProductNotFoundException.class, () -> singleFlightProductService.get(null));
+        CompletionException actual = assertThrows(CompletionException.class,
+                () -> singleFlightProductService.getAsync(null).join());
+        assertThat(actual).hasCauseInstanceOf(ProductNotFoundException.class);
+        assertEquals(0, singleFlightProductService.getLoads());
+    }
+}
@@ -0,0 +1,380 @@
+package ru.clevertec.product.tcp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.clevertec.product.codec.ProductCodec;
+import ru.clevertec.product.data.InfoProductDto;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.Product;
+import ru.clevertec.product.entity.ProductValidator;
+import ru.clevertec.product.exception.NotValidException;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.mapper.ProductMapperImpl;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.service.impl.ProductServiceImpl;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductTcpServerTest {
+
+    private static final int PIPELINED_GETS = 200_000;
+
+    /**
+     * Нижняя граница с большим запасом: на loopback конвейер выполняет сотни тысяч get в секунду,
+     * а запрос-ответ без конвейера - порядка десятков тысяч
+     */
+    private static final double MIN_GETS_PER_SECOND = 50_000;
+
+    private InMemoryProductRepository productRepository;
+    private ProductTcpServer server;
+    private ProductTcpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        productRepository = new InMemoryProductRepository();
+        ProductServiceImpl productService = new ProductServiceImpl(new ProductMapperImpl(),
+                productRepository, new ProductValidator());
+        server = new ProductTcpServer(productService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        client = new ProductTcpClient(server.getAddress());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void getShouldReturnProduct() {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+        InfoProductDto expected = ProductTestData.builder().build().buildInfoProductDto();
+
+        // when
+        InfoProductDto actual = client.get(product.getUuid());
+
+        // then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void getShouldThrowProductNotFoundException() {
+        // given
+        UUID uuid = UUID.fromString("b8003c54-c22b-450a-a0d3-94b646150585");
+
+        // when
+        ProductNotFoundException actual = assertThrows(ProductNotFoundException.class, () -> client.get(uuid));
+
+        // then
+        assertEquals("Product with uuid: " + uuid + " not found", actual.getMessage());
+    }
+
+    @Test
+    void createShouldSaveProductAndReturnUuid() {
+        // given
+        ProductDto productDto = ProductTestData.builder().withPrice(new BigDecimal("10.50")).build().buildProductDto();
+
+        // when
+        UUID actual = client.create(productDto);
+
+        // then
+        assertThat(productRepository.findById(actual))
+                .map(Product::getPrice)
+                .contains(new BigDecimal("10.50"));
+    }
+
+    @Test
+    void createShouldThrowNotValidExceptionForInvalidProduct() {
+        // given
+        ProductDto productDto = ProductTestData.builder().withName("Product").build().buildProductDto();
+
+        // when, then
+        assertThrows(NotValidException.class, () -> client.create(productDto));
+    }
+
+    @Test
+    void updateAndDeleteShouldChangeRepository() {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+        ProductDto productDto = ProductTestData.builder().withDescription("Новое описание").build().buildProductDto();
+
+        // when
+        boolean updated = client.update(product.getUuid(), productDto);
+        String description = productRepository.findById(product.getUuid()).orElseThrow().getDescription();
+        client.delete(product.getUuid());
+
+        // then
+        assertThat(updated).isTrue();
+        assertEquals("Новое описание", description);
+        assertEquals(Optional.empty(), productRepository.findById(product.getUuid()));
+    }
+
+    @Test
+    void pipelinedRequestsShouldCompleteWithTheirOwnResults() {
+        // given
+        List<UUID> uuids = IntStream.range(0, 100)
+                .mapToObj(i -> productRepository.save(ProductTestData.builder()
+                        .withUuid(null)
+                        .withPrice(BigDecimal.valueOf(i))
+                        .build().buildProduct()).getUuid())
+                .toList();
+        UUID missing = UUID.randomUUID();
+
+        // when
+        List<CompletableFuture<InfoProductDto>> gets = uuids.stream()
+                .map(client::getAsync)
+                .toList();
+        CompletableFuture<InfoProductDto> notFound = client.getAsync(missing);
+        CompletableFuture<List<InfoProductDto>> all = client.getAllAsync();
+        CompletableFuture<Void> deleted = client.deleteAsync(uuids.get(0));
+
+        // then
+        assertThat(gets)
+                .extracting(future -> future.join().price())
+                .containsExactlyElementsOf(IntStream.range(0, 100).mapToObj(BigDecimal::valueOf).toList());
+        CompletionException exception = assertThrows(CompletionException.class, notFound::join);
+        assertThat(exception).hasCauseInstanceOf(ProductNotFoundException.class);
+        assertEquals(100, all.join().size());
+        deleted.join();
+        assertEquals(Optional.empty(), productRepository.findById(uuids.get(0)));
+    }
+
+    @Test
+    void concurrentClientsShouldShareServer() throws Exception {
+        // given
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<UUID>> futures = new ArrayList<>();
+
+        // when
+        for (int thread = 0; thread < threads; thread++) {
+            futures.add(executor.submit(() -> {
+                try (ProductTcpClient own = new ProductTcpClient(server.getAddress())) {
+                    UUID uuid = own.create(ProductTestData.builder().build().buildProductDto());
+                    for (int i = 0; i < 1_000; i++) {
+                        client.get(uuid);
+                        own.get(uuid);
+                    }
+                    return uuid;
+                }
+            }));
+        }
+        List<UUID> created = new ArrayList<>();
+        for (Future<UUID> future : futures) {
+            created.add(future.get());
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(created)
+                .allSatisfy(uuid -> assertThat(productRepository.findById(uuid)).isPresent());
+    }
+
+    @Test
+    void pipelinedGetsShouldSustainThroughput() {
+        // given
+        List<UUID> uuids = IntStream.range(0, 1_000)
+                .mapToObj(i -> productRepository.save(ProductTestData.builder().withUuid(null).build()
+                        .buildProduct()).getUuid())
+                .toList();
+        List<CompletableFuture<InfoProductDto>> warmUp = uuids.stream()
+                .map(client::getAsync)
+                .toList();
+        warmUp.forEach(CompletableFuture::join);
+        List<CompletableFuture<InfoProductDto>> futures = new ArrayList<>(PIPELINED_GETS);
+
+        // when
+        long start = System.nanoTime();
+        for (int i = 0; i < PIPELINED_GETS; i++) {
+            futures.add(client.getAsync(uuids.get(i % uuids.size())));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        long elapsedNanos = System.nanoTime() - start;
+
+        // then
+        assertEquals(uuids.get((PIPELINED_GETS - 1) % uuids.size()), futures.get(PIPELINED_GETS - 1).join().uuid());
+        assertThat((double) PIPELINED_GETS * 1_000_000_000L / elapsedNanos).isGreaterThan(MIN_GETS_PER_SECOND);
+    }
+
+    @Test
+    void getAllLargerThanFrameShouldFailOnlyItsRequest() throws Exception {
+        // given
+        InfoProductDto large = ProductTestData.builder()
+                .withDescription("Описание".repeat(250))
+                .build().buildInfoProductDto();
+        ProductService productService = mock(ProductService.class);
+        when(productService.getAll())
+                .thenReturn(Collections.nCopies(10_000, large));
+        when(productService.get(large.uuid()))
+                .thenReturn(large);
+
+        try (ProductTcpServer largeServer = new ProductTcpServer(productService,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             ProductTcpClient largeClient = new ProductTcpClient(largeServer.getAddress())) {
+            largeServer.start();
+
+            // when
+            CompletableFuture<List<InfoProductDto>> all = largeClient.getAllAsync();
+            CompletableFuture<InfoProductDto> next = largeClient.getAsync(large.uuid());
+
+            // then
+            CompletionException exception = assertThrows(CompletionException.class, all::join);
+            assertThat(exception).hasCauseInstanceOf(IllegalStateException.class);
+            assertEquals(large, next.join());
+        }
+    }
+
+    @Test
+    void internalIllegalArgumentExceptionShouldNotBecomeBadRequest() throws Exception {
+        // given
+        UUID uuid = UUID.randomUUID();
+        ProductService productService = mock(ProductService.class);
+        when(productService.get(uuid))
+                .thenThrow(new IllegalArgumentException("secret internal detail"));
+
+        try (ProductTcpServer failingServer = new ProductTcpServer(productService,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             ProductTcpClient failingClient = new ProductTcpClient(failingServer.getAddress())) {
+            failingServer.start();
+
+            // when
+            IllegalStateException actual = assertThrows(IllegalStateException.class, () -> failingClient.get(uuid));
+
+            // then
+            assertEquals("Server error: Internal error", actual.getMessage());
+        }
+    }
+
+    @Test
+    void truncatedArgumentsShouldReturnBadRequest() throws Exception {
+        // given
+        ByteBuffer frame = ByteBuffer.allocate(ProductProtocol.LENGTH_HEADER + ProductProtocol.HEADER_SIZE)
+                .putInt(ProductProtocol.HEADER_SIZE)
+                .putLong(42)
+                .put((byte) ProductProtocol.Operation.GET.ordinal())
+                .flip();
+        ByteBuffer response = ByteBuffer.allocate(ProductProtocol.LENGTH_HEADER + ProductProtocol.HEADER_SIZE);
+
+        // when
+        try (SocketChannel raw = SocketChannel.open(server.getAddress())) {
+            raw.write(frame);
+            while (response.hasRemaining()) {
+                raw.read(response);
+            }
+        }
+
+        // then
+        assertEquals(42, response.getLong(ProductProtocol.LENGTH_HEADER));
+        assertEquals(ProductProtocol.Status.BAD_REQUEST.ordinal(),
+                response.get(ProductProtocol.LENGTH_HEADER + Long.BYTES));
+    }
+
+    @Test
+    void hostilePriceLengthShouldReturnBadRequestAndKeepConnection() throws Exception {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+        ByteBuffer create = ByteBuffer.allocate(64);
+        create.position(ProductProtocol.LENGTH_HEADER);
+        create.putLong(1)
+                .put((byte) ProductProtocol.Operation.CREATE.ordinal())
+                .put(ProductCodec.VERSION)
+                .putInt(-1)
+                .putInt(-1)
+                .put((byte) 1)
+                .putInt(2)
+                .putInt(Integer.MAX_VALUE);
+        create.putInt(0, create.position() - ProductProtocol.LENGTH_HEADER).flip();
+        ByteBuffer get = ByteBuffer.allocate(ProductProtocol.LENGTH_HEADER + ProductProtocol.HEADER_SIZE + 16)
+                .putInt(ProductProtocol.HEADER_SIZE + 16)
+                .putLong(2)
+                .put((byte) ProductProtocol.Operation.GET.ordinal())
+                .putLong(product.getUuid().getMostSignificantBits())
+                .putLong(product.getUuid().getLeastSignificantBits())
+                .flip();
+
+        try (SocketChannel raw = SocketChannel.open(server.getAddress())) {
+            // when
+            raw.write(create);
+            ByteBuffer badRequest = readFrame(raw);
+            raw.write(get);
+            ByteBuffer found = readFrame(raw);
+
+            // then
+            assertEquals(1, badRequest.getLong());
+            assertEquals(ProductProtocol.Status.BAD_REQUEST.ordinal(), badRequest.get());
+            assertEquals(2, found.getLong());
+            assertEquals(ProductProtocol.Status.OK.ordinal(), found.get());
+            assertEquals(product.getUuid(), new ProductCodec().readInfoProductDto(found).uuid());
+        }
+    }
+
+    @Test
+    void malformedFrameShouldCloseOnlyItsConnection() throws Exception {
+        // given
+        Product product = productRepository.save(ProductTestData.builder().build().buildProduct());
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES).putInt(-1).flip();
+
+        // when
+        try (SocketChannel raw = SocketChannel.open(server.getAddress())) {
+            raw.write(frame);
+
+            // then
+            assertEquals(-1, raw.read(ByteBuffer.allocate(1)));
+        }
+        assertEquals(product.getUuid(), client.get(product.getUuid()).uuid());
+    }
+
+    @Test
+    void closedClientShouldFailNewRequests() {
+        // given
+        client.close();
+
+        // when
+        CompletableFuture<List<InfoProductDto>> actual = client.getAllAsync();
+
+        // then
+        assertTrue(actual.isCompletedExceptionally());
+        CompletionException exception = assertThrows(CompletionException.class, actual::join);
+        assertThat(exception).hasCauseInstanceOf(UncheckedIOException.class);
+    }
+
+    private static ByteBuffer readFrame(SocketChannel channel) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(ProductProtocol.LENGTH_HEADER);
+        while (length.hasRemaining()) {
+            channel.read(length);
+        }
+        ByteBuffer frame = ByteBuffer.allocate(length.getInt(0));
+        while (frame.hasRemaining()) {
+            channel.read(frame);
+        }
+        return frame.flip();
+    }
+}
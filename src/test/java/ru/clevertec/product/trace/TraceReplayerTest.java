@@ -0,0 +1,218 @@
+package ru.clevertec.product.trace;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.clevertec.product.data.CreatedCursor;
+import ru.clevertec.product.data.CreatedPage;
+import ru.clevertec.product.data.ProductDto;
+import ru.clevertec.product.entity.ProductValidator;
+import ru.clevertec.product.exception.NotValidException;
+import ru.clevertec.product.exception.ProductNotFoundException;
+import ru.clevertec.product.mapper.ProductMapperImpl;
+import ru.clevertec.product.repository.impl.InMemoryProductRepository;
+import ru.clevertec.product.service.ProductService;
+import ru.clevertec.product.service.impl.ProductServiceImpl;
+import ru.clevertec.product.utils.ProductTestData;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TraceReplayerTest {
+
+    @TempDir
+    Path directory;
+
+    private Path trace;
+
+    @BeforeEach
+    void setUp() {
+        trace = directory.resolve("products.trace");
+    }
+
+    @Test
+    void recordingShouldWriteEveryCallInStartOrder() throws IOException {
+        // given
+        ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+        ProductDto updateDto = ProductTestData.builder().withPrice(BigDecimal.TEN).build().buildProductDto();
+        LocalDateTime from = LocalDateTime.of(2023, 10, 1, 0, 0);
+        UUID created;
+
+        // when
+        try (RecordingProductService recording = new RecordingProductService(newService(), trace)) {
+            created = recording.create(productDto);
+            recording.update(created, updateDto);
+            recording.get(created);
+            recording.getCreatedBetween(from, from.plusDays(1), 5);
+            recording.getCreatedSince(new CreatedCursor(from, created), 7);
+            recording.delete(created);
+        }
+        List<TraceRecord> actual = TraceReplayer.read(trace);
+
+        // then
+        assertThat(actual).extracting(TraceRecord::operation)
+                .containsExactly(TraceOperation.CREATE, TraceOperation.UPDATE, TraceOperation.GET,
+                        TraceOperation.GET_CREATED_BETWEEN, TraceOperation.GET_CREATED_SINCE, TraceOperation.DELETE);
+        assertEquals(productDto, actual.get(0).productDto());
+        assertEquals(created, actual.get(0).resultUuid());
+        assertEquals(updateDto, actual.get(1).productDto());
+        assertEquals(created, actual.get(1).uuid());
+        assertEquals(from, actual.get(3).from());
+        assertEquals(5, actual.get(3).limit());
+        assertEquals(new CreatedCursor(from, created), actual.get(4).cursor());
+        assertThat(actual).extracting(TraceRecord::offsetNanos).isSorted();
+    }
+
+    @Test
+    void recordingShouldWriteFailedCallsAndRethrow() throws IOException {
+        // given
+        UUID uuid = UUID.fromString("b8003c54-c22b-450a-a0d3-94b646150585");
+        ProductDto invalid = ProductTestData.builder().withName("name").build().buildProductDto();
+
+        // when
+        try (RecordingProductService recording = new RecordingProductService(newService(), trace)) {
+            assertThrows(ProductNotFoundException.class, () -> recording.get(uuid));
+            assertThrows(NotValidException.class, () -> recording.create(invalid));
+        }
+        List<TraceRecord> actual = TraceReplayer.read(trace);
+
+        // then
+        assertEquals(List.of(TraceRecord.of(TraceOperation.GET, actual.get(0).offsetNanos(), uuid),
+                new TraceRecord(TraceOperation.CREATE, actual.get(1).offsetNanos(), null, invalid,
+                        null, null, null, 0, null)), actual);
+    }
+
+    @Test
+    void recordingShouldWriteCallsWithNullArgumentsWithoutMaskingOutcome() throws IOException {
+        // given
+        ProductService productService = mock(ProductService.class);
+        when(productService.get(null))
+                .thenThrow(new ProductNotFoundException(null));
+        when(productService.getCreatedSince(null, 10))
+                .thenReturn(new CreatedPage(List.of(), null));
+
+        // when
+        try (RecordingProductService recording = new RecordingProductService(productService, trace)) {
+            assertThrows(ProductNotFoundException.class, () -> recording.get(null));
+            assertEquals(new CreatedPage(List.of(), null), recording.getCreatedSince(null, 10));
+            recording.update(null, null);
+            recording.delete(null);
+            assertEquals(0, recording.getDropped());
+        }
+        List<TraceRecord> actual = TraceReplayer.read(trace);
+
+        // then
+        assertEquals(List.of(TraceRecord.of(TraceOperation.GET, actual.get(0).offsetNanos(), null),
+                new TraceRecord(TraceOperation.GET_CREATED_SINCE, actual.get(1).offsetNanos(), null, null,
+                        null, null, null, 10, null),
+                TraceRecord.of(TraceOperation.UPDATE, actual.get(2).offsetNanos(), null),
+                TraceRecord.of(TraceOperation.DELETE, actual.get(3).offsetNanos(), null)), actual);
+    }
+
+    @Test
+    void recordingShouldFlushRecordsLargerThanBuffer() throws IOException {
+        // given
+        ProductDto productDto = ProductTestData.builder().build().buildProductDto();
+
+        // when
+        try (RecordingProductService recording = new RecordingProductService(newService(), trace, 64)) {
+            recording.create(productDto);
+            recording.getAll();
+        }
+
+        // then
+        assertThat(TraceReplayer.read(trace)).extracting(TraceRecord::productDto)
+                .containsExactly(productDto, null);
+    }
+
+    @Test
+    void readShouldRejectForeignFile() throws IOException {
+        // given
+        Files.write(trace, new byte[]{1, 2, 3, 4, 5});
+
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> TraceReplayer.read(trace));
+    }
+
+    @Test
+    void replayShouldMapRecordedUuidsToReplayedOnes() throws IOException {
+        // given
+        ProductDto first = ProductTestData.builder().withName("Первый").build().buildProductDto();
+        ProductDto second = ProductTestData.builder().withName("Второй").build().buildProductDto();
+        ProductDto updated = ProductTestData.builder().withName("Второй").withPrice(BigDecimal.TEN).build()
+                .buildProductDto();
+        try (RecordingProductService recording = new RecordingProductService(newService(), trace)) {
+            UUID firstUuid = recording.create(first);
+            UUID secondUuid = recording.create(second);
+            recording.update(secondUuid, updated);
+            recording.get(secondUuid);
+            recording.delete(firstUuid);
+            recording.getAll();
+        }
+        InMemoryProductRepository target = new InMemoryProductRepository();
+
+        // when
+        ReplayReport actual = new TraceReplayer(newService(target)).replay(trace, 3,
+                TraceReplayer.Pacing.AS_FAST_AS_POSSIBLE);
+
+        // then
+        assertEquals(6, actual.operations());
+        assertEquals(0, actual.errors());
+        assertThat(target.findAll()).singleElement()
+                .satisfies(product -> {
+                    assertEquals("Второй", product.getName());
+                    assertEquals(BigDecimal.TEN, product.getPrice());
+                });
+    }
+
+    @Test
+    void replayShouldCountErrorsAndReportPercentiles() {
+        // given
+        UUID missing = UUID.fromString("b8003c54-c22b-450a-a0d3-94b646150585");
+        List<TraceRecord> records = List.of(
+                TraceRecord.of(TraceOperation.GET, 0, missing),
+                TraceRecord.of(TraceOperation.GET_ALL, 1_000_000, null),
+                TraceRecord.of(TraceOperation.GET_ALL_COLUMNS, 2_000_000, null));
+
+        // when
+        ReplayReport actual = new TraceReplayer(newService()).replay(records, 2, TraceReplayer.Pacing.ORIGINAL);
+
+        // then
+        assertEquals(3, actual.operations());
+        assertEquals(1, actual.errors());
+        assertThat(actual.elapsed().toNanos()).isGreaterThanOrEqualTo(2_000_000);
+        assertThat(actual.p50Nanos()).isLessThanOrEqualTo(actual.p99Nanos());
+        assertThat(actual.p99Nanos()).isLessThanOrEqualTo(actual.maxNanos());
+        assertThat(actual.throughput()).isPositive();
+    }
+
+    @Test
+    void replayShouldRejectNonPositiveThreads() {
+        // given
+        TraceReplayer replayer = new TraceReplayer(newService());
+        List<TraceRecord> records = List.of();
+
+        // when, then
+        assertThrows(IllegalArgumentException.class,
+                () -> replayer.replay(records, 0, TraceReplayer.Pacing.AS_FAST_AS_POSSIBLE));
+    }
+
+    private static ProductService newService() {
+        return newService(new InMemoryProductRepository());
+    }
+
+    private static ProductService newService(InMemoryProductRepository productRepository) {
+        return new ProductServiceImpl(new ProductMapperImpl(), productRepository, new ProductValidator());
+    }
+}
@@ -0,0 +1,65 @@
+package ru.clevertec.product.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+/**
+ * Считает байты, выделенные текущим потоком на одну операцию, через {@link com.sun.management.ThreadMXBean}.
+ * Перед замером операция прогревается, чтобы JIT успел убрать выделения, которые не доживают до кучи
+ */
+public class AllocationMeter {
+
+    private static final String BUDGETS = "/allocation-budgets.properties";
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final Properties budgets = new Properties();
+
+    public AllocationMeter() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try (InputStream input = AllocationMeter.class.getResourceAsStream(BUDGETS)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing " + BUDGETS);
+            }
+            budgets.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isSupported() {
+        return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * @param operation операция, выполняется многократно в текущем потоке
+     * @return среднее количество байт на одну операцию
+     */
+    public long bytesPerOperation(Runnable operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            operation.run();
+        }
+        long after = threads.getCurrentThreadAllocatedBytes();
+        return (after - before) / MEASURED_ITERATIONS;
+    }
+
+    /**
+     * @param name имя бюджета в allocation-budgets.properties
+     * @return допустимое количество байт на операцию
+     */
+    public long budget(String name) {
+        String value = budgets.getProperty(name);
+        if (value == null) {
+            throw new IllegalArgumentException("No allocation budget for " + name);
+        }
+        return Long.parseLong(value.trim());
+    }
+}